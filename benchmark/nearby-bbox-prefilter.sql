@@ -0,0 +1,53 @@
+-- Бенчмарк поиска достопримечательностей в радиусе (AttractionRepository.getNearestAttractions).
+-- Сравнивает план запроса только с точной проверкой calculate_distance и план
+-- с предварительным фильтром по ограничивающему прямоугольнику (индекс locations(lat, lon), миграция V7).
+--
+-- Запуск на базе с применёнными миграциями Flyway:
+--   psql -h localhost -p 5433 -U ultro -d cg_db -f benchmark/nearby-bbox-prefilter.sql
+-- Все данные создаются внутри транзакции и откатываются в конце.
+
+BEGIN;
+
+-- 1 000 000 мест, равномерно распределённых по Европе
+INSERT INTO cities (name, country)
+VALUES ('Benchmark', 'Benchmark');
+
+INSERT INTO locations (lat, lon)
+SELECT 35 + random() * 25, -10 + random() * 40
+FROM generate_series(1, 1000000);
+
+INSERT INTO attraction (name, category_id, location_id, city_id)
+SELECT 'Benchmark ' || l.id, 1 + l.id % 3, l.id, (SELECT max(id) FROM cities)
+FROM locations l
+WHERE NOT EXISTS (SELECT 1 FROM attraction a WHERE a.location_id = l.id);
+
+ANALYZE locations;
+ANALYZE attraction;
+
+-- Радиус 10 км вокруг Парижа, ограничивающий прямоугольник посчитан GeoUtils.boundingBox(48.85, 2.29, 10)
+\set userLat 48.85
+\set userLon 2.29
+\set radius 10
+\set minLat 48.76006784
+\set maxLat 48.93993216
+\set minLon 2.15333168
+\set maxLon 2.42666832
+
+-- До: точная проверка расстояния для каждой строки (Seq Scan по locations)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT a.id
+FROM attraction a
+         JOIN locations l ON l.id = a.location_id
+WHERE calculate_distance(:userLat, :userLon, l.lat, l.lon) <= :radius;
+
+-- После: выборка кандидатов по индексу locations_lat_lon_idx, точная проверка только для них
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT a.id
+FROM attraction a
+         JOIN locations l ON l.id = a.location_id
+WHERE l.lat BETWEEN :minLat AND :maxLat
+  AND l.lon BETWEEN :minLon AND :maxLon
+  AND calculate_distance(:userLat, :userLon, l.lat, l.lon) <= :radius;
+
+ROLLBACK;
+
@@ -0,0 +1,129 @@
+package com.example.benchmark;
+
+import com.example.CityGuideApp;
+import com.example.model.Attraction;
+import com.example.model.Category;
+import com.example.model.City;
+import com.example.model.Location;
+import com.example.repository.AttractionRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Измеряет скорость массовой загрузки достопримечательностей через JPA: 100 000 достопримечательностей
+ * вместе с их местоположениями сохраняются через {@link AttractionRepository#saveAll} транзакциями
+ * по {@value #TRANSACTION_SIZE} штук. Результат - среднее время сохранения одной достопримечательности
+ * (строк в секунду = 1 000 000 / результат в микросекундах).
+ * <p>
+ * Требует PostgreSQL; миграции Flyway применяются при старте контекста. Параметры подключения
+ * задаются системными свойствами {@code benchmark.jdbc.url}, {@code benchmark.jdbc.user}
+ * и {@code benchmark.jdbc.password} (по умолчанию - как в application.properties).
+ * Загруженные строки удаляются перед каждой итерацией и после завершения бенчмарка.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class AttractionBulkLoadBenchmark {
+    private static final int ROWS = 100_000;
+    private static final int TRANSACTION_SIZE = 1_000;
+    private static final String CITY_NAME = "Bulk Load Benchmark";
+
+    private ConfigurableApplicationContext context;
+    private AttractionRepository attractionRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private long cityId;
+    private long categoryId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(CityGuideApp.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url="
+                                + System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5433/cg_db"),
+                        "--spring.datasource.username=" + System.getProperty("benchmark.jdbc.user", "ultro"),
+                        "--spring.datasource.password=" + System.getProperty("benchmark.jdbc.password", "163163"),
+                        "--city-guide.spatial-index.enabled=false",
+                        "--logging.level.root=warn");
+        attractionRepository = context.getBean(AttractionRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        cityId = jdbcTemplate.queryForObject(
+                "INSERT INTO cities (name, country) VALUES (?, 'Benchmark') RETURNING id", Long.class, CITY_NAME);
+        categoryId = jdbcTemplate.queryForObject("SELECT min(id) FROM categories", Long.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void cleanUp() {
+        deleteLoadedRows();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        deleteLoadedRows();
+        jdbcTemplate.update("DELETE FROM cities WHERE id = ?", cityId);
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void saveAll() {
+        Random random = new Random(42);
+        for (int saved = 0; saved < ROWS; saved += TRANSACTION_SIZE) {
+            int offset = saved;
+            transactionTemplate.executeWithoutResult(status -> {
+                City city = entityManager.getReference(City.class, cityId);
+                Category category = entityManager.getReference(Category.class, categoryId);
+                List<Attraction> attractions = new ArrayList<>(TRANSACTION_SIZE);
+                for (int i = 0; i < TRANSACTION_SIZE; i++) {
+                    Location location = new Location();
+                    location.setLat(48.77 + random.nextDouble() * 0.18);
+                    location.setLon(2.22 + random.nextDouble() * 0.25);
+
+                    Attraction attraction = new Attraction();
+                    attraction.setName("Attraction " + (offset + i));
+                    attraction.setCategory(category);
+                    attraction.setCity(city);
+                    attraction.setLocation(location);
+                    attractions.add(attraction);
+                }
+                attractionRepository.saveAll(attractions);
+            });
+        }
+    }
+
+    private void deleteLoadedRows() {
+        jdbcTemplate.update("""
+                WITH deleted AS (DELETE FROM attraction WHERE city_id = ? RETURNING location_id)
+                DELETE FROM locations WHERE id IN (SELECT location_id FROM deleted)
+                """, cityId);
+    }
+}
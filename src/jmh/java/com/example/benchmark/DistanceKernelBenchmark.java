@@ -0,0 +1,120 @@
+package com.example.benchmark;
+
+import com.example.geo.DistanceKernel;
+import com.example.geo.VectorDistanceKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает вычисление расстояний от точки до всех достопримечательностей города:
+ * скалярным и векторизованным {@link DistanceKernel} в памяти приложения и функцией
+ * {@code calculate_distance} в базе данных (один запрос с передачей координат массивами).
+ * <p>
+ * Бенчмарк {@code sqlRoundTrip} требует PostgreSQL с примененными миграциями Flyway. Параметры подключения
+ * задаются системными свойствами {@code benchmark.jdbc.url}, {@code benchmark.jdbc.user}
+ * и {@code benchmark.jdbc.password} (по умолчанию - как в application.properties).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class DistanceKernelBenchmark {
+    private static final double USER_LAT = 48.8584;
+    private static final double USER_LON = 2.2945;
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private final DistanceKernel scalar = DistanceKernel.scalar();
+    private final DistanceKernel vector = new VectorDistanceKernel();
+    private double[] lats;
+    private double[] lons;
+    private double[] out;
+    private Connection connection;
+    private PreparedStatement statement;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        Random random = new Random(42);
+        lats = new double[size];
+        lons = new double[size];
+        out = new double[size];
+        // Достопримечательности города: точки в квадрате около 20 x 15 км вокруг центра Парижа
+        for (int i = 0; i < size; i++) {
+            lats[i] = 48.77 + random.nextDouble() * 0.18;
+            lons[i] = 2.22 + random.nextDouble() * 0.25;
+        }
+
+        connection = DriverManager.getConnection(
+                System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5433/cg_db"),
+                System.getProperty("benchmark.jdbc.user", "ultro"),
+                System.getProperty("benchmark.jdbc.password", "163163"));
+        statement = connection.prepareStatement(
+                "SELECT calculate_distance(?, ?, t.lat, t.lon) FROM unnest(?::float8[], ?::float8[]) AS t(lat, lon)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        statement.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public double[] scalarKernel() {
+        scalar.distances(USER_LAT, USER_LON, lats, lons, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] vectorKernel() {
+        vector.distances(USER_LAT, USER_LON, lats, lons, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] sqlRoundTrip() throws SQLException {
+        Array latArray = connection.createArrayOf("float8", box(lats));
+        Array lonArray = connection.createArrayOf("float8", box(lons));
+        statement.setDouble(1, USER_LAT);
+        statement.setDouble(2, USER_LON);
+        statement.setArray(3, latArray);
+        statement.setArray(4, lonArray);
+        try (ResultSet rs = statement.executeQuery()) {
+            int i = 0;
+            while (rs.next()) {
+                out[i++] = rs.getDouble(1);
+            }
+        }
+        return out;
+    }
+
+    private static Double[] box(double[] values) {
+        Double[] boxed = new Double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return boxed;
+    }
+}
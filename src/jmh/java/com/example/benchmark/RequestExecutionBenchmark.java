@@ -0,0 +1,153 @@
+package com.example.benchmark;
+
+import com.example.CityGuideApp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сравнивает обработку запросов на потоках платформы (пул потоков Tomcat) и на виртуальных потоках
+ * (профиль {@code virtual-threads}) под нагрузкой {@value #CLIENTS} одновременных клиентов.
+ * Каждый клиент в цикле запрашивает {@code GET /attractions/nearby} со случайными координатами вокруг
+ * {@value #ATTRACTIONS} достопримечательностей; пространственный индекс и кэш результатов отключены,
+ * поэтому каждый запрос выполняет поиск в базе данных и большую часть времени ждет JDBC.
+ * Режим {@code Throughput} дает пропускную способность (запросов в миллисекунду), режим {@code SampleTime} -
+ * распределение задержек, в том числе p0.99. Ответы с кодом, отличным от 200 (например, 503 при исчерпании
+ * лимита параллельных запросов), подсчитываются и выводятся после каждого режима.
+ * <p>
+ * Требует PostgreSQL и Java 21+ для режима {@code virtual}. Параметры подключения задаются системными свойствами
+ * {@code benchmark.jdbc.url}, {@code benchmark.jdbc.user} и {@code benchmark.jdbc.password}
+ * (по умолчанию - как в application.properties), размер пула соединений - параметром {@code poolSize}.
+ * Запуск: {@code mvn -Pjmh test-compile exec:exec -Djmh.args="RequestExecutionBenchmark"}.
+ * Созданные данные удаляются после завершения бенчмарка.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 20)
+@Measurement(iterations = 3, time = 30)
+@Threads(RequestExecutionBenchmark.CLIENTS)
+@Fork(value = 1, jvmArgsAppend = "-Xss512k")
+public class RequestExecutionBenchmark {
+    static final int CLIENTS = 1024;
+    private static final int ATTRACTIONS = 100_000;
+    private static final String CITY_NAME = "Request Execution Benchmark";
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"10"})
+    public int poolSize;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private HttpClient client;
+    private String nearbyUrl;
+    private long cityId;
+    private final AtomicLong failed = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("virtual".equals(threads) && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads require Java 21+, running on " + Runtime.version());
+        }
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url="
+                        + System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5433/cg_db"),
+                "--spring.datasource.username=" + System.getProperty("benchmark.jdbc.user", "ultro"),
+                "--spring.datasource.password=" + System.getProperty("benchmark.jdbc.password", "163163"),
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--city-guide.spatial-index.enabled=false",
+                "--city-guide.nearby-cache.enabled=false",
+                "--city-guide.cache-invalidation.enabled=false",
+                "--logging.level.root=warn"));
+        if ("virtual".equals(threads)) {
+            args.add("--spring.profiles.active=virtual-threads");
+        }
+        context = new SpringApplicationBuilder(CityGuideApp.class).run(args.toArray(String[]::new));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        cityId = jdbcTemplate.queryForObject(
+                "INSERT INTO cities (name, country) VALUES (?, 'Benchmark') RETURNING id", Long.class, CITY_NAME);
+        jdbcTemplate.update("""
+                WITH locations AS (
+                    INSERT INTO locations (lat, lon)
+                    SELECT 48.77 + random() * 0.18, 2.22 + random() * 0.25 FROM generate_series(1, ?)
+                    RETURNING id)
+                INSERT INTO attraction (name, category_id, location_id, city_id)
+                SELECT 'Benchmark ' || id, (SELECT min(id) FROM categories), id, ? FROM locations
+                """, ATTRACTIONS, cityId);
+        jdbcTemplate.execute("ANALYZE locations; ANALYZE attraction");
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        nearbyUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + "/attractions/nearby";
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportFailures() {
+        long count = failed.getAndSet(0);
+        if (count > 0) {
+            System.out.println("Non-200 responses in iteration: " + count);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.update("""
+                WITH deleted AS (DELETE FROM attraction WHERE city_id = ? RETURNING location_id)
+                DELETE FROM locations WHERE id IN (SELECT location_id FROM deleted)
+                """, cityId);
+        jdbcTemplate.update("DELETE FROM cities WHERE id = ?", cityId);
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    public int nearby(Client client) throws IOException, InterruptedException {
+        String query = String.format(Locale.ROOT, "?userLat=%.5f&userLon=%.5f&radius=1&limitCount=20",
+                48.77 + client.random.nextDouble() * 0.18, 2.22 + client.random.nextDouble() * 0.25);
+        HttpResponse<Void> response = this.client.send(HttpRequest.newBuilder(URI.create(nearbyUrl + query))
+                .timeout(Duration.ofSeconds(60))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            failed.incrementAndGet();
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.geo;
+
+import com.example.util.GeoUtils;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Векторизованная реализация {@link DistanceKernel} на Vector API ({@code jdk.incubator.vector}):
+ * за итерацию обрабатывается столько точек, сколько double помещается в предпочтительный для процессора
+ * вектор, хвост массива досчитывается скалярной реализацией.
+ * <p>
+ * Класс собирается и загружается только в профиле {@code jmh}, где подключен модуль {@code jdk.incubator.vector}.
+ */
+public class VectorDistanceKernel implements DistanceKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double DEGREES_TO_HALF_RADIANS = Math.PI / 360;
+
+    @Override
+    public void distances(double lat, double lon, double[] lats, double[] lons, double[] out) {
+        DistanceKernel.checkLengths(lats, lons, out);
+        double lat1 = Math.toRadians(lat);
+        double halfLat1 = lat1 * 0.5;
+        double halfLon1 = Math.toRadians(lon) * 0.5;
+        double cosLat1 = Math.cos(lat1);
+        double diameter = 2 * GeoUtils.EARTH_RADIUS_KM;
+
+        int bound = SPECIES.loopBound(lats.length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector halfLat2 = DoubleVector.fromArray(SPECIES, lats, i).mul(DEGREES_TO_HALF_RADIANS);
+            DoubleVector halfLon2 = DoubleVector.fromArray(SPECIES, lons, i).mul(DEGREES_TO_HALF_RADIANS);
+            DoubleVector sinDLat = halfLat2.sub(halfLat1).lanewise(VectorOperators.SIN);
+            DoubleVector sinDLon = halfLon2.sub(halfLon1).lanewise(VectorOperators.SIN);
+            DoubleVector cosLat2 = halfLat2.add(halfLat2).lanewise(VectorOperators.COS);
+            DoubleVector h = sinDLat.mul(sinDLat)
+                    .add(cosLat2.mul(cosLat1).mul(sinDLon).mul(sinDLon))
+                    .min(1.0);
+            h.sqrt().lanewise(VectorOperators.ASIN).mul(diameter).intoArray(out, i);
+        }
+        ScalarDistanceKernel.distances(lat, lon, lats, lons, out, i, lats.length);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VectorDistanceKernelTest {
+
+    @Test
+    void distances_MatchScalarKernelIncludingArrayTail() {
+        Random random = new Random(7);
+        // Длина не кратна числу элементов вектора, чтобы проверить и хвост массива
+        int size = 10_007;
+        double[] lats = new double[size];
+        double[] lons = new double[size];
+        for (int i = 0; i < size; i++) {
+            lats[i] = random.nextDouble() * 180 - 90;
+            lons[i] = random.nextDouble() * 360 - 180;
+        }
+        double[] expected = new double[size];
+        double[] actual = new double[size];
+
+        DistanceKernel.scalar().distances(48.8584, 2.2945, lats, lons, expected);
+        new VectorDistanceKernel().distances(48.8584, 2.2945, lats, lons, actual);
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(expected[i], actual[i], 1e-6, "at " + i);
+        }
+    }
+}
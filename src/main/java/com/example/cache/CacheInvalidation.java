@@ -0,0 +1,69 @@
+package com.example.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Событие изменения данных, после которого локальные кэши других узлов должны быть инвалидированы.
+ * Заполнены только поля, нужные для типа события.
+ *
+ * @param type   Тип события
+ * @param entity Имя сущности ({@link com.example.model.EntityName#getDisplayName()}) для {@link Type#ENTITY}
+ * @param id     Идентификатор сущности или достопримечательности
+ * @param lat    Широта достопримечательности
+ * @param lon    Долгота достопримечательности
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CacheInvalidation(Type type, String entity, Long id, Double lat, Double lon) {
+
+    public enum Type {
+        /**
+         * Сущность создана, изменена или удалена: запись о ней удаляется из кэшей сущностей.
+         */
+        ENTITY,
+        /**
+         * Достопримечательность добавлена или перемещена: точка обновляется в пространственном индексе,
+         * а результаты поиска рядом с ней становятся устаревшими.
+         */
+        ATTRACTION_MOVED,
+        /**
+         * Достопримечательность удалена из пространственного индекса.
+         */
+        ATTRACTION_REMOVED,
+        /**
+         * Результаты поиска рядом с точкой становятся устаревшими (например, изменился рейтинг).
+         */
+        NEARBY_CELL,
+        /**
+         * Все результаты поиска ближайших достопримечательностей становятся устаревшими.
+         */
+        NEARBY_ALL,
+        /**
+         * Пространственный индекс перестраивается, а кэш результатов поиска очищается (например, после импорта).
+         */
+        SEARCH_REFRESH
+    }
+
+    public static CacheInvalidation entity(String entity, Long id) {
+        return new CacheInvalidation(Type.ENTITY, entity, id, null, null);
+    }
+
+    public static CacheInvalidation attractionMoved(Long id, double lat, double lon) {
+        return new CacheInvalidation(Type.ATTRACTION_MOVED, null, id, lat, lon);
+    }
+
+    public static CacheInvalidation attractionRemoved(Long id) {
+        return new CacheInvalidation(Type.ATTRACTION_REMOVED, null, id, null, null);
+    }
+
+    public static CacheInvalidation nearbyCell(double lat, double lon) {
+        return new CacheInvalidation(Type.NEARBY_CELL, null, null, lat, lon);
+    }
+
+    public static CacheInvalidation nearbyAll() {
+        return new CacheInvalidation(Type.NEARBY_ALL, null, null, null, null);
+    }
+
+    public static CacheInvalidation searchRefresh() {
+        return new CacheInvalidation(Type.SEARCH_REFRESH, null, null, null, null);
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.cache;
+
+import com.example.geo.AttractionSpatialIndex;
+import com.example.repository.CacheInvalidationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Шина инвалидации локальных кэшей между узлами приложения через PostgreSQL {@code LISTEN/NOTIFY}.
+ * <p>
+ * Сервисы публикуют события изменения данных в транзакции, в которой изменяют данные. События транзакции
+ * собираются и перед фиксацией отправляются через {@code pg_notify} одним или несколькими уведомлениями,
+ * поэтому другие узлы получают их только после фиксации и не получают при откате. Собственный узел применяет
+ * изменения к своим кэшам сам после фиксации, поэтому свои уведомления игнорирует.
+ * <p>
+ * Полученные события применяются к кэшам сущностей, кэшу второго уровня Hibernate, пространственному индексу
+ * и кэшу результатов поиска ближайших достопримечательностей. Уведомления, отправленные, пока слушатель
+ * был отключен, теряются, поэтому после переподключения увеличивается эпоха и все локальные кэши сбрасываются.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+    /**
+     * Ограничение размера уведомления с запасом относительно лимита PostgreSQL в 8000 байт.
+     */
+    static final int MAX_PAYLOAD_BYTES = 7500;
+
+    @Getter
+    private final boolean enabled;
+    @Getter
+    private final String channel;
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+    private final CacheInvalidationRepository repository;
+    private final NearbyResultCache nearbyCache;
+    private final AttractionSpatialIndex spatialIndex;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectMapper objectMapper;
+    private final Map<String, CachedEntity> entities = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+    private final Counter published;
+    private final Counter received;
+
+    public CacheInvalidationBus(@Value("${city-guide.cache-invalidation.enabled:true}") boolean enabled,
+                                @Value("${city-guide.cache-invalidation.channel:city_guide_cache}") String channel,
+                                CacheInvalidationRepository repository,
+                                NearbyResultCache nearbyCache,
+                                AttractionSpatialIndex spatialIndex,
+                                EntityManagerFactory entityManagerFactory,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.channel = channel;
+        this.repository = repository;
+        this.nearbyCache = nearbyCache;
+        this.spatialIndex = spatialIndex;
+        this.entityManagerFactory = entityManagerFactory;
+        this.objectMapper = objectMapper;
+        this.published = events(meterRegistry, "published");
+        this.received = events(meterRegistry, "received");
+        Gauge.builder("cache.invalidation.epoch", epoch, AtomicLong::get)
+                .description("Number of full local cache flushes after the invalidation listener reconnected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Регистрирует сущность, записи которой могут храниться в локальных кэшах.
+     *
+     * @param entity      Имя сущности
+     * @param entityClass Класс сущности
+     * @param cache       Кэш сущностей сервиса ({@code null}, если он выключен)
+     * @return {@code true}, если сущность кэшируется и об её изменениях нужно сообщать другим узлам
+     */
+    @SuppressWarnings("unchecked")
+    public boolean register(String entity, Class<?> entityClass, EntityCache<?, ?> cache) {
+        boolean secondLevel = entityClass.isAnnotationPresent(Cacheable.class);
+        if (cache == null && !secondLevel) {
+            return false;
+        }
+        entities.put(entity, new CachedEntity(entityClass, (EntityCache<Object, ?>) cache, secondLevel));
+        return enabled;
+    }
+
+    /**
+     * Публикует событие для других узлов.
+     * В транзакции событие отправляется перед её фиксацией, без транзакции - сразу.
+     *
+     * @param event Событие изменения данных
+     */
+    public void publish(CacheInvalidation event) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(List.of(event));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<CacheInvalidation> pending = (Set<CacheInvalidation>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<CacheInvalidation> events = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    send(events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationBus.this);
+                }
+            });
+            pending = events;
+        }
+        pending.add(event);
+    }
+
+    /**
+     * Применяет к локальным кэшам события из уведомления другого узла.
+     *
+     * @param payload Содержимое уведомления
+     * @throws IllegalArgumentException Если уведомление не удается разобрать
+     */
+    public void receive(String payload) {
+        Message message;
+        try {
+            message = objectMapper.readValue(payload, Message.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed cache invalidation payload: " + payload, e);
+        }
+        if (nodeId.equals(message.node())) {
+            return;
+        }
+        message.events().forEach(this::apply);
+        received.increment(message.events().size());
+    }
+
+    /**
+     * Увеличивает эпоху и сбрасывает все локальные кэши.
+     * Вызывается, когда уведомления могли быть пропущены (например, после переподключения слушателя).
+     */
+    public void recover() {
+        long current = epoch.incrementAndGet();
+        entities.values().stream()
+                .filter(cached -> cached.cache() != null)
+                .forEach(cached -> cached.cache().invalidateAll());
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        refreshSearch();
+        log.info("Local caches flushed, invalidation epoch {}", current);
+    }
+
+    public long getEpoch() {
+        return epoch.get();
+    }
+
+    private void apply(CacheInvalidation event) {
+        switch (event.type()) {
+            case ENTITY -> {
+                CachedEntity cached = entities.get(event.entity());
+                if (cached != null) {
+                    evict(cached, event.id());
+                }
+            }
+            case ATTRACTION_MOVED -> {
+                if (spatialIndex.isReady()) {
+                    spatialIndex.put(event.id(), event.lat(), event.lon());
+                }
+                invalidateNearby(event.lat(), event.lon());
+            }
+            case ATTRACTION_REMOVED -> spatialIndex.remove(event.id());
+            case NEARBY_CELL -> invalidateNearby(event.lat(), event.lon());
+            case NEARBY_ALL -> {
+                if (nearbyCache.isEnabled()) {
+                    nearbyCache.invalidateAll();
+                }
+            }
+            case SEARCH_REFRESH -> refreshSearch();
+        }
+    }
+
+    private void evict(CachedEntity cached, Long id) {
+        if (cached.cache() != null) {
+            cached.cache().invalidate(id);
+        }
+        if (cached.secondLevel()) {
+            // Результаты запросов в кэше второго уровня ссылаются на сущность, поэтому тоже сбрасываются
+            Cache regions = entityManagerFactory.getCache().unwrap(Cache.class);
+            regions.evictEntityData(cached.type(), id);
+            regions.evictQueryRegions();
+        }
+    }
+
+    private void invalidateNearby(double lat, double lon) {
+        if (nearbyCache.isEnabled()) {
+            nearbyCache.invalidate(lat, lon);
+        }
+    }
+
+    private void refreshSearch() {
+        if (spatialIndex.isReady()) {
+            spatialIndex.rebuild();
+        }
+        if (nearbyCache.isEnabled()) {
+            nearbyCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Отправляет события, разбивая их на уведомления не длиннее {@link #MAX_PAYLOAD_BYTES}.
+     */
+    private void send(Collection<CacheInvalidation> events) {
+        List<CacheInvalidation> chunk = new ArrayList<>();
+        int chunkBytes = 0;
+        for (CacheInvalidation event : events) {
+            int eventBytes = write(event).length() + 1;
+            if (!chunk.isEmpty() && chunkBytes + eventBytes > MAX_PAYLOAD_BYTES) {
+                repository.notify(channel, write(new Message(nodeId, chunk)));
+                chunk = new ArrayList<>();
+                chunkBytes = 0;
+            }
+            chunk.add(event);
+            chunkBytes += eventBytes;
+        }
+        if (!chunk.isEmpty()) {
+            repository.notify(channel, write(new Message(nodeId, chunk)));
+        }
+        published.increment(events.size());
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize cache invalidation", e);
+        }
+    }
+
+    private Counter events(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder("cache.invalidation.events")
+                .description("Number of cache invalidation events sent to or received from other nodes")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Уведомление с событиями одной транзакции.
+     *
+     * @param node   Идентификатор узла-отправителя
+     * @param events События
+     */
+    record Message(String node, List<CacheInvalidation> events) {
+    }
+
+    private record CachedEntity(Class<?> type, EntityCache<Object, ?> cache, boolean secondLevel) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Слушатель уведомлений об инвалидации кэшей от других узлов.
+ * <p>
+ * Держит отдельное соединение с базой данных вне пула (соединение с {@code LISTEN} нельзя возвращать в пул),
+ * выполняет {@code LISTEN} на канале {@link CacheInvalidationBus#getChannel()} и передает полученные
+ * уведомления в {@link CacheInvalidationBus}. Если соединение потеряно или уведомление не удалось применить,
+ * слушатель переподключается, а после повторного {@code LISTEN} вызывает {@link CacheInvalidationBus#recover()},
+ * так как уведомления за время разрыва могли быть пропущены.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationListener implements SmartLifecycle {
+    /**
+     * Имя приложения соединения слушателя в {@code pg_stat_activity}.
+     */
+    public static final String APPLICATION_NAME = "city-guide-cache-listener";
+
+    private final CacheInvalidationBus bus;
+    private final DataSource dataSource;
+    private final Duration pollInterval;
+    private final Duration reconnectDelay;
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+
+    public CacheInvalidationListener(CacheInvalidationBus bus,
+                                     DataSourceProperties dataSourceProperties,
+                                     @Value("${city-guide.cache-invalidation.poll-interval:10s}")
+                                     Duration pollInterval,
+                                     @Value("${city-guide.cache-invalidation.reconnect-delay:5s}")
+                                     Duration reconnectDelay) {
+        this.bus = bus;
+        SimpleDriverDataSource listenerDataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(SimpleDriverDataSource.class)
+                .build();
+        Properties connectionProperties = new Properties();
+        connectionProperties.setProperty("ApplicationName", APPLICATION_NAME);
+        listenerDataSource.setConnectionProperties(connectionProperties);
+        this.dataSource = listenerDataSource;
+        this.pollInterval = pollInterval;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @Override
+    public void start() {
+        if (!bus.isEnabled()) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::listen, "cache-invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        closeConnection();
+        thread.interrupt();
+        try {
+            thread.join(pollInterval.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean missed = false;
+        while (running) {
+            try {
+                connection = dataSource.getConnection();
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN \"" + bus.getChannel() + "\"");
+                }
+                log.info("Listening for cache invalidations on channel {}", bus.getChannel());
+                if (missed) {
+                    bus.recover();
+                    missed = false;
+                }
+                poll(connection.unwrap(PGConnection.class));
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                missed = true;
+                log.warn("Cache invalidation listener failed, reconnecting in {}: {}", reconnectDelay, e.toString());
+                log.debug("Cache invalidation listener failure", e);
+                closeConnection();
+                sleep(reconnectDelay);
+            }
+        }
+    }
+
+    private void poll(PGConnection pgConnection) throws SQLException {
+        int timeoutMillis = (int) pollInterval.toMillis();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(timeoutMillis);
+            if (notifications == null || notifications.length == 0) {
+                // Без уведомлений обрыв соединения может остаться незамеченным
+                if (!connection.isValid((int) Math.max(1, pollInterval.toSeconds()))) {
+                    throw new SQLException("Cache invalidation listener connection is no longer valid");
+                }
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                bus.receive(notification.getParameter());
+            }
+        }
+    }
+
+    private void closeConnection() {
+        Connection current = connection;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (SQLException e) {
+            log.debug("Failed to close cache invalidation listener connection", e);
+        }
+    }
+
+    private void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
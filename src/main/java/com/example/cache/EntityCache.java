@@ -0,0 +1,83 @@
+package com.example.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Кэш сущностей по идентификатору для сервисов CRUD.
+ * <p>
+ * Хранит как найденные сущности, так и отсутствие сущности (отрицательное кэширование), у каждого вида записей
+ * свое время жизни. Загрузка выполняется не больше одного раза на идентификатор одновременно, а инвалидация
+ * идентификатора ждет завершения его загрузки, поэтому загруженное до инвалидации значение в кэше не остается.
+ *
+ * @param <ID> Тип идентификатора сущности
+ * @param <T>  Тип сущности
+ */
+public class EntityCache<ID, T> {
+    private final Cache<ID, Optional<T>> cache;
+
+    /**
+     * @param name        Имя кэша в метриках ({@code cache.*} с тегом {@code cache=entity.<name>})
+     * @param maximumSize Максимальное количество записей
+     * @param ttl         Время жизни найденной сущности
+     * @param negativeTtl Время жизни записи об отсутствии сущности
+     */
+    public EntityCache(String name, long maximumSize, Duration ttl, Duration negativeTtl,
+                       MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new PresenceExpiry<ID, T>(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "entity." + name);
+    }
+
+    /**
+     * Возвращает сущность из кэша или загружает и кэширует её.
+     *
+     * @param id     Идентификатор сущности
+     * @param loader Загрузка сущности по идентификатору
+     * @return Сущность или пустой {@link Optional}, если сущности нет
+     */
+    public Optional<T> get(ID id, Function<ID, Optional<T>> loader) {
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Удаляет из кэша запись для идентификатора.
+     */
+    public void invalidate(ID id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Удаляет из кэша все записи.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private record PresenceExpiry<ID, T>(long ttlNanos, long negativeTtlNanos) implements Expiry<ID, Optional<T>> {
+        @Override
+        public long expireAfterCreate(ID id, Optional<T> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(ID id, Optional<T> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ID id, Optional<T> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.cache;
+
+/**
+ * Ключ кэша результатов поиска ближайших достопримечательностей.
+ * Координаты в ключе уже округлены до точности кэша.
+ *
+ * @param lat           Округленная широта
+ * @param lon           Округленная долгота
+ * @param radius        Радиус поиска (в километрах)
+ * @param categoryId    Идентификатор категории ({@code null}, если фильтр не задан)
+ * @param minRating     Минимальный рейтинг ({@code null}, если фильтр не задан)
+ * @param sortBy        Поле для сортировки
+ * @param sortDirection Направление сортировки
+ * @param limit         Размер страницы
+ * @param cursor        Курсор страницы ({@code null} для первой страницы)
+ * @param withCategory  Загружается ли категория
+ * @param withCity      Загружается ли город
+ */
+public record NearbyQueryKey(double lat, double lon, double radius, Long categoryId, Double minRating,
+                             String sortBy, String sortDirection, int limit, String cursor,
+                             boolean withCategory, boolean withCity) {
+}
@@ -0,0 +1,217 @@
+package com.example.cache;
+
+import com.example.dto.attraction.AttractionProjection;
+import com.example.dto.page.CursorPageDto;
+import com.example.util.GeoUtils;
+import com.example.util.GeoUtils.BoundingBox;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Кэш результатов поиска ближайших достопримечательностей.
+ * <p>
+ * Координаты пользователя округляются до заданной точности, поэтому близкие запросы (например, из одного
+ * и того же места) получают один и тот же ответ, вычисленный для округленной точки. Записи вытесняются
+ * по времени жизни и по размеру кэша.
+ * <p>
+ * Для инвалидации земной шар разбит на ячейки сетки, у каждой из которых есть счетчик версий.
+ * Запись запоминает версии ячеек, покрытых ограничивающим прямоугольником её запроса, и считается устаревшей,
+ * если версия хотя бы одной из них изменилась. Версия ячейки увеличивается при изменении достопримечательности
+ * или отзыва на достопримечательность в этой ячейке. Запросы, покрывающие слишком много ячеек, не кэшируются.
+ * Счетчики хранятся в таблице фиксированного размера, индексируемой хешем ячейки, поэтому память не растет
+ * с числом измененных ячеек; ячейки с общим счетчиком лишь делают устаревшими записи друг друга.
+ */
+@Slf4j
+@Component
+public class NearbyResultCache {
+    /**
+     * Количество счетчиков версий ячеек (степень двойки).
+     */
+    private static final int VERSION_SLOTS = 1 << 16;
+
+    @Getter
+    private final boolean enabled;
+    private final double precision;
+    private final double cellSize;
+    private final int maxCellsPerEntry;
+    private final Cache<NearbyQueryKey, Entry> cache;
+    private final AtomicLongArray cellVersions = new AtomicLongArray(VERSION_SLOTS);
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleHits;
+    private final Counter bypasses;
+
+    public NearbyResultCache(@Value("${city-guide.nearby-cache.enabled:true}") boolean enabled,
+                             @Value("${city-guide.nearby-cache.coordinate-precision-degrees:0.001}") double precision,
+                             @Value("${city-guide.nearby-cache.cell-size-degrees:0.1}") double cellSize,
+                             @Value("${city-guide.nearby-cache.max-cells-per-entry:64}") int maxCellsPerEntry,
+                             @Value("${city-guide.nearby-cache.ttl:60s}") Duration ttl,
+                             @Value("${city-guide.nearby-cache.maximum-size:10000}") long maximumSize,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.precision = precision;
+        this.cellSize = cellSize;
+        this.maxCellsPerEntry = maxCellsPerEntry;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.staleHits = requests(meterRegistry, "stale");
+        this.bypasses = requests(meterRegistry, "bypass");
+        FunctionCounter.builder("nearby.cache.evictions", cache, c -> c.stats().evictionCount())
+                .description("Number of nearby search results evicted by size or time to live")
+                .register(meterRegistry);
+        Gauge.builder("nearby.cache.size", cache, Cache::estimatedSize)
+                .description("Approximate number of cached nearby search results")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Округляет координату до точности кэша.
+     *
+     * @param coordinate Широта или долгота
+     * @return Округленная координата
+     */
+    public double snap(double coordinate) {
+        return Math.round(coordinate / precision) * precision;
+    }
+
+    /**
+     * Возвращает наибольшее расстояние между точкой и ее округленными координатами: путь вдоль меридиана
+     * и параллели длиной не больше половины шага округления по каждой координате.
+     * Расстояния от точки и от ее округленных координат до любой третьей точки отличаются не больше чем на него.
+     *
+     * @return Расстояние в километрах
+     */
+    public double maxSnapDistance() {
+        return Math.toRadians(precision) * GeoUtils.EARTH_RADIUS_KM;
+    }
+
+    /**
+     * Возвращает актуальный результат поиска из кэша или вычисляет и сохраняет его.
+     *
+     * @param key    Ключ запроса с округленными координатами
+     * @param loader Вычисление результата для запроса
+     * @return Результат поиска
+     */
+    public CursorPageDto<AttractionProjection> get(NearbyQueryKey key,
+                                                   Supplier<CursorPageDto<AttractionProjection>> loader) {
+        int[] cells = cellsOf(GeoUtils.boundingBox(key.lat(), key.lon(), key.radius()));
+        if (cells.length == 0) {
+            bypasses.increment();
+            return loader.get();
+        }
+
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && isCurrent(entry)) {
+            hits.increment();
+            return entry.page();
+        }
+        (entry == null ? misses : staleHits).increment();
+
+        // Версии читаются до вычисления: изменение, зафиксированное во время вычисления,
+        // сделает сохраненную запись устаревшей
+        long global = globalVersion.get();
+        long[] versions = new long[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            versions[i] = cellVersions.get(cells[i]);
+        }
+        CursorPageDto<AttractionProjection> page = loader.get();
+        cache.put(key, new Entry(page, global, cells, versions));
+        return page;
+    }
+
+    /**
+     * Делает устаревшими результаты запросов, покрывающих ячейку с указанной точкой.
+     *
+     * @param lat Широта измененной достопримечательности
+     * @param lon Долгота измененной достопримечательности
+     */
+    public void invalidate(double lat, double lon) {
+        cellVersions.incrementAndGet(versionSlot(latCell(lat), lonCell(lon)));
+    }
+
+    /**
+     * Делает устаревшими все результаты в кэше.
+     */
+    public void invalidateAll() {
+        globalVersion.incrementAndGet();
+        cache.invalidateAll();
+        log.info("Nearby search cache invalidated");
+    }
+
+    /**
+     * Возвращает счетчики версий ячеек, покрытых прямоугольником, или пустой массив, если ячеек слишком много.
+     */
+    private int[] cellsOf(BoundingBox box) {
+        long minLatCell = latCell(box.minLat());
+        long maxLatCell = latCell(box.maxLat());
+        long minLonCell = lonCell(box.minLon());
+        long maxLonCell = lonCell(box.maxLon());
+        long count = (maxLatCell - minLatCell + 1) * (maxLonCell - minLonCell + 1);
+        if (count > maxCellsPerEntry) {
+            return new int[0];
+        }
+        int[] cells = new int[(int) count];
+        int i = 0;
+        for (long latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+            for (long lonCell = minLonCell; lonCell <= maxLonCell; lonCell++) {
+                cells[i++] = versionSlot(latCell, lonCell);
+            }
+        }
+        return cells;
+    }
+
+    private Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("nearby.cache.requests")
+                .description("Number of nearby search cache lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private int versionSlot(long latCell, long lonCell) {
+        long key = (latCell << 32) | lonCell;
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - Integer.numberOfTrailingZeros(VERSION_SLOTS)));
+    }
+
+    private long latCell(double lat) {
+        return (long) Math.floor((lat + 90) / cellSize);
+    }
+
+    private long lonCell(double lon) {
+        return (long) Math.floor((lon + 180) / cellSize);
+    }
+
+    private boolean isCurrent(Entry entry) {
+        if (entry.global() != globalVersion.get()) {
+            return false;
+        }
+        for (int i = 0; i < entry.cells().length; i++) {
+            if (cellVersions.get(entry.cells()[i]) != entry.versions()[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record Entry(CursorPageDto<AttractionProjection> page, long global, int[] cells, long[] versions) {
+    }
+}
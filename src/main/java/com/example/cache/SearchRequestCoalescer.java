@@ -0,0 +1,120 @@
+package com.example.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Объединяет одновременные одинаковые поисковые запросы (single-flight).
+ * <p>
+ * Первый запрос с ключом выполняет поиск, а запросы с равным ключом, пришедшие до его завершения, ждут
+ * и получают тот же результат или то же исключение. Результат не сохраняется: следующий запрос после
+ * завершения поиска выполняет его заново. Ожидание ограничено {@code max-wait}; по его истечении запрос
+ * выполняет поиск сам, чтобы медленный поиск не задерживал ответы дольше обычного.
+ * <p>
+ * Общий результат возвращается всем ожидавшим запросам, поэтому изменять его нельзя. Вызов выполняется вне
+ * транзакции: иначе ожидающие запросы занимали бы соединения из пула.
+ */
+@Slf4j
+@Component
+public class SearchRequestCoalescer {
+    @Getter
+    private final boolean enabled;
+    private final long maxWaitNanos;
+    private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+    private final Counter timedOut;
+
+    public SearchRequestCoalescer(@Value("${city-guide.search-coalescing.enabled:true}") boolean enabled,
+                                  @Value("${city-guide.search-coalescing.max-wait:5s}") Duration maxWait,
+                                  MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.executed = requests(meterRegistry, "executed");
+        this.coalesced = requests(meterRegistry, "coalesced");
+        this.timedOut = requests(meterRegistry, "timeout");
+        Gauge.builder("search.coalescing.in-flight", inFlight, Map::size)
+                .description("Number of distinct searches currently executing")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Выполняет поиск или дожидается результата такого же поиска, уже выполняющегося в другом потоке.
+     *
+     * @param key    Ключ запроса; равные ключи означают одинаковый результат
+     * @param search Выполнение поиска
+     * @param <T>    Тип результата
+     * @return Результат поиска
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> search) {
+        if (!enabled) {
+            return search.get();
+        }
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, call);
+        if (running == null) {
+            return lead(key, call, search);
+        }
+        try {
+            T result = (T) running.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+            coalesced.increment();
+            return result;
+        } catch (ExecutionException e) {
+            coalesced.increment();
+            throw propagate(e.getCause());
+        } catch (TimeoutException e) {
+            log.debug("Search {} is still running after {} ms, executing it separately",
+                    key, TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        timedOut.increment();
+        return search.get();
+    }
+
+    private <T> T lead(Object key, CompletableFuture<Object> call, Supplier<T> search) {
+        executed.increment();
+        try {
+            T result = search.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("search.coalescing.requests")
+                .description("Number of search requests by coalescing result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
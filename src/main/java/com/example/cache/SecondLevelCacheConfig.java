@@ -0,0 +1,69 @@
+package com.example.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Настройка локального кэша второго уровня Hibernate на JCache (Caffeine) для справочников.
+ * <p>
+ * Регионы создаются заранее с ограничением размера: сущности городов и категорий вместе с результатами
+ * кэшируемых запросов к ним вытесняются по размеру и по времени жизни. Время жизни страхует от изменений,
+ * сделанных в обход Hibernate; изменения через сервисы инвалидируют кэш сразу. Регион временных меток
+ * обновления таблиц не ограничивается: по нему Hibernate определяет устаревшие результаты запросов.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+    /**
+     * Регион кэша городов.
+     */
+    public static final String CITIES_REGION = "cities";
+
+    /**
+     * Регион кэша категорий.
+     */
+    public static final String CATEGORIES_REGION = "categories";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${city-guide.second-level-cache.maximum-size:10000}") long maximumSize,
+            @Value("${city-guide.second-level-cache.ttl:10m}") Duration ttl) {
+        // Отдельный менеджер на каждый контекст приложения: менеджер по умолчанию общий для загрузчика классов
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("city-guide:" + UUID.randomUUID()),
+                provider.getDefaultClassLoader());
+        for (String region : new String[]{CITIES_REGION, CATEGORIES_REGION,
+                RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME}) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region, configuration);
+        }
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStatisticsEnabled(true);
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, timestamps);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+}
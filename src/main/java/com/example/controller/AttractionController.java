@@ -1,15 +1,32 @@
 package com.example.controller;
 
 import com.example.dto.attraction.AttractionDto;
+import com.example.dto.attraction.AttractionProjection;
 import com.example.dto.attraction.AttractionShortDto;
 import com.example.dto.attraction.NewAttractionDto;
 import com.example.dto.attraction.UpdateAttractionDto;
+import com.example.dto.bulk.BulkResultDto;
+import com.example.dto.fields.SparseFieldset;
 import com.example.dto.mappers.AttractionMapper;
+import com.example.dto.page.CursorPageDto;
+import com.example.error.exception.ValidationException;
 import com.example.model.Attraction;
+import com.example.model.City;
 import com.example.service.AttractionService;
+import com.example.service.CrudService;
+import com.example.util.BulkUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -20,8 +37,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Контроллер для управления сущностями типа "Достопримечательность".
@@ -32,8 +56,24 @@ import java.util.List;
 @RequestMapping("/attractions")
 @RequiredArgsConstructor
 public class AttractionController {
+    /**
+     * Поля {@link AttractionDto}, которые можно запросить параметром {@code fields} в результатах поиска.
+     */
+    private static final Set<String> SEARCH_FIELDS =
+            Set.of("id", "name", "category", "location", "city", "rating", "distance");
+
     private final AttractionService attractionService;
     private final AttractionMapper attractionMapper;
+    private final CrudService<City, Long> cityService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    /**
+     * Время на выгрузку всех достопримечательностей города. Задается только для выгрузки: остальные
+     * асинхронные запросы завершаются по общему тайм-ауту {@code spring.mvc.async.request-timeout}.
+     */
+    @Value("${city-guide.export.timeout:30m}")
+    private Duration exportTimeout = Duration.ofMinutes(30);
 
     /**
      * Создает новую достопримечательность.
@@ -48,6 +88,20 @@ public class AttractionController {
         return attractionMapper.toAttractionShortDto(attractionService.create(attraction));
     }
 
+    /**
+     * Создает несколько достопримечательностей одним запросом.
+     * Каждый элемент проверяется отдельно: элементы с ошибками не создаются, но не мешают созданию остальных.
+     * Все корректные элементы создаются в одной транзакции.
+     *
+     * @param dtos список объектов {@link NewAttractionDto} (не более {@value BulkUtils#MAX_ITEMS}).
+     * @return объект {@link BulkResultDto} с результатом для каждого элемента в порядке запроса.
+     */
+    @PostMapping("/bulk")
+    public BulkResultDto<AttractionShortDto> createAttractions(@RequestBody List<NewAttractionDto> dtos) {
+        return BulkUtils.createAll(dtos, validator, attractionMapper::toEntity, attractionService::createAll,
+                attractionMapper::toAttractionShortDto);
+    }
+
     /**
      * Возвращает информацию о достопримечательности по её идентификатору.
      *
@@ -84,30 +138,53 @@ public class AttractionController {
     }
 
     /**
-     * Возвращает список ближайших достопримечательностей в радиусе от заданной точки.
+     * Возвращает список ближайших достопримечательностей в радиусе от заданной точки
+     * или, если задан параметр {@code k}, k ближайших достопримечательностей без ограничения радиуса.
      *
      * @param userLat       широта пользователя.
      * @param userLon       долгота пользователя.
-     * @param radius        радиус поиска в километрах.
+     * @param radius        радиус поиска в километрах (обязателен, если не задан {@code k}).
+     * @param k             (необязательно) количество ближайших достопримечательностей; результаты возвращаются
+     *                      одной страницей, параметры {@code radius} и {@code cursor} при этом не допускаются.
      * @param categoryId    (необязательно) идентификатор категории достопримечательностей.
      * @param minRating     (необязательно) минимальный рейтинг достопримечательности.
      * @param limitCount    (по умолчанию 10) максимальное количество достопримечательностей в ответе.
      * @param sortBy        (по умолчанию "distance") критерий сортировки: "distance", "rating".
      * @param sortDirection (по умолчанию "asc") направление сортировки: "asc" или "desc".
-     * @return список объектов {@link AttractionDto}, представляющих ближайшие достопримечательности.
+     * @param cursor        (необязательно) курсор следующей страницы из поля {@code nextCursor} предыдущего ответа.
+     * @param fields        (необязательно) поля достопримечательностей в ответе через запятую: "id", "name",
+     *                      "category", "location", "city", "rating", "distance". Категория и город
+     *                      не загружаются из базы данных, если не запрошены.
+     * @return страница {@link CursorPageDto} объектов {@link AttractionDto}, представляющих ближайшие
+     * достопримечательности, и курсор следующей страницы.
      */
     @GetMapping("/nearby")
-    public List<AttractionDto> getNearestAttractions(@RequestParam double userLat,
+    public MappingJacksonValue getNearestAttractions(@RequestParam double userLat,
                                                      @RequestParam double userLon,
-                                                     @RequestParam double radius,
+                                                     @RequestParam(required = false) Double radius,
+                                                     @RequestParam(required = false) Integer k,
                                                      @RequestParam(required = false) Long categoryId,
                                                      @RequestParam(required = false) Double minRating,
                                                      @RequestParam(defaultValue = "10") int limitCount,
                                                      @RequestParam(defaultValue = "distance") String sortBy,
-                                                     @RequestParam(defaultValue = "asc") String sortDirection) {
-        return attractionService.getNearestAttractions(userLat, userLon, radius,
-                        categoryId, minRating, limitCount, sortBy, sortDirection).stream()
-                .map(attractionMapper::toAttractionDto).toList();
+                                                     @RequestParam(defaultValue = "asc") String sortDirection,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) String fields) {
+        SparseFieldset fieldset = SparseFieldset.parse(fields, SEARCH_FIELDS);
+        if (k != null) {
+            if (radius != null || cursor != null) {
+                throw new ValidationException("Parameter k cannot be combined with radius or cursor.");
+            }
+            return fieldset.applyTo(new CursorPageDto<>(attractionService.getKNearestAttractions(userLat, userLon, k,
+                            categoryId, minRating, sortBy, sortDirection, fieldset).stream()
+                    .map(attractionMapper::toAttractionDto)
+                    .toList(), null));
+        }
+        if (radius == null) {
+            throw new ValidationException("Either radius or k must be specified.");
+        }
+        return fieldset.applyTo(toDtoPage(attractionService.getNearestAttractions(userLat, userLon, radius,
+                categoryId, minRating, limitCount, sortBy, sortDirection, cursor, fieldset)));
     }
 
     /**
@@ -121,19 +198,63 @@ public class AttractionController {
      * @param limitCount    (по умолчанию 10) максимальное количество достопримечательностей в ответе.
      * @param sortBy        (по умолчанию "distance") критерий сортировки: "distance", "rating".
      * @param sortDirection (по умолчанию "asc") направление сортировки: "asc" или "desc".
-     * @return список объектов {@link AttractionDto}, представляющих достопримечательности в городе.
+     * @param cursor        (необязательно) курсор следующей страницы из поля {@code nextCursor} предыдущего ответа.
+     * @param fields        (необязательно) поля достопримечательностей в ответе через запятую: "id", "name",
+     *                      "category", "location", "city", "rating", "distance". Категория и город
+     *                      не загружаются из базы данных, если не запрошены.
+     * @return страница {@link CursorPageDto} объектов {@link AttractionDto}, представляющих достопримечательности
+     * в городе, и курсор следующей страницы.
      */
     @GetMapping("/city")
-    public List<AttractionDto> getAttractionsInCity(@RequestParam long cityId,
+    public MappingJacksonValue getAttractionsInCity(@RequestParam long cityId,
                                                     @RequestParam double userLat,
                                                     @RequestParam double userLon,
                                                     @RequestParam(required = false) Long categoryId,
                                                     @RequestParam(required = false) Double minRating,
                                                     @RequestParam(defaultValue = "10") int limitCount,
                                                     @RequestParam(defaultValue = "distance") String sortBy,
-                                                    @RequestParam(defaultValue = "asc") String sortDirection) {
-        return attractionService.getAttractionsInCity(cityId, userLat, userLon,
-                        categoryId, minRating, limitCount, sortBy, sortDirection).stream()
-                .map(attractionMapper::toAttractionDto).toList();
+                                                    @RequestParam(defaultValue = "asc") String sortDirection,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) String fields) {
+        SparseFieldset fieldset = SparseFieldset.parse(fields, SEARCH_FIELDS);
+        return fieldset.applyTo(toDtoPage(attractionService.getAttractionsInCity(cityId, userLat, userLon,
+                categoryId, minRating, limitCount, sortBy, sortDirection, cursor, fieldset)));
+    }
+
+    /**
+     * Выгружает все достопримечательности города в формате NDJSON (по одному JSON-объекту на строку).
+     * Достопримечательности читаются из базы данных курсором и записываются в ответ по мере чтения,
+     * поэтому объем используемой памяти не зависит от количества достопримечательностей в городе.
+     *
+     * @param cityId  идентификатор города.
+     * @param request текущий запрос, для которого задается тайм-аут выгрузки.
+     * @return тело ответа, последовательно записывающее объекты {@link AttractionDto}.
+     */
+    @GetMapping(value = "/city/{cityId}/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAttractionsInCity(@PathVariable long cityId,
+                                                                         WebRequest request) {
+        // Город проверяется до начала потоковой записи, пока еще можно вернуть код ошибки.
+        cityService.getById(cityId);
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeout.toMillis());
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                attractionService.exportAttractionsInCity(cityId, projection -> {
+                    try {
+                        writer.writeValue(generator, attractionMapper.toAttractionDto(projection));
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private CursorPageDto<AttractionDto> toDtoPage(CursorPageDto<AttractionProjection> page) {
+        return new CursorPageDto<>(page.getItems().stream().map(attractionMapper::toAttractionDto).toList(),
+                page.getNextCursor());
     }
 }
\ No newline at end of file
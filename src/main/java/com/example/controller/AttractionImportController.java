@@ -0,0 +1,39 @@
+package com.example.controller;
+
+import com.example.dto.ingest.ImportReportDto;
+import com.example.ingest.ImportFormat;
+import com.example.service.AttractionImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+/**
+ * Контроллер для массового импорта достопримечательностей из файлов каталогов.
+ * Тело запроса читается потоком и загружается в базу данных по мере чтения.
+ */
+@RestController
+@RequestMapping("/attractions/import")
+@RequiredArgsConstructor
+public class AttractionImportController {
+    private final AttractionImportService attractionImportService;
+
+    /**
+     * Импортирует достопримечательности из файла в формате CSV ({@code text/csv}) или NDJSON
+     * ({@code application/x-ndjson}). Строки с ошибками не импортируются и перечисляются в отчете.
+     *
+     * @param contentType тип содержимого запроса, определяющий формат файла.
+     * @param body        тело запроса с файлом импорта в кодировке UTF-8.
+     * @return объект {@link ImportReportDto} с количеством импортированных и отклоненных строк.
+     */
+    @PostMapping(consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ImportReportDto importAttractions(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                             InputStream body) {
+        return attractionImportService.importAttractions(body, ImportFormat.fromContentType(contentType));
+    }
+}
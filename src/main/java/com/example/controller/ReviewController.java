@@ -1,15 +1,21 @@
 package com.example.controller;
 
+import com.example.dto.bulk.BulkResultDto;
+import com.example.dto.fields.SparseFieldset;
 import com.example.dto.mappers.AttractionReviewMapper;
+import com.example.dto.page.CountedCursorPageDto;
 import com.example.dto.review.AttractionReviewDto;
 import com.example.dto.review.NewAttractionReviewDto;
 import com.example.dto.review.ReviewDtoForAttraction;
 import com.example.dto.review.UpdateAttractionReviewDto;
 import com.example.model.AttractionReview;
 import com.example.service.ReviewService;
+import com.example.util.BulkUtils;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -22,6 +28,8 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Контроллер для управления отзывами о достопримечательностях.
@@ -31,8 +39,14 @@ import java.util.List;
 @RequestMapping("/reviews")
 @RequiredArgsConstructor
 public class ReviewController {
+    /**
+     * Поля {@link ReviewDtoForAttraction}, которые можно запросить параметром {@code fields}.
+     */
+    private static final Set<String> REVIEW_FIELDS = Set.of("id", "comment", "rating", "author");
+
     private final AttractionReviewMapper attractionReviewMapper;
     private final ReviewService reviewService;
+    private final Validator validator;
 
     /**
      * Создает новый отзыв о достопримечательности.
@@ -53,6 +67,21 @@ public class ReviewController {
         return attractionReviewMapper.toAttractionReviewDto(reviewService.create(review));
     }
 
+    /**
+     * Создает несколько отзывов одним запросом.
+     * Автор и достопримечательность каждого отзыва задаются полями {@code authorId} и {@code attractionId}.
+     * Каждый элемент проверяется отдельно: элементы с ошибками не создаются, но не мешают созданию остальных.
+     * Все корректные элементы создаются в одной транзакции.
+     *
+     * @param dtos список объектов {@link NewAttractionReviewDto} (не более {@value BulkUtils#MAX_ITEMS}).
+     * @return объект {@link BulkResultDto} с результатом для каждого элемента в порядке запроса.
+     */
+    @PostMapping("/bulk")
+    public BulkResultDto<AttractionReviewDto> createReviews(@RequestBody List<NewAttractionReviewDto> dtos) {
+        return BulkUtils.createAll(dtos, validator, attractionReviewMapper::toEntity, reviewService::createAll,
+                attractionReviewMapper::toAttractionReviewDto);
+    }
+
     /**
      * Возвращает отзыв по его идентификатору.
      *
@@ -90,16 +119,31 @@ public class ReviewController {
     }
 
     /**
-     * Получает список отзывов для указанной достопримечательности.
+     * Получает страницу отзывов для указанной достопримечательности.
      *
      * @param attId         идентификатор достопримечательности, для которой нужно получить отзывы.
-     * @param sortDirection направление сортировки отзывов (по умолчанию "desc").
-     * @return список объектов {@link ReviewDtoForAttraction}, содержащих отзывы о достопримечательности.
+     * @param sortDirection направление сортировки отзывов по оценке (по умолчанию "desc").
+     * @param limitCount    (по умолчанию 20) максимальное количество отзывов в ответе.
+     * @param cursor        (необязательно) курсор следующей страницы из поля {@code nextCursor} предыдущего ответа.
+     * @param fields        (необязательно) поля отзывов в ответе через запятую: "id", "comment", "rating", "author".
+     *                      Авторы не загружаются из базы данных, если не запрошены.
+     * @return страница {@link CountedCursorPageDto} объектов {@link ReviewDtoForAttraction}, содержащих отзывы
+     * о достопримечательности, с курсором следующей страницы и общим количеством отзывов.
      */
     @GetMapping("/attraction/{attId}")
-    public List<ReviewDtoForAttraction> getReviewsByAttId(@PathVariable long attId,
-                                                          @RequestParam(defaultValue = "desc") String sortDirection) {
-        return reviewService.getReviewForAttraction(attId, sortDirection).stream()
-                .map(attractionReviewMapper::toReviewDtoForAttraction).toList();
+    public MappingJacksonValue getReviewsByAttId(
+            @PathVariable long attId,
+            @RequestParam(defaultValue = "desc") String sortDirection,
+            @RequestParam(defaultValue = "20") int limitCount,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
+        SparseFieldset fieldset = SparseFieldset.parse(fields, REVIEW_FIELDS);
+        CountedCursorPageDto<AttractionReview> page =
+                reviewService.getReviewForAttraction(attId, sortDirection, limitCount, cursor, fieldset);
+        Function<AttractionReview, ReviewDtoForAttraction> toDto = fieldset.includes("author")
+                ? attractionReviewMapper::toReviewDtoForAttraction
+                : attractionReviewMapper::toReviewDtoForAttractionWithoutAuthor;
+        return fieldset.applyTo(new CountedCursorPageDto<>(page.getItems().stream().map(toDto).toList(),
+                page.getNextCursor(), page.getTotalCount()));
     }
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package com.example.dto.attraction;
 import com.example.dto.category.CategoryDto;
 import com.example.dto.city.CityDto;
 import com.example.dto.location.LocationDto;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,6 +11,7 @@ import lombok.NoArgsConstructor;
 /**
  * DTO (Data Transfer Object) для представления достопримечательности.
  * Используется для передачи информации и рейтинга достопримечательности.
+ * Расстояние до пользователя заполняется только в результатах поиска.
  */
 @Data
 @AllArgsConstructor
@@ -21,4 +23,6 @@ public class AttractionDto {
     private LocationDto location;
     private CityDto city;
     private Double rating;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distance;
 }
\ No newline at end of file
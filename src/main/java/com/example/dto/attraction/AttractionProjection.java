@@ -0,0 +1,33 @@
+package com.example.dto.attraction;
+
+/**
+ * Плоская проекция достопримечательности для списковых запросов.
+ * Одна строка результата соответствует одной достопримечательности, поэтому объем выборки
+ * не зависит от количества отзывов, а ограничение количества применяется в SQL.
+ *
+ * @param id           Идентификатор достопримечательности
+ * @param name         Название
+ * @param categoryId   Идентификатор категории
+ * @param categoryName Название категории
+ * @param cityId       Идентификатор города
+ * @param cityName     Название города
+ * @param cityCountry  Страна города
+ * @param lat          Широта
+ * @param lon          Долгота
+ * @param ratingSum    Сумма оценок отзывов
+ * @param ratingCount  Количество оценок отзывов
+ * @param distance     Расстояние от пользователя (в километрах)
+ */
+public record AttractionProjection(Long id,
+                                   String name,
+                                   Long categoryId,
+                                   String categoryName,
+                                   Long cityId,
+                                   String cityName,
+                                   String cityCountry,
+                                   Double lat,
+                                   Double lon,
+                                   Long ratingSum,
+                                   Integer ratingCount,
+                                   Double distance) {
+}
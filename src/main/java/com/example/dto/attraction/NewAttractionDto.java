@@ -1,6 +1,7 @@
 package com.example.dto.attraction;
 
 import com.example.dto.location.LocationDto;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -24,6 +25,7 @@ public class NewAttractionDto {
     @NotNull
     private Long categoryId;
     @NotNull
+    @Valid
     private LocationDto location;
     @NotNull
     private Long cityId;
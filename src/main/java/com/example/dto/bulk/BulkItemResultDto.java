@@ -0,0 +1,53 @@
+package com.example.dto.bulk;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * DTO (Data Transfer Object) для представления результата обработки одного элемента массового запроса.
+ * Содержит позицию элемента в запросе, статус обработки, созданный объект (при успехе)
+ * или список ошибок (при неудаче).
+ *
+ * @param <T> Тип созданного объекта
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResultDto<T> {
+    private int index;
+    private String status;
+    private T item;
+    private List<String> errors;
+
+    public static <T> BulkItemResultDto<T> created(int index, T item) {
+        return new BulkItemResultDto<>(index, HttpStatus.CREATED.name(), item, null);
+    }
+
+    public static <T> BulkItemResultDto<T> failed(int index, HttpStatus status, List<String> errors) {
+        return new BulkItemResultDto<>(index, status.name(), null, errors);
+    }
+
+    public static <T> BulkItemResultDto<T> failed(int index, HttpStatus status, String error) {
+        return failed(index, status, List.of(error));
+    }
+
+    /**
+     * Возвращает результат для другой позиции в запросе с преобразованным объектом.
+     */
+    public <R> BulkItemResultDto<R> map(int newIndex, Function<? super T, ? extends R> mapper) {
+        return new BulkItemResultDto<>(newIndex, status, item != null ? mapper.apply(item) : null, errors);
+    }
+
+    @JsonIgnore
+    public boolean isSuccessful() {
+        return item != null;
+    }
+}
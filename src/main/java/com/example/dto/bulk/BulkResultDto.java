@@ -0,0 +1,23 @@
+package com.example.dto.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) для представления результата массового создания объектов.
+ * Содержит количество созданных и отклоненных элементов и результат для каждого элемента запроса
+ * в порядке их следования в запросе.
+ *
+ * @param <T> Тип созданных объектов
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkResultDto<T> {
+    private int created;
+    private int failed;
+    private List<BulkItemResultDto<T>> items;
+}
@@ -0,0 +1,106 @@
+package com.example.dto.fields;
+
+import com.example.error.exception.ValidationException;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Набор полей элементов ответа, запрошенный клиентом параметром {@code fields} (sparse fieldset),
+ * например {@code fields=id,name,location,rating}.
+ * <p>
+ * Сервисы по набору полей решают, какие связанные данные загружать, а {@link #applyTo} оставляет
+ * в JSON только запрошенные поля элементов. Фильтр применяется к DTO, для которых в {@link SparseFieldsetConfig}
+ * зарегистрирован фильтр {@value #FILTER_ID}; поля обертки страницы ({@code items}, {@code nextCursor})
+ * выводятся всегда. Наборы с одинаковыми полями равны независимо от порядка полей в параметре.
+ *
+ * @param names Запрошенные поля ({@code null}, если параметр не задан и нужны все поля)
+ */
+public record SparseFieldset(Set<String> names) {
+    /**
+     * Идентификатор фильтра Jackson, отбрасывающего незапрошенные поля.
+     */
+    public static final String FILTER_ID = "sparseFieldset";
+
+    /**
+     * Все поля: параметр {@code fields} не задан.
+     */
+    public static final SparseFieldset ALL = new SparseFieldset(null);
+
+    public SparseFieldset {
+        names = names == null ? null : Set.copyOf(names);
+    }
+
+    /**
+     * Разбирает значение параметра {@code fields}: имена полей через запятую.
+     *
+     * @param fields  Значение параметра ({@code null}, если параметр не задан)
+     * @param allowed Поля, которые можно запросить у ресурса
+     * @return Набор полей или {@link #ALL}, если параметр не задан
+     * @throws ValidationException Если параметр пустой или содержит неизвестное поле
+     */
+    public static SparseFieldset parse(String fields, Set<String> allowed) {
+        if (fields == null) {
+            return ALL;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty()) {
+                names.add(trimmed);
+            }
+        }
+        if (names.isEmpty()) {
+            throw new ValidationException("Invalid value for fields. At least one field must be specified.");
+        }
+        for (String name : names) {
+            if (!allowed.contains(name)) {
+                throw new ValidationException("Invalid value for fields. Unknown field '" + name
+                        + "'. Allowed fields: " + String.join(", ", new TreeSet<>(allowed)) + ".");
+            }
+        }
+        return new SparseFieldset(names);
+    }
+
+    /**
+     * Создает набор из перечисленных полей без проверки.
+     *
+     * @param names Поля
+     * @return Набор полей
+     */
+    public static SparseFieldset of(String... names) {
+        return new SparseFieldset(Set.of(names));
+    }
+
+    /**
+     * @param name Имя поля
+     * @return {@code true}, если поле запрошено
+     */
+    public boolean includes(String name) {
+        return names == null || names.contains(name);
+    }
+
+    /**
+     * Оборачивает тело ответа так, чтобы в JSON остались только запрошенные поля элементов.
+     *
+     * @param body Тело ответа
+     * @return Тело ответа с фильтром полей для конвертера Jackson
+     */
+    public MappingJacksonValue applyTo(Object body) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (names != null) {
+            value.setFilters(new SimpleFilterProvider()
+                    .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(names)));
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return names == null ? "*" : String.join(",", new TreeSet<>(names));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.dto.fields;
+
+import com.example.dto.attraction.AttractionDto;
+import com.example.dto.review.ReviewDtoForAttraction;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Подключает фильтр {@link SparseFieldset} к DTO элементов списков в {@code ObjectMapper} приложения.
+ * <p>
+ * Фильтр задается через mix-in, а не аннотацией на самих DTO: {@link JsonFilter} требует зарегистрированного
+ * фильтра, и DTO перестали бы сериализоваться любым другим {@code ObjectMapper}. По умолчанию фильтр выводит
+ * все поля, поэтому ответы без параметра {@code fields} не меняются.
+ */
+@Configuration
+public class SparseFieldsetConfig {
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsetCustomizer() {
+        return builder -> builder
+                .mixIn(AttractionDto.class, SparseFieldsetMixIn.class)
+                .mixIn(ReviewDtoForAttraction.class, SparseFieldsetMixIn.class)
+                .filters(new SimpleFilterProvider()
+                        .addFilter(SparseFieldset.FILTER_ID, SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @JsonFilter(SparseFieldset.FILTER_ID)
+    private interface SparseFieldsetMixIn {
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.dto.ingest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) для представления отклоненной строки файла импорта.
+ * Содержит номер строки и список ошибок, из-за которых строка не была импортирована.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportErrorDto {
+    private long line;
+    private List<String> errors;
+}
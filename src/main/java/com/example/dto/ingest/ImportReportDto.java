@@ -0,0 +1,23 @@
+package com.example.dto.ingest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) для представления результата импорта достопримечательностей.
+ * Содержит количество прочитанных, импортированных и отклоненных строк, ошибки первых отклоненных строк
+ * и длительность импорта.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportReportDto {
+    private long read;
+    private long imported;
+    private long rejected;
+    private List<ImportErrorDto> errors;
+    private long durationMillis;
+}
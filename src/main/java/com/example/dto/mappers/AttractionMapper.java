@@ -2,20 +2,25 @@ package com.example.dto.mappers;
 
 import com.example.dto.attraction.AttractionDto;
 import com.example.dto.attraction.AttractionDtoForReview;
+import com.example.dto.attraction.AttractionProjection;
 import com.example.dto.attraction.AttractionShortDto;
 import com.example.dto.attraction.NewAttractionDto;
 import com.example.dto.attraction.UpdateAttractionDto;
+import com.example.dto.category.CategoryDto;
+import com.example.dto.city.CityDto;
 import com.example.dto.location.LocationDto;
 import com.example.model.Attraction;
 import com.example.model.Location;
+import com.example.util.CalculateRating;
 import org.mapstruct.InheritInverseConfiguration;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
+import org.mapstruct.Named;
 import org.mapstruct.ReportingPolicy;
 
 @Mapper(unmappedTargetPolicy = ReportingPolicy.IGNORE, componentModel = MappingConstants.ComponentModel.SPRING,
-        uses = {CategoryMapper.class, AttractionMapper.class, CityMapper.class})
+        uses = {CategoryMapper.class, AttractionMapper.class, CityMapper.class}, imports = CalculateRating.class)
 public interface AttractionMapper {
     Location toEntity(LocationDto locationDto);
 
@@ -23,6 +28,32 @@ public interface AttractionMapper {
 
     AttractionDto toAttractionDto(Attraction attraction);
 
+    @Mapping(source = "projection", target = "category", qualifiedByName = "projectionCategory")
+    @Mapping(source = "projection", target = "city", qualifiedByName = "projectionCity")
+    @Mapping(source = "lat", target = "location.lat")
+    @Mapping(source = "lon", target = "location.lon")
+    @Mapping(target = "rating",
+            expression = "java(CalculateRating.calculateRating(projection.ratingSum(), projection.ratingCount()))")
+    AttractionDto toAttractionDto(AttractionProjection projection);
+
+    /**
+     * Категория проекции или {@code null}, если поиск выполнялся без категории.
+     */
+    @Named("projectionCategory")
+    default CategoryDto toCategoryDto(AttractionProjection projection) {
+        return projection.categoryId() == null ? null
+                : new CategoryDto(projection.categoryId(), projection.categoryName());
+    }
+
+    /**
+     * Город проекции или {@code null}, если поиск выполнялся без города.
+     */
+    @Named("projectionCity")
+    default CityDto toCityDto(AttractionProjection projection) {
+        return projection.cityId() == null ? null
+                : new CityDto(projection.cityId(), projection.cityName(), projection.cityCountry());
+    }
+
     @Mapping(source = "cityId", target = "city.id")
     @Mapping(source = "categoryId", target = "category.id")
     Attraction toEntity(NewAttractionDto newAttractionDto);
@@ -30,4 +30,11 @@ public interface AttractionReviewMapper {
 
     @InheritInverseConfiguration(name = "toEntity")
     ReviewDtoForAttraction toReviewDtoForAttraction(AttractionReview attractionReview);
+
+    /**
+     * Преобразует отзыв без автора: автор не запрошен клиентом и не загружался вместе с отзывом.
+     */
+    @InheritInverseConfiguration(name = "toEntity")
+    @Mapping(target = "author", ignore = true)
+    ReviewDtoForAttraction toReviewDtoForAttractionWithoutAuthor(AttractionReview attractionReview);
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.example.dto.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) для представления страницы результатов при постраничной выборке по курсору
+ * вместе с общим количеством элементов во всей выборке.
+ * Содержит элементы страницы, курсор для запроса следующей страницы ({@code null}, если страница последняя)
+ * и общее количество элементов.
+ *
+ * @param <T> Тип элементов страницы
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CountedCursorPageDto<T> {
+    private List<T> items;
+    private String nextCursor;
+    private long totalCount;
+}
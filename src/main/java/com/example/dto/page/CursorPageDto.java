@@ -0,0 +1,21 @@
+package com.example.dto.page;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) для представления страницы результатов при постраничной выборке по курсору.
+ * Содержит элементы страницы и курсор для запроса следующей страницы ({@code null}, если страница последняя).
+ *
+ * @param <T> Тип элементов страницы
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageDto<T> {
+    private List<T> items;
+    private String nextCursor;
+}
@@ -0,0 +1,11 @@
+package com.example.dto.review;
+
+/**
+ * Пара "достопримечательность - автор", однозначно определяющая отзыв:
+ * пользователь может оставить только один отзыв о достопримечательности.
+ *
+ * @param attractionId Идентификатор достопримечательности
+ * @param authorId     Идентификатор автора отзыва
+ */
+public record ReviewAuthorKey(Long attractionId, Long authorId) {
+}
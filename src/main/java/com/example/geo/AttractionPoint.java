@@ -0,0 +1,22 @@
+package com.example.geo;
+
+import jakarta.persistence.Tuple;
+
+/**
+ * Координаты достопримечательности, используемые для построения пространственного индекса.
+ *
+ * @param id  Идентификатор достопримечательности
+ * @param lat Широта
+ * @param lon Долгота
+ */
+public record AttractionPoint(Long id, double lat, double lon) {
+
+    /**
+     * Создает точку из строки результата запроса с колонками {@code id}, {@code lat} и {@code lon}.
+     */
+    public static AttractionPoint of(Tuple tuple) {
+        return new AttractionPoint(tuple.get("id", Number.class).longValue(),
+                tuple.get("lat", Number.class).doubleValue(),
+                tuple.get("lon", Number.class).doubleValue());
+    }
+}
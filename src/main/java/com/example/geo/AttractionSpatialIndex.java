@@ -0,0 +1,386 @@
+package com.example.geo;
+
+import com.example.repository.AttractionRepository;
+import com.example.util.GeoUtils;
+import com.example.util.GeoUtils.BoundingBox;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Пространственный индекс координат достопримечательностей в памяти.
+ * Точки раскладываются по ячейкам равномерной сетки (в градусах), поэтому поиск в радиусе
+ * просматривает только ячейки, попадающие в ограничивающий прямоугольник, а не весь каталог,
+ * а поиск ближайших соседей обходит ячейки кольцами вокруг точки поиска, пока не найдет нужное количество.
+ * Точки ячейки хранятся столбцами координат, и при поиске ближайших соседей расстояния до всех точек ячейки
+ * вычисляются одним вызовом {@link DistanceKernel}. Принадлежность радиусу проверяется
+ * {@link GeoUtils#distance}, той же формулой, что и функция {@code calculate_distance} в базе данных,
+ * чтобы индекс и база данных одинаково решали, попадает ли точка на границе в радиус.
+ * <p>
+ * Индекс заполняется из базы данных при старте приложения и поддерживается в актуальном состоянии
+ * сервисом достопримечательностей после фиксации транзакций.
+ */
+@Slf4j
+@Component
+public class AttractionSpatialIndex implements SmartInitializingSingleton {
+    private static final Comparator<Neighbour> NEIGHBOUR_ORDER =
+            Comparator.comparingDouble(Neighbour::distance).thenComparingLong(Neighbour::id);
+
+    private final AttractionRepository attractionRepository;
+    private final boolean enabled;
+    private final double cellSize;
+    @Getter
+    private final int maxCandidates;
+    private final long maxLatCell;
+    private final long lonCellCount;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, AttractionPoint> points = new HashMap<>();
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final DistanceKernel kernel = DistanceKernel.scalar();
+    private volatile boolean ready;
+
+    public AttractionSpatialIndex(AttractionRepository attractionRepository,
+                                  @Value("${city-guide.spatial-index.enabled:true}") boolean enabled,
+                                  @Value("${city-guide.spatial-index.cell-size-degrees:0.1}") double cellSize,
+                                  @Value("${city-guide.spatial-index.max-candidates:5000}") int maxCandidates) {
+        this.attractionRepository = attractionRepository;
+        this.enabled = enabled;
+        this.cellSize = cellSize;
+        this.maxCandidates = maxCandidates;
+        this.maxLatCell = latCell(90);
+        this.lonCellCount = (long) Math.ceil(360 / cellSize);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Полностью перестраивает индекс по данным из базы данных.
+     */
+    public void rebuild() {
+        List<AttractionPoint> loaded = attractionRepository.findAllPoints();
+        lock.writeLock().lock();
+        try {
+            points.clear();
+            cells.clear();
+            Map<Long, List<AttractionPoint>> byCell = new HashMap<>();
+            for (AttractionPoint point : loaded) {
+                points.put(point.id(), point);
+                byCell.computeIfAbsent(cellKey(point), key -> new ArrayList<>()).add(point);
+            }
+            byCell.forEach((key, cellPoints) -> cells.put(key, Cell.of(cellPoints)));
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Spatial index built with {} attractions", loaded.size());
+    }
+
+    /**
+     * Показывает, можно ли использовать индекс для поиска.
+     *
+     * @return {@code true}, если индекс включен и заполнен
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Добавляет достопримечательность в индекс или перемещает её в новую точку.
+     *
+     * @param id  Идентификатор достопримечательности
+     * @param lat Широта
+     * @param lon Долгота
+     */
+    public void put(Long id, double lat, double lon) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            add(new AttractionPoint(id, lat, lon));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет достопримечательность из индекса.
+     *
+     * @param id Идентификатор достопримечательности
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Находит идентификаторы достопримечательностей, находящихся не дальше заданного радиуса от точки.
+     *
+     * @param lat    Широта центра поиска
+     * @param lon    Долгота центра поиска
+     * @param radius Радиус поиска (в километрах)
+     * @return Идентификаторы найденных достопримечательностей
+     */
+    public List<Long> findWithinRadius(double lat, double lon, double radius) {
+        BoundingBox box = GeoUtils.boundingBox(lat, lon, radius);
+        long minLatCell = latCell(box.minLat());
+        long maxLatCell = latCell(box.maxLat());
+        long minLonCell = rawLonCell(box.minLon());
+        long maxLonCell = Math.min(rawLonCell(box.maxLon()), lonCellCount - 1);
+        List<Long> result = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            long boxCells = (maxLatCell - minLatCell + 1) * (maxLonCell - minLonCell + 1);
+            if (boxCells > cells.size()) {
+                cells.forEach((key, cell) -> {
+                    long latCell = key >> 32;
+                    long lonCell = key & 0xFFFFFFFFL;
+                    if (latCell >= minLatCell && latCell <= maxLatCell
+                            && lonCell >= minLonCell && lonCell <= maxLonCell) {
+                        collect(cell, lat, lon, radius, result);
+                    }
+                });
+            } else {
+                for (long latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+                    for (long lonCell = minLonCell; lonCell <= maxLonCell; lonCell++) {
+                        Cell cell = cells.get(cellKey(latCell, lonCell));
+                        if (cell != null) {
+                            collect(cell, lat, lon, radius, result);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Находит идентификаторы заданного количества ближайших к точке достопримечательностей.
+     * Ячейки сетки просматриваются кольцами от ячейки точки поиска, и обход останавливается, как только
+     * найденные точки гарантированно ближе любой точки за пределами просмотренных колец.
+     * Поэтому стоимость поиска зависит от количества запрошенных точек и плотности каталога вокруг
+     * точки поиска, а не от размера каталога.
+     *
+     * @param lat   Широта центра поиска
+     * @param lon   Долгота центра поиска
+     * @param count Количество ближайших достопримечательностей
+     * @return Идентификаторы найденных достопримечательностей в порядке возрастания расстояния
+     * (при равном расстоянии - в порядке возрастания идентификатора)
+     */
+    public List<Long> findNearest(double lat, double lon, int count) {
+        if (count <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Neighbour> nearest = new PriorityQueue<>(count, NEIGHBOUR_ORDER.reversed());
+        long centerLatCell = latCell(lat);
+        long centerLonCell = rawLonCell(lon);
+
+        lock.readLock().lock();
+        try {
+            for (long ring = 0; ; ring++) {
+                long side = 2 * ring + 1;
+                if (side * side > cells.size() || side > lonCellCount) {
+                    // Кольца охватывают больше ячеек, чем заполнено в сетке: дешевле проверить все точки
+                    nearest.clear();
+                    cells.values().forEach(cell -> offer(nearest, cell, lat, lon, count));
+                    break;
+                }
+                scanRing(centerLatCell, centerLonCell, ring, nearest, lat, lon, count);
+                if (nearest.size() == count
+                        && nearest.peek().distance() <= minDistanceOutside(lat, lon, centerLatCell, centerLonCell,
+                        ring)) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Neighbour> sorted = new ArrayList<>(nearest);
+        sorted.sort(NEIGHBOUR_ORDER);
+        return sorted.stream().map(Neighbour::id).toList();
+    }
+
+    private void scanRing(long centerLatCell, long centerLonCell, long ring, PriorityQueue<Neighbour> nearest,
+                          double lat, double lon, int count) {
+        for (long dLat = -ring; dLat <= ring; dLat++) {
+            long latCell = centerLatCell + dLat;
+            if (latCell < 0 || latCell > maxLatCell) {
+                continue;
+            }
+            // Внутри кольца нужны только крайние ячейки строки, верхняя и нижняя строки берутся целиком
+            long step = Math.abs(dLat) == ring ? 1 : Math.max(1, 2 * ring);
+            for (long dLon = -ring; dLon <= ring; dLon += step) {
+                Cell cell = cells.get(cellKey(latCell, Math.floorMod(centerLonCell + dLon, lonCellCount)));
+                if (cell != null) {
+                    offer(nearest, cell, lat, lon, count);
+                }
+            }
+        }
+    }
+
+    private void offer(PriorityQueue<Neighbour> nearest, Cell cell, double lat, double lon, int count) {
+        double[] distances = new double[cell.ids().length];
+        kernel.distances(lat, lon, cell.lats(), cell.lons(), distances);
+        for (int i = 0; i < distances.length; i++) {
+            Neighbour candidate = new Neighbour(cell.ids()[i], distances[i]);
+            if (nearest.size() < count) {
+                nearest.add(candidate);
+            } else if (NEIGHBOUR_ORDER.compare(candidate, nearest.peek()) < 0) {
+                nearest.poll();
+                nearest.add(candidate);
+            }
+        }
+    }
+
+    /**
+     * Оценивает снизу расстояние (в километрах) от точки поиска до любой точки за пределами
+     * просмотренных колец ячеек.
+     * Точка за пределами колец отстоит либо по широте не меньше, чем до ближайшей широтной границы колец,
+     * либо по долготе не меньше, чем до ближайшей долготной границы. В первом случае расстояние не меньше
+     * дуги меридиана, во втором - не меньше расстояния до меридиана на этой разнице долгот.
+     */
+    private double minDistanceOutside(double lat, double lon, long centerLatCell, long centerLonCell, long ring) {
+        double south = centerLatCell - ring <= 0
+                ? Double.POSITIVE_INFINITY
+                : lat - ((centerLatCell - ring) * cellSize - 90);
+        double north = centerLatCell + ring >= maxLatCell
+                ? Double.POSITIVE_INFINITY
+                : (centerLatCell + ring + 1) * cellSize - 90 - lat;
+        double latGap = Math.min(south, north);
+
+        // Если 360 не делится на размер ячейки, последняя ячейка по долготе уже остальных,
+        // и при переходе через 180-й меридиан граница колец смещается к точке поиска на эту разницу
+        double wrapSlack = lonCellCount * cellSize - 360;
+        double west = lon - ((centerLonCell - ring) * cellSize - 180);
+        double east = (centerLonCell + ring + 1) * cellSize - 180 - lon;
+        double lonGap = Math.max(0, Math.min(west, east) - wrapSlack);
+
+        double latBound = GeoUtils.EARTH_RADIUS_KM * Math.toRadians(latGap);
+        double lonBound = lonGap >= 180
+                ? Double.POSITIVE_INFINITY
+                : GeoUtils.EARTH_RADIUS_KM * Math.asin(Math.min(1.0,
+                Math.cos(Math.toRadians(lat)) * Math.sin(Math.toRadians(Math.min(lonGap, 90)))));
+        return Math.min(latBound, lonBound);
+    }
+
+    private void collect(Cell cell, double lat, double lon, double radius, List<Long> result) {
+        for (int i = 0; i < cell.ids().length; i++) {
+            if (GeoUtils.distance(lat, lon, cell.lats()[i], cell.lons()[i]) <= radius) {
+                result.add(cell.ids()[i]);
+            }
+        }
+    }
+
+    private void add(AttractionPoint point) {
+        points.put(point.id(), point);
+        cells.merge(cellKey(point), Cell.of(List.of(point)), Cell::with);
+    }
+
+    private void removeInternal(Long id) {
+        AttractionPoint point = points.remove(id);
+        if (point == null) {
+            return;
+        }
+        cells.computeIfPresent(cellKey(point), (key, cell) -> cell.without(id));
+    }
+
+    private long cellKey(AttractionPoint point) {
+        return cellKey(latCell(point.lat()), lonCell(point.lon()));
+    }
+
+    private long cellKey(long latCell, long lonCell) {
+        return (latCell << 32) | lonCell;
+    }
+
+    private long latCell(double lat) {
+        return (long) Math.floor((lat + 90) / cellSize);
+    }
+
+    private long lonCell(double lon) {
+        return Math.floorMod(rawLonCell(lon), lonCellCount);
+    }
+
+    /**
+     * Номер ячейки по долготе без учета перехода через 180-й меридиан: для долготы 180 он равен
+     * количеству ячеек, а не нулю. Используется для вычисления границ колец в градусах.
+     */
+    private long rawLonCell(double lon) {
+        return (long) Math.floor((lon + 180) / cellSize);
+    }
+
+    private record Neighbour(long id, double distance) {
+    }
+
+    /**
+     * Точки ячейки сетки: идентификаторы и столбцы координат для {@link DistanceKernel}.
+     * Массивы не изменяются, добавление и удаление точки создают новую ячейку.
+     */
+    private record Cell(long[] ids, double[] lats, double[] lons) {
+        static Cell of(List<AttractionPoint> points) {
+            Cell cell = new Cell(new long[points.size()], new double[points.size()], new double[points.size()]);
+            for (int i = 0; i < points.size(); i++) {
+                AttractionPoint point = points.get(i);
+                cell.ids[i] = point.id();
+                cell.lats[i] = point.lat();
+                cell.lons[i] = point.lon();
+            }
+            return cell;
+        }
+
+        Cell with(Cell other) {
+            Cell cell = new Cell(Arrays.copyOf(ids, ids.length + other.ids.length),
+                    Arrays.copyOf(lats, lats.length + other.lats.length),
+                    Arrays.copyOf(lons, lons.length + other.lons.length));
+            System.arraycopy(other.ids, 0, cell.ids, ids.length, other.ids.length);
+            System.arraycopy(other.lats, 0, cell.lats, lats.length, other.lats.length);
+            System.arraycopy(other.lons, 0, cell.lons, lons.length, other.lons.length);
+            return cell;
+        }
+
+        /**
+         * @return Ячейка без точки или {@code null}, если других точек в ячейке нет
+         */
+        Cell without(long id) {
+            int index = 0;
+            while (ids[index] != id) {
+                index++;
+            }
+            if (ids.length == 1) {
+                return null;
+            }
+            Cell cell = new Cell(new long[ids.length - 1], new double[ids.length - 1], new double[ids.length - 1]);
+            copyExcept(ids, cell.ids, index, ids.length);
+            copyExcept(lats, cell.lats, index, ids.length);
+            copyExcept(lons, cell.lons, index, ids.length);
+            return cell;
+        }
+
+        private static void copyExcept(Object source, Object target, int index, int length) {
+            System.arraycopy(source, 0, target, 0, index);
+            System.arraycopy(source, index + 1, target, index, length - index - 1);
+        }
+    }
+}
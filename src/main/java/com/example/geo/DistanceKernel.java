@@ -0,0 +1,43 @@
+package com.example.geo;
+
+/**
+ * Пакетное вычисление расстояний от одной точки до множества точек, заданных столбцами координат.
+ * {@link AttractionSpatialIndex} хранит точки ячеек сетки столбцами и ранжирует их по расстоянию
+ * этим ядром при поиске ближайших достопримечательностей.
+ * <p>
+ * Расстояние вычисляется по формуле гаверсинусов на сфере радиусом {@link com.example.util.GeoUtils#EARTH_RADIUS_KM}.
+ * Результат совпадает с {@link com.example.util.GeoUtils#distance} с точностью до погрешности вычислений
+ * (формула гаверсинусов точнее на малых расстояниях).
+ * <p>
+ * Векторизованная реализация на Vector API ({@code jdk.incubator.vector}) собирается только в профиле {@code jmh}
+ * для сравнения в бенчмарке: приложение не зависит от инкубаторного модуля.
+ */
+public interface DistanceKernel {
+
+    /**
+     * Вычисляет расстояния от точки до каждой из точек, заданных массивами широт и долгот.
+     *
+     * @param lat  Широта точки
+     * @param lon  Долгота точки
+     * @param lats Широты точек (в градусах)
+     * @param lons Долготы точек (в градусах)
+     * @param out  Массив для результатов (в километрах); должен быть не короче массивов координат
+     * @throws IllegalArgumentException Если длины массивов не согласованы
+     */
+    void distances(double lat, double lon, double[] lats, double[] lons, double[] out);
+
+    /**
+     * Возвращает скалярную реализацию, не зависящую от модуля {@code jdk.incubator.vector}.
+     *
+     * @return Скалярная реализация
+     */
+    static DistanceKernel scalar() {
+        return new ScalarDistanceKernel();
+    }
+
+    static void checkLengths(double[] lats, double[] lons, double[] out) {
+        if (lats.length != lons.length || out.length < lats.length) {
+            throw new IllegalArgumentException("Coordinate arrays must have equal length and fit into the output");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.geo;
+
+import com.example.util.GeoUtils;
+
+/**
+ * Скалярная реализация {@link DistanceKernel}: по одной точке за итерацию.
+ */
+class ScalarDistanceKernel implements DistanceKernel {
+
+    @Override
+    public void distances(double lat, double lon, double[] lats, double[] lons, double[] out) {
+        DistanceKernel.checkLengths(lats, lons, out);
+        distances(lat, lon, lats, lons, out, 0, lats.length);
+    }
+
+    /**
+     * Вычисляет расстояния для точек с индексами из диапазона {@code [from, to)}.
+     */
+    static void distances(double lat, double lon, double[] lats, double[] lons, double[] out, int from, int to) {
+        double lat1 = Math.toRadians(lat);
+        double lon1 = Math.toRadians(lon);
+        double cosLat1 = Math.cos(lat1);
+        for (int i = from; i < to; i++) {
+            double lat2 = Math.toRadians(lats[i]);
+            double sinDLat = Math.sin((lat2 - lat1) * 0.5);
+            double sinDLon = Math.sin((Math.toRadians(lons[i]) - lon1) * 0.5);
+            double h = sinDLat * sinDLat + cosLat1 * Math.cos(lat2) * sinDLon * sinDLon;
+            out[i] = 2 * GeoUtils.EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1.0, h)));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Последовательно читает и разбирает строки файла импорта достопримечательностей.
+ * Ошибки в отдельных строках не прерывают чтение и возвращаются как {@link ParsedAttraction#failed}.
+ */
+public interface AttractionRecordReader extends Closeable {
+
+    /**
+     * Читает следующую строку файла импорта.
+     *
+     * @return Разобранная строка или {@code null}, если файл прочитан полностью
+     * @throws IOException Если не удалось прочитать входной поток
+     */
+    ParsedAttraction next() throws IOException;
+
+    /**
+     * Создает читатель для указанного формата.
+     *
+     * @param input        Входной поток с файлом импорта в кодировке UTF-8
+     * @param format       Формат файла импорта
+     * @param objectMapper ObjectMapper для разбора NDJSON
+     * @return Читатель файла импорта
+     * @throws IOException Если не удалось прочитать заголовок файла
+     */
+    static AttractionRecordReader open(InputStream input, ImportFormat format, ObjectMapper objectMapper)
+            throws IOException {
+        return switch (format) {
+            case CSV -> new CsvAttractionRecordReader(input);
+            case NDJSON -> new NdjsonAttractionRecordReader(input, objectMapper);
+        };
+    }
+}
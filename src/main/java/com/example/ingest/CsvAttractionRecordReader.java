@@ -0,0 +1,97 @@
+package com.example.ingest;
+
+import com.example.dto.attraction.NewAttractionDto;
+import com.example.dto.location.LocationDto;
+import com.example.error.exception.ValidationException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Читает файл импорта в формате CSV. Первая строка - заголовок, который должен содержать колонки
+ * {@code name, categoryId, cityId, lat, lon} (в любом порядке). Пустые значения считаются отсутствующими
+ * и отклоняются правилами валидации {@link NewAttractionDto}.
+ */
+class CsvAttractionRecordReader implements AttractionRecordReader {
+    static final List<String> COLUMNS = List.of("name", "categoryId", "cityId", "lat", "lon");
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    private final MappingIterator<Map<String, String>> rows;
+
+    CsvAttractionRecordReader(InputStream input) throws IOException {
+        this.rows = CSV_MAPPER.readerForMapOf(String.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .readValues(new InputStreamReader(input, StandardCharsets.UTF_8));
+        boolean hasRows = rows.hasNextValue();
+        CsvSchema header = ((CsvParser) rows.getParser()).getSchema();
+        List<String> missing = COLUMNS.stream().filter(column -> header.column(column) == null).toList();
+        if (hasRows && !missing.isEmpty()) {
+            throw new ValidationException("CSV header is missing columns: " + String.join(", ", missing));
+        }
+    }
+
+    @Override
+    public ParsedAttraction next() throws IOException {
+        Map<String, String> row;
+        try {
+            if (!rows.hasNextValue()) {
+                return null;
+            }
+            row = rows.nextValue();
+        } catch (RuntimeJsonMappingException | IOException e) {
+            throw new ValidationException("Malformed CSV at line " + rows.getCurrentLocation().getLineNr() + ": "
+                    + e.getMessage());
+        }
+        long line = rows.getParser().currentTokenLocation().getLineNr();
+
+        List<String> errors = new ArrayList<>();
+        Long categoryId = parse(row, "categoryId", Long::valueOf, errors);
+        Long cityId = parse(row, "cityId", Long::valueOf, errors);
+        Double lat = parse(row, "lat", CsvAttractionRecordReader::parseFinite, errors);
+        Double lon = parse(row, "lon", CsvAttractionRecordReader::parseFinite, errors);
+        if (!errors.isEmpty()) {
+            return ParsedAttraction.failed(line, errors);
+        }
+        return ParsedAttraction.parsed(line, new NewAttractionDto(row.get("name"), categoryId,
+                new LocationDto(lat, lon), cityId));
+    }
+
+    @Override
+    public void close() throws IOException {
+        rows.close();
+    }
+
+    private static <T> T parse(Map<String, String> row, String column, Function<String, T> parser,
+                               List<String> errors) {
+        String value = row.get(column);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (NumberFormatException e) {
+            errors.add(String.format("Field '%s': invalid number '%s'", column, value));
+            return null;
+        }
+    }
+
+    private static Double parseFinite(String value) {
+        double number = Double.parseDouble(value);
+        if (!Double.isFinite(number)) {
+            throw new NumberFormatException(value);
+        }
+        return number;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.ingest;
+
+import com.example.error.exception.ValidationException;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+
+/**
+ * Формат файла импорта достопримечательностей.
+ */
+@Getter
+public enum ImportFormat {
+    /**
+     * CSV с заголовком и колонками {@code name, categoryId, cityId, lat, lon}.
+     */
+    CSV(new MediaType("text", "csv")),
+    /**
+     * NDJSON: по одному объекту {@link com.example.dto.attraction.NewAttractionDto} в строке.
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    ImportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Определяет формат импорта по типу содержимого запроса.
+     *
+     * @param contentType Значение заголовка {@code Content-Type}
+     * @return Формат импорта
+     * @throws ValidationException Если тип содержимого не поддерживается
+     */
+    public static ImportFormat fromContentType(String contentType) {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        return Arrays.stream(values())
+                .filter(format -> format.mediaType.equalsTypeAndSubtype(mediaType))
+                .findFirst()
+                .orElseThrow(() -> new ValidationException("Unsupported import content type: " + contentType));
+    }
+}
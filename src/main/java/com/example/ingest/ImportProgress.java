@@ -0,0 +1,99 @@
+package com.example.ingest;
+
+import com.example.dto.ingest.ImportErrorDto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счетчики хода импорта, которые обновляются стадиями конвейера из разных потоков.
+ * Сохраняет ошибки первых отклоненных строк и пишет в лог ход импорта каждые {@code progressInterval} строк.
+ */
+@Slf4j
+public class ImportProgress {
+    private final AtomicLong read = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong copied = new AtomicLong();
+    private final List<ImportErrorDto> errors = new ArrayList<>();
+    private final long progressInterval;
+    private final int maxErrors;
+
+    public ImportProgress(long progressInterval, int maxErrors) {
+        this.progressInterval = progressInterval;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Учитывает прочитанные строки файла импорта.
+     */
+    public void read(long rows) {
+        read.addAndGet(rows);
+    }
+
+    /**
+     * Учитывает строку, отклоненную при разборе или валидации.
+     *
+     * @param line   Номер строки
+     * @param reason Ошибки строки
+     */
+    public void reject(long line, List<String> reason) {
+        rejected.incrementAndGet();
+        addError(new ImportErrorDto(line, reason));
+    }
+
+    /**
+     * Учитывает строки, отклоненные после загрузки в промежуточную таблицу.
+     *
+     * @param rows    Количество отклоненных строк
+     * @param samples Ошибки части отклоненных строк
+     */
+    public void rejectAll(long rows, List<ImportErrorDto> samples) {
+        rejected.addAndGet(rows);
+        samples.forEach(this::addError);
+    }
+
+    /**
+     * Учитывает строки, загруженные в промежуточную таблицу, и пишет ход импорта в лог.
+     */
+    public void copied(long rows) {
+        long before = copied.getAndAdd(rows);
+        long after = before + rows;
+        if (after / progressInterval != before / progressInterval) {
+            log.info("Attraction import progress: {} rows read, {} copied, {} rejected",
+                    read.get(), after, rejected.get());
+        }
+    }
+
+    public long getRead() {
+        return read.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Возвращает количество ошибок, которые еще можно сохранить.
+     */
+    public synchronized int remainingErrors() {
+        return maxErrors - errors.size();
+    }
+
+    /**
+     * Возвращает сохраненные ошибки, упорядоченные по номеру строки.
+     */
+    public synchronized List<ImportErrorDto> getErrors() {
+        List<ImportErrorDto> sorted = new ArrayList<>(errors);
+        sorted.sort(Comparator.comparingLong(ImportErrorDto::getLine));
+        return sorted;
+    }
+
+    private synchronized void addError(ImportErrorDto error) {
+        if (errors.size() < maxErrors) {
+            errors.add(error);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.ingest;
+
+import com.example.dto.attraction.NewAttractionDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Читает файл импорта в формате NDJSON: по одному объекту {@link NewAttractionDto} в строке.
+ * Пустые строки пропускаются.
+ */
+class NdjsonAttractionRecordReader implements AttractionRecordReader {
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private long line;
+
+    NdjsonAttractionRecordReader(InputStream input, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.objectReader = objectMapper.readerFor(NewAttractionDto.class);
+    }
+
+    @Override
+    public ParsedAttraction next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+
+        try {
+            NewAttractionDto attraction = objectReader.readValue(text);
+            return attraction != null
+                    ? ParsedAttraction.parsed(line, attraction)
+                    : ParsedAttraction.failed(line, List.of("Item must not be null"));
+        } catch (JsonProcessingException e) {
+            return ParsedAttraction.failed(line, List.of("Malformed JSON: " + e.getOriginalMessage()));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.ingest;
+
+import com.example.dto.attraction.NewAttractionDto;
+
+import java.util.List;
+
+/**
+ * Строка файла импорта после разбора.
+ *
+ * @param line       Номер строки в файле импорта
+ * @param attraction Данные достопримечательности ({@code null}, если строку не удалось разобрать)
+ * @param errors     Ошибки разбора строки (пустой список, если строка разобрана)
+ */
+public record ParsedAttraction(long line, NewAttractionDto attraction, List<String> errors) {
+
+    public static ParsedAttraction parsed(long line, NewAttractionDto attraction) {
+        return new ParsedAttraction(line, attraction, List.of());
+    }
+
+    public static ParsedAttraction failed(long line, List<String> errors) {
+        return new ParsedAttraction(line, null, errors);
+    }
+}
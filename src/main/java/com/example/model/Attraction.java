@@ -11,12 +11,13 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
-import jakarta.persistence.Transient;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.proxy.HibernateProxy;
 
 import java.util.ArrayList;
@@ -31,12 +32,14 @@ import java.util.Objects;
 @Getter
 @Setter
 @Entity
+@DynamicUpdate
 @Table(name = "attraction")
 @ToString
 @NoArgsConstructor
 public class Attraction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attraction_seq")
+    @SequenceGenerator(name = "attraction_seq", sequenceName = "attraction_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -58,15 +61,37 @@ public class Attraction {
     @ToString.Exclude
     private City city;
 
-    @Transient
-    private Double rating;
+    /**
+     * Сумма оценок отзывов. Изменяется только атомарными UPDATE-запросами при изменении отзывов.
+     */
+    @Column(name = "rating_sum", nullable = false, insertable = false, updatable = false)
+    private Long ratingSum = 0L;
+
+    /**
+     * Количество отзывов с оценкой. Изменяется только атомарными UPDATE-запросами при изменении отзывов.
+     */
+    @Column(name = "rating_count", nullable = false, insertable = false, updatable = false)
+    private Integer ratingCount = 0;
+
+    /**
+     * Количество всех отзывов, в том числе без оценки. Изменяется только атомарными UPDATE-запросами
+     * при изменении отзывов.
+     */
+    @Column(name = "review_count", nullable = false, insertable = false, updatable = false)
+    private Integer reviewCount = 0;
+
+    /**
+     * Средняя оценка, вычисляемая базой данных (generated column). Используется для фильтрации и сортировки.
+     */
+    @Column(name = "rating", insertable = false, updatable = false)
+    private Double averageRating;
 
     @OneToMany(mappedBy = "attraction", fetch = FetchType.LAZY)
     @ToString.Exclude
     private List<AttractionReview> attractionReviews = new ArrayList<>();
 
     public double getRating() {
-        return CalculateRating.calculateRating(attractionReviews);
+        return CalculateRating.calculateRating(ratingSum, ratingCount);
     }
 
     @Override
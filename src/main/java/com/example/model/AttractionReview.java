@@ -8,10 +8,12 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.proxy.HibernateProxy;
 
 import java.util.Objects;
@@ -19,15 +21,19 @@ import java.util.Objects;
 /**
  * Модель, представляющая отзыв о достопримечательности.
  * Этот класс хранит информацию о комментарии, рейтинге, авторе отзыва и самой достопримечательности.
+ * Автор и достопримечательность загружаются лениво: каждый запрос репозитория явно указывает
+ * в {@link org.springframework.data.jpa.repository.EntityGraph} связи, нужные в его сценарии.
  */
 @Getter
 @Setter
 @Entity
+@DynamicUpdate
 @Table(name = "attraction_reviews")
 @ToString
 public class AttractionReview {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attraction_reviews_seq")
+    @SequenceGenerator(name = "attraction_reviews_seq", sequenceName = "attraction_reviews_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -37,12 +43,14 @@ public class AttractionReview {
     @Column(name = "rating")
     private Integer rating;
 
-    @ManyToOne(fetch = FetchType.EAGER, optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "author_id")
+    @ToString.Exclude
     private User author;
 
-    @ManyToOne(fetch = FetchType.EAGER, optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "attraction_id", nullable = false)
+    @ToString.Exclude
     private Attraction attraction;
 
     @Override
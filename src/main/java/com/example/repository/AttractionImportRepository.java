@@ -0,0 +1,175 @@
+package com.example.repository;
+
+import com.example.dto.ingest.ImportErrorDto;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.function.ThrowingConsumer;
+
+import javax.sql.DataSource;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Репозиторий для массового импорта достопримечательностей через {@code COPY}.
+ * <p>
+ * Строки импорта загружаются командой {@code COPY} во временную промежуточную таблицу
+ * {@code attraction_import}, которая удаляется при завершении транзакции. Затем строки со ссылками
+ * на несуществующие категории и города отклоняются, остальным выделяются идентификаторы из последовательностей,
+ * и местоположения и достопримечательности вставляются из промежуточной таблицы двумя запросами.
+ * Все методы должны вызываться в одной транзакции: они используют привязанное к ней соединение.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AttractionImportRepository {
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    /**
+     * Создает промежуточную таблицу импорта, которая удаляется при завершении транзакции.
+     */
+    public void createStagingTable() {
+        jdbcTemplate.execute("""
+                CREATE TEMPORARY TABLE attraction_import
+                (
+                    line          bigint           not null,
+                    name          varchar(255)     not null,
+                    category_id   bigint           not null,
+                    city_id       bigint           not null,
+                    lat           double precision not null,
+                    lon           double precision not null,
+                    location_id   bigint,
+                    attraction_id bigint
+                ) ON COMMIT DROP
+                """);
+    }
+
+    /**
+     * Загружает строки в промежуточную таблицу командой {@code COPY ... FROM STDIN}.
+     * Данные пишутся в формате CSV с колонками {@code line, name, category_id, city_id, lat, lon}.
+     *
+     * @param writer Запись данных в поток {@code COPY}
+     * @return Количество загруженных строк
+     */
+    public long copyToStaging(ThrowingConsumer<OutputStream> writer) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            PGCopyOutputStream copy = new PGCopyOutputStream(connection.unwrap(PGConnection.class),
+                    "COPY attraction_import (line, name, category_id, city_id, lat, lon) FROM STDIN (FORMAT csv)",
+                    COPY_BUFFER_SIZE);
+            try {
+                writer.accept(copy);
+                return copy.endCopy();
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        } catch (SQLException e) {
+            throw jdbcTemplate.getExceptionTranslator().translate("COPY attraction_import", null, e);
+        }
+    }
+
+    /**
+     * Обновляет статистику промежуточной таблицы для планировщика. Временные таблицы не анализируются
+     * автоматически, а без статистики соединения со справочниками и последовательностями планируются
+     * как для пустой таблицы.
+     */
+    public void analyzeStagingTable() {
+        jdbcTemplate.execute("ANALYZE attraction_import");
+    }
+
+    /**
+     * Возвращает ошибки строк промежуточной таблицы со ссылками на несуществующие категории или города.
+     *
+     * @param limit Максимальное количество возвращаемых строк
+     * @return Ошибки первых по номеру строк
+     */
+    public List<ImportErrorDto> findUnknownReferences(int limit) {
+        return jdbcTemplate.query("""
+                SELECT s.line, s.category_id, s.city_id, c.id IS NULL AS unknown_category, ci.id IS NULL AS unknown_city
+                FROM attraction_import s
+                LEFT JOIN categories c ON c.id = s.category_id
+                LEFT JOIN cities ci ON ci.id = s.city_id
+                WHERE c.id IS NULL OR ci.id IS NULL
+                ORDER BY s.line
+                LIMIT ?
+                """, (rs, rowNum) -> {
+            List<String> errors = new ArrayList<>(2);
+            if (rs.getBoolean("unknown_category")) {
+                errors.add("Category with ID=" + rs.getLong("category_id") + " not found");
+            }
+            if (rs.getBoolean("unknown_city")) {
+                errors.add("City with ID=" + rs.getLong("city_id") + " not found");
+            }
+            return new ImportErrorDto(rs.getLong("line"), errors);
+        }, limit);
+    }
+
+    /**
+     * Удаляет из промежуточной таблицы строки со ссылками на несуществующие категории или города.
+     *
+     * @return Количество удаленных строк
+     */
+    public int deleteUnknownReferences() {
+        return jdbcTemplate.update("""
+                DELETE FROM attraction_import s
+                WHERE NOT EXISTS (SELECT 1 FROM categories c WHERE c.id = s.category_id)
+                   OR NOT EXISTS (SELECT 1 FROM cities ci WHERE ci.id = s.city_id)
+                """);
+    }
+
+    /**
+     * Вставляет местоположения и достопримечательности из промежуточной таблицы.
+     *
+     * @return Количество вставленных достопримечательностей
+     */
+    public int insertFromStaging() {
+        assignIds("locations_seq", "location_id");
+        assignIds("attraction_seq", "attraction_id");
+        jdbcTemplate.update("""
+                INSERT INTO locations (id, lat, lon)
+                SELECT location_id, lat, lon
+                FROM attraction_import
+                """);
+        return jdbcTemplate.update("""
+                INSERT INTO attraction (id, name, category_id, location_id, city_id)
+                SELECT attraction_id, name, category_id, location_id, city_id
+                FROM attraction_import
+                ORDER BY line
+                """);
+    }
+
+    /**
+     * Выделяет строкам промежуточной таблицы идентификаторы из последовательности.
+     * Последовательности сущностей увеличиваются на размер блока, и Hibernate считает значение {@code nextval}
+     * верхней границей выделенного блока, поэтому здесь блоки выделяются так же: на каждые {@code increment}
+     * строк один вызов {@code nextval}, и строки блока получают идентификаторы {@code (hi - increment, hi]}.
+     */
+    private void assignIds(String sequence, String column) {
+        long increment = jdbcTemplate.queryForObject("""
+                SELECT increment_by
+                FROM pg_sequences
+                WHERE schemaname = current_schema() AND sequencename = ?
+                """, Long.class, sequence);
+        jdbcTemplate.update("""
+                WITH numbered AS (SELECT line, row_number() OVER (ORDER BY line) - 1 AS rn
+                                  FROM attraction_import),
+                     blocks AS (SELECT g - 1 AS block, nextval(?::regclass) AS hi
+                                FROM generate_series(1, (SELECT (count(*) + ? - 1) / ? FROM numbered)) g)
+                UPDATE attraction_import s
+                SET %s = b.hi - ? + 1 + n.rn %% ?
+                FROM numbered n
+                JOIN blocks b ON b.block = n.rn / ?
+                WHERE s.line = n.line
+                """.formatted(column), sequence, increment, increment, increment, increment, increment);
+    }
+}
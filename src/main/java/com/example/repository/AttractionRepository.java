@@ -1,89 +1,114 @@
 package com.example.repository;
 
+import com.example.dto.attraction.AttractionProjection;
+import com.example.geo.AttractionPoint;
 import com.example.model.Attraction;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import jakarta.persistence.Tuple;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.EntityGraph;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface AttractionRepository extends JpaRepository<Attraction, Long> {
+public interface AttractionRepository extends BaseRepository<Attraction, Long>, AttractionSearchRepository {
 
-    @EntityGraph(attributePaths = {"category", "city", "location"})
     @Query("""
-                SELECT a
+                SELECT new com.example.geo.AttractionPoint(a.id, l.lat, l.lon)
                 FROM Attraction a
-                JOIN FETCH a.category c
-                JOIN FETCH a.location l
-                JOIN FETCH a.city ci
-                LEFT JOIN FETCH a.attractionReviews r
-                WHERE calculate_distance(:userLat, :userLon, l.lat, l.lon) <= :radius
-                AND (:categoryId IS NULL OR c.id = :categoryId)
-                AND (:minRating IS NULL OR :minRating <= COALESCE((
-                    SELECT AVG(r.rating)
-                    FROM AttractionReview r
-                    WHERE r.attraction = a
-                ), 0))
-                ORDER BY
-                    CASE WHEN :sortBy = 'rating' AND :sortDirection = 'asc'
-                         THEN (SELECT AVG(r.rating) FROM AttractionReview r WHERE r.attraction = a) END ASC NULLS FIRST,
-                    CASE WHEN :sortBy = 'rating' AND :sortDirection = 'desc'
-                         THEN (SELECT AVG(r.rating) FROM AttractionReview r WHERE r.attraction = a) END DESC NULLS LAST,
-                    CASE WHEN :sortBy = 'distance' AND :sortDirection = 'asc' THEN
-                        calculate_distance(:userLat, :userLon, l.lat, l.lon) END ASC,
-                    CASE WHEN :sortBy = 'distance' AND :sortDirection = 'desc' THEN
-                        calculate_distance(:userLat, :userLon, l.lat, l.lon) END DESC
+                JOIN a.location l
             """)
-    List<Attraction> getNearestAttractions(
-            @Param("userLat") double userLat,
-            @Param("userLon") double userLon,
-            @Param("radius") double radius,
-            @Param("categoryId") Long categoryId,
-            @Param("minRating") Double minRating,
-            @Param("sortBy") String sortBy,
-            @Param("sortDirection") String sortDirection,
-            Pageable pageable
-    );
+    List<AttractionPoint> findAllPoints();
 
-    @EntityGraph(attributePaths = {"category", "city", "location"})
+    @Query("SELECT a.reviewCount FROM Attraction a WHERE a.id = :id")
+    Optional<Integer> findReviewCountById(@Param("id") long id);
+
+    @Query("SELECT new com.example.geo.AttractionPoint(a.id, l.lat, l.lon) FROM Attraction a JOIN a.location l "
+            + "WHERE a.id = :id")
+    Optional<AttractionPoint> findPointById(@Param("id") long id);
+
+    /**
+     * Удаляет аттракцион вместе с его местоположением одним запросом. Отзывы удаляются каскадно в базе данных.
+     *
+     * @param id Идентификатор аттракциона
+     * @return Координаты удаленного аттракциона или пустой {@link Optional}, если аттракциона нет
+     */
+    default Optional<AttractionPoint> deleteWithLocationById(long id) {
+        return deleteWithLocationReturningPoint(id).map(AttractionPoint::of);
+    }
+
+    @Query(value = """
+                WITH deleted AS (DELETE FROM attraction WHERE id = :id RETURNING id, location_id)
+                DELETE FROM locations l
+                USING deleted d
+                WHERE l.id = d.location_id
+                RETURNING d.id AS id, l.lat AS lat, l.lon AS lon
+            """, nativeQuery = true)
+    Optional<Tuple> deleteWithLocationReturningPoint(@Param("id") long id);
+
+    @Modifying
+    @Query("""
+                UPDATE Attraction a
+                SET a.ratingSum = a.ratingSum + :sumDelta,
+                    a.ratingCount = a.ratingCount + :countDelta
+                WHERE a.id = :id
+            """)
+    void updateRating(@Param("id") long id, @Param("sumDelta") long sumDelta, @Param("countDelta") int countDelta);
+
+    @Modifying
+    @Query(value = """
+                UPDATE attraction a
+                SET rating_sum = a.rating_sum + d.sum_delta,
+                    rating_count = a.rating_count + d.count_delta,
+                    review_count = a.review_count + d.review_delta
+                FROM unnest(:ids, :sumDeltas, :countDeltas, :reviewDeltas)
+                    AS d(id, sum_delta, count_delta, review_delta)
+                WHERE a.id = d.id
+            """, nativeQuery = true)
+    void updateRatings(@Param("ids") Long[] ids, @Param("sumDeltas") Long[] sumDeltas,
+                       @Param("countDeltas") Integer[] countDeltas, @Param("reviewDeltas") Integer[] reviewDeltas);
+
+    @Modifying
+    @Query(value = """
+                UPDATE attraction a
+                SET rating_sum = a.rating_sum - r.rating_sum,
+                    rating_count = a.rating_count - r.rating_count,
+                    review_count = a.review_count - r.review_count
+                FROM (SELECT attraction_id, COALESCE(SUM(rating), 0) AS rating_sum, COUNT(rating) AS rating_count,
+                             COUNT(*) AS review_count
+                      FROM attraction_reviews
+                      WHERE author_id = :authorId
+                      GROUP BY attraction_id) r
+                WHERE a.id = r.attraction_id
+            """, nativeQuery = true)
+    void subtractRatingsOfAuthor(@Param("authorId") long authorId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
     @Query("""
-                SELECT a
+                SELECT new com.example.dto.attraction.AttractionProjection(
+                    a.id, a.name, c.id, c.name, ci.id, ci.name, ci.country, l.lat, l.lon,
+                    a.ratingSum, a.ratingCount, CAST(NULL AS Double))
                 FROM Attraction a
-                JOIN FETCH a.category c
-                JOIN FETCH a.location l
-                JOIN FETCH a.city ci
-                LEFT JOIN FETCH a.attractionReviews r
-                WHERE (a.city.id = :cityId)
-                AND (:categoryId IS NULL OR c.id = :categoryId)
-                AND (:minRating IS NULL OR :minRating <= COALESCE((
-                    SELECT AVG(r.rating)
-                    FROM AttractionReview r
-                    WHERE r.attraction = a
-                ), 0))
-                ORDER BY
-                    CASE WHEN :sortBy = 'rating' AND :sortDirection = 'asc'
-                         THEN (SELECT AVG(r.rating) FROM AttractionReview r WHERE r.attraction = a) END ASC NULLS FIRST,
-                    CASE WHEN :sortBy = 'rating' AND :sortDirection = 'desc'
-                         THEN (SELECT AVG(r.rating) FROM AttractionReview r WHERE r.attraction = a) END DESC NULLS LAST,
-                    CASE WHEN :sortBy = 'distance' AND :sortDirection = 'asc' THEN
-                        calculate_distance(:userLat, :userLon, l.lat, l.lon) END ASC,
-                    CASE WHEN :sortBy = 'distance' AND :sortDirection = 'desc' THEN
-                        calculate_distance(:userLat, :userLon, l.lat, l.lon) END DESC
+                LEFT JOIN a.category c
+                JOIN a.location l
+                JOIN a.city ci
+                WHERE ci.id = :cityId
+                ORDER BY a.id
             """)
-    List<Attraction> getAttractionsInCity(
-            @Param("cityId") long cityId,
-            @Param("userLat") double userLat,
-            @Param("userLon") double userLon,
-            @Param("categoryId") Long categoryId,
-            @Param("minRating") Double minRating,
-            @Param("sortBy") String sortBy,
-            @Param("sortDirection") String sortDirection,
-            Pageable pageable
-    );
+    Stream<AttractionProjection> streamByCityId(@Param("cityId") long cityId);
 
-    @EntityGraph(attributePaths = {"category", "city", "location", "attractionReviews"})
+    @EntityGraph(attributePaths = {"category", "city", "location"})
     Optional<Attraction> getAttractionById(Long id);
+
+    @EntityGraph(attributePaths = {"category", "city", "location"})
+    List<Attraction> findAllByIdIn(Collection<Long> ids);
 }
\ No newline at end of file
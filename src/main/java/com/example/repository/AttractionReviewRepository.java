@@ -1,24 +1,149 @@
 package com.example.repository;
 
+import com.example.dto.review.ReviewAuthorKey;
+import com.example.geo.AttractionPoint;
 import com.example.model.AttractionReview;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface AttractionReviewRepository extends JpaRepository<AttractionReview, Long> {
-    Optional<AttractionReview> findByAttractionIdAndAuthorId(long arrID, long userId);
+public interface AttractionReviewRepository extends BaseRepository<AttractionReview, Long> {
+    String PAGE_ORDER_BY_RATING_ASC_QUERY = """
+            SELECT ar
+            FROM AttractionReview ar
+            WHERE ar.attraction.id = :attId
+            AND (COALESCE(ar.rating, 0), ar.id) > (:rating, :id)
+            ORDER BY COALESCE(ar.rating, 0) ASC, ar.id ASC
+            """;
 
-    @EntityGraph(attributePaths = {"author"})
-    @Query("""
+    String PAGE_ORDER_BY_RATING_DESC_QUERY = """
             SELECT ar
             FROM AttractionReview ar
             WHERE ar.attraction.id = :attId
-            ORDER BY
-                CASE WHEN :sortDirection = 'asc' THEN ar.rating END ASC NULLS FIRST,
-                CASE WHEN :sortDirection = 'desc' THEN ar.rating END DESC NULLS LAST
+            AND (COALESCE(ar.rating, 0), ar.id) < (:rating, :id)
+            ORDER BY COALESCE(ar.rating, 0) DESC, ar.id DESC
+            """;
+
+    /**
+     * Загружает отзыв вместе с автором и достопримечательностью (с ее категорией, городом и местоположением)
+     * одним запросом: в таком виде отзыв отдается клиенту целиком.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"author", "attraction", "attraction.category", "attraction.city",
+            "attraction.location"})
+    Optional<AttractionReview> findById(Long id);
+
+    /**
+     * Вставляет отзыв и добавляет его к количеству отзывов, а его оценку - к сумме и количеству оценок аттракциона
+     * одним запросом. Если автор уже оставил отзыв об аттракционе, ничего не изменяется: повтор определяется
+     * уникальным индексом {@code attraction_reviews_attraction_author_uq} атомарно, без предварительной проверки.
+     * Отсутствие автора или аттракциона приводит к нарушению внешнего ключа.
+     *
+     * @return Идентификатор вставленного отзыва или пустой {@link Optional}, если отзыв автора уже есть
+     */
+    @Query(value = """
+            WITH inserted AS (INSERT INTO attraction_reviews (comment, rating, author_id, attraction_id)
+                              VALUES (:comment, :rating, :authorId, :attractionId)
+                              ON CONFLICT (attraction_id, author_id) DO NOTHING
+                              RETURNING id, attraction_id, rating),
+                 updated AS (UPDATE attraction a
+                             SET rating_sum = a.rating_sum + COALESCE(i.rating, 0),
+                                 rating_count = a.rating_count + CASE WHEN i.rating IS NULL THEN 0 ELSE 1 END,
+                                 review_count = a.review_count + 1
+                             FROM inserted i
+                             WHERE a.id = i.attraction_id)
+            SELECT id FROM inserted
+            """, nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("comment") String comment, @Param("rating") Integer rating,
+                                  @Param("authorId") long authorId, @Param("attractionId") long attractionId);
+
+    @Query("""
+            SELECT new com.example.dto.review.ReviewAuthorKey(ar.attraction.id, ar.author.id)
+            FROM AttractionReview ar
+            WHERE ar.attraction.id IN :attractionIds
+            AND ar.author.id IN :authorIds
             """)
-    List<AttractionReview> findByAttractionId(long attId, String sortDirection);
-}
\ No newline at end of file
+    List<ReviewAuthorKey> findAuthorKeys(Collection<Long> attractionIds, Collection<Long> authorIds);
+
+    /**
+     * Возвращает страницу отзывов о достопримечательности по возрастанию оценки (отзывы без оценки первыми),
+     * следующих за отзывом с оценкой {@code rating} и идентификатором {@code id}.
+     * Отзыв без оценки задается оценкой {@code 0}; для первой страницы передаются {@code 0} и {@link Long#MIN_VALUE}.
+     * Отсутствующая оценка и в запросе заменяется на {@code 0}, поэтому условие страницы - одно сравнение строк
+     * {@code (оценка, id)}, задающее начало диапазона индекса {@code attraction_reviews_attraction_rating_key_id_idx}.
+     * Авторы отзывов загружаются тем же запросом.
+     */
+    @EntityGraph(attributePaths = {"author"})
+    @Query(PAGE_ORDER_BY_RATING_ASC_QUERY)
+    List<AttractionReview> findPageByAttractionIdOrderByRatingAsc(@Param("attId") long attId,
+                                                                  @Param("rating") int rating,
+                                                                  @Param("id") long id,
+                                                                  Limit limit);
+
+    /**
+     * То же, что {@link #findPageByAttractionIdOrderByRatingAsc}, но без авторов отзывов:
+     * запрос не соединяется с таблицей пользователей.
+     */
+    @Query(PAGE_ORDER_BY_RATING_ASC_QUERY)
+    List<AttractionReview> findPageWithoutAuthorByAttractionIdOrderByRatingAsc(@Param("attId") long attId,
+                                                                               @Param("rating") int rating,
+                                                                               @Param("id") long id,
+                                                                               Limit limit);
+
+    /**
+     * Возвращает страницу отзывов о достопримечательности по убыванию оценки (отзывы без оценки последними),
+     * следующих за отзывом с оценкой {@code rating} и идентификатором {@code id}.
+     * Отзыв без оценки задается оценкой {@code 0}; для первой страницы передаются {@link Integer#MAX_VALUE}
+     * и {@link Long#MAX_VALUE}. Строки читаются из диапазона индекса
+     * {@code attraction_reviews_attraction_rating_key_id_idx} в обратном порядке.
+     * Авторы отзывов загружаются тем же запросом.
+     */
+    @EntityGraph(attributePaths = {"author"})
+    @Query(PAGE_ORDER_BY_RATING_DESC_QUERY)
+    List<AttractionReview> findPageByAttractionIdOrderByRatingDesc(@Param("attId") long attId,
+                                                                   @Param("rating") int rating,
+                                                                   @Param("id") long id,
+                                                                   Limit limit);
+
+    /**
+     * То же, что {@link #findPageByAttractionIdOrderByRatingDesc}, но без авторов отзывов:
+     * запрос не соединяется с таблицей пользователей.
+     */
+    @Query(PAGE_ORDER_BY_RATING_DESC_QUERY)
+    List<AttractionReview> findPageWithoutAuthorByAttractionIdOrderByRatingDesc(@Param("attId") long attId,
+                                                                                @Param("rating") int rating,
+                                                                                @Param("id") long id,
+                                                                                Limit limit);
+
+    /**
+     * Удаляет отзыв и вычитает его из количества отзывов, а его оценку - из суммы и количества оценок аттракциона
+     * одним запросом.
+     *
+     * @param id Идентификатор отзыва
+     * @return Координаты аттракциона удаленного отзыва или пустой {@link Optional}, если отзыва нет
+     */
+    default Optional<AttractionPoint> deleteAndSubtractRatingById(long id) {
+        return deleteAndSubtractRatingReturningPoint(id).map(AttractionPoint::of);
+    }
+
+    @Query(value = """
+            WITH deleted AS (DELETE FROM attraction_reviews WHERE id = :id RETURNING attraction_id, rating),
+                 updated AS (UPDATE attraction a
+                             SET rating_sum = a.rating_sum - COALESCE(d.rating, 0),
+                                 rating_count = a.rating_count - CASE WHEN d.rating IS NULL THEN 0 ELSE 1 END,
+                                 review_count = a.review_count - 1
+                             FROM deleted d
+                             WHERE a.id = d.attraction_id)
+            SELECT a.id AS id, l.lat AS lat, l.lon AS lon
+            FROM deleted d
+            JOIN attraction a ON a.id = d.attraction_id
+            JOIN locations l ON l.id = a.location_id
+            """, nativeQuery = true)
+    Optional<Tuple> deleteAndSubtractRatingReturningPoint(@Param("id") long id);
+}
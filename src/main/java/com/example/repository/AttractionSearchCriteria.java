@@ -0,0 +1,44 @@
+package com.example.repository;
+
+import com.example.util.GeoUtils.BoundingBox;
+import com.example.util.KeysetCursor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Collection;
+
+/**
+ * Параметры поиска достопримечательностей.
+ * Необязательные ограничения ({@code radius}, {@code ids}, {@code cityId}, {@code categoryId}, {@code minRating},
+ * {@code cursor}) применяются только если заданы.
+ * Без {@code withCategory} и {@code withCity} категория и город не присоединяются к запросу,
+ * а их поля в результатах равны {@code null}; фильтры по ним при этом работают.
+ */
+@Getter
+@Builder
+public class AttractionSearchCriteria {
+    private final double userLat;
+    private final double userLon;
+    private final Double radius;
+    private final BoundingBox boundingBox;
+    private final Collection<Long> ids;
+    private final Long cityId;
+    private final Long categoryId;
+    private final Double minRating;
+    private final String sortBy;
+    private final String sortDirection;
+    private final KeysetCursor cursor;
+    private final int limit;
+    @Builder.Default
+    private final boolean withCategory = true;
+    @Builder.Default
+    private final boolean withCity = true;
+
+    public boolean isSortByRating() {
+        return "rating".equals(sortBy);
+    }
+
+    public boolean isAscending() {
+        return "asc".equals(sortDirection);
+    }
+}
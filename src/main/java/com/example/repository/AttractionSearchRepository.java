@@ -0,0 +1,10 @@
+package com.example.repository;
+
+import com.example.dto.attraction.AttractionProjection;
+
+import java.util.List;
+
+public interface AttractionSearchRepository {
+
+    List<AttractionProjection> search(AttractionSearchCriteria criteria);
+}
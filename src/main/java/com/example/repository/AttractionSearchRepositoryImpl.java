@@ -0,0 +1,121 @@
+package com.example.repository;
+
+import com.example.dto.attraction.AttractionProjection;
+import com.example.model.Attraction;
+import com.example.model.Category;
+import com.example.model.City;
+import com.example.model.Location;
+import com.example.util.GeoUtils.BoundingBox;
+import com.example.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реализация поиска достопримечательностей через Criteria API.
+ * Запрос строится под конкретный режим сортировки: ORDER BY содержит только сортируемое выражение
+ * и идентификатор, а условие курсора сравнивает ту же пару значений, поэтому следующая страница
+ * выбирается так же, как первая, без пропуска строк через OFFSET.
+ * <p>
+ * Категория и город присоединяются, только если их поля нужны в результате. Фильтры по ним используют
+ * внешние ключи достопримечательности, а условие {@code category_id IS NOT NULL} сохраняет семантику
+ * внутреннего соединения с категорией, поэтому набор и порядок строк от этого не зависят.
+ */
+public class AttractionSearchRepositoryImpl implements AttractionSearchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AttractionProjection> search(AttractionSearchCriteria criteria) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AttractionProjection> query = cb.createQuery(AttractionProjection.class);
+        Root<Attraction> attraction = query.from(Attraction.class);
+        Join<Attraction, Location> location = attraction.join("location");
+        Path<Category> categoryRef = attraction.get("category");
+        Path<City> cityRef = attraction.get("city");
+
+        Expression<Double> lat = location.get("lat");
+        Expression<Double> lon = location.get("lon");
+        Expression<Double> distance = cb.function("calculate_distance", Double.class,
+                cb.literal(criteria.getUserLat()), cb.literal(criteria.getUserLon()), lat, lon);
+        Expression<Double> rating = attraction.get("averageRating");
+        Expression<Long> id = attraction.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.getBoundingBox() != null) {
+            BoundingBox box = criteria.getBoundingBox();
+            predicates.add(cb.between(lat, box.minLat(), box.maxLat()));
+            predicates.add(cb.between(lon, box.minLon(), box.maxLon()));
+        }
+        if (criteria.getRadius() != null) {
+            predicates.add(cb.le(distance, criteria.getRadius()));
+        }
+        if (criteria.getIds() != null) {
+            predicates.add(id.in(criteria.getIds()));
+        }
+        if (criteria.getCityId() != null) {
+            predicates.add(cb.equal(cityRef.get("id"), criteria.getCityId()));
+        }
+        if (criteria.getCategoryId() != null) {
+            predicates.add(cb.equal(categoryRef.get("id"), criteria.getCategoryId()));
+        }
+        if (criteria.getMinRating() != null) {
+            predicates.add(cb.ge(rating, criteria.getMinRating()));
+        }
+
+        Expression<Double> sortValue = criteria.isSortByRating() ? rating : distance;
+        KeysetCursor cursor = criteria.getCursor();
+        if (cursor != null) {
+            // Условие на одно сортируемое выражение избыточно, но в отличие от OR задает начало диапазона
+            // индекса (rating, id): страница на любой глубине читает из индекса только свои строки
+            predicates.add(criteria.isAscending()
+                    ? cb.ge(sortValue, cursor.value())
+                    : cb.le(sortValue, cursor.value()));
+            predicates.add(criteria.isAscending()
+                    ? cb.or(cb.gt(sortValue, cursor.value()),
+                    cb.and(cb.equal(sortValue, cursor.value()), cb.gt(id, cursor.id())))
+                    : cb.or(cb.lt(sortValue, cursor.value()),
+                    cb.and(cb.equal(sortValue, cursor.value()), cb.lt(id, cursor.id()))));
+        }
+
+        Expression<Long> categoryId = cb.nullLiteral(Long.class);
+        Expression<String> categoryName = cb.nullLiteral(String.class);
+        if (criteria.isWithCategory()) {
+            Join<Attraction, Category> category = attraction.join("category");
+            categoryId = category.get("id");
+            categoryName = category.get("name");
+        } else {
+            predicates.add(cb.isNotNull(categoryRef));
+        }
+        Expression<Long> cityId = cb.nullLiteral(Long.class);
+        Expression<String> cityName = cb.nullLiteral(String.class);
+        Expression<String> cityCountry = cb.nullLiteral(String.class);
+        if (criteria.isWithCity()) {
+            Join<Attraction, City> city = attraction.join("city");
+            cityId = city.get("id");
+            cityName = city.get("name");
+            cityCountry = city.get("country");
+        }
+
+        query.select(cb.construct(AttractionProjection.class,
+                        id, attraction.get("name"), categoryId, categoryName, cityId, cityName, cityCountry, lat, lon,
+                        attraction.get("ratingSum"), attraction.get("ratingCount"), distance))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(criteria.isAscending()
+                        ? List.of(cb.asc(sortValue), cb.asc(id))
+                        : List.of(cb.desc(sortValue), cb.desc(id)));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(criteria.getLimit())
+                .getResultList();
+    }
+}
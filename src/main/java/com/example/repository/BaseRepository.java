@@ -0,0 +1,29 @@
+package com.example.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Базовый репозиторий сущностей, с которыми работают сервисы CRUD.
+ *
+ * @param <T>  Тип сущности
+ * @param <ID> Тип идентификатора сущности
+ */
+@NoRepositoryBean
+public interface BaseRepository<T, ID> extends JpaRepository<T, ID> {
+
+    /**
+     * Удаляет сущность одним запросом {@code DELETE ... WHERE id = ?}, не загружая её.
+     * В отличие от {@link #deleteById(Object)}, каскадные операции JPA не выполняются:
+     * зависимые строки удаляются только ограничениями внешних ключей в базе данных.
+     *
+     * @param id Идентификатор сущности
+     * @return Количество удаленных строк ({@code 0}, если сущности нет)
+     */
+    @Modifying
+    @Query("DELETE FROM #{#entityName} e WHERE e.id = :id")
+    int deleteDirectlyById(@Param("id") ID id);
+}
@@ -0,0 +1,27 @@
+package com.example.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Репозиторий для отправки уведомлений об инвалидации кэшей через {@code pg_notify}.
+ * <p>
+ * Уведомление, отправленное в транзакции, доставляется слушателям только после её фиксации
+ * и не доставляется при откате, поэтому отправлять его нужно в той же транзакции, что и изменение данных.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CacheInvalidationRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Отправляет уведомление в канал.
+     *
+     * @param channel Имя канала
+     * @param payload Содержимое уведомления (не длиннее 8000 байт)
+     */
+    public void notify(String channel, String payload) {
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, payload);
+    }
+}
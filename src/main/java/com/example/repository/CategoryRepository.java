@@ -1,7 +1,18 @@
 package com.example.repository;
 
 import com.example.model.Category;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface CategoryRepository extends JpaRepository<Category, Long> {
-}
\ No newline at end of file
+import java.util.List;
+
+public interface CategoryRepository extends BaseRepository<Category, Long> {
+    /**
+     * Возвращает категории по идентификаторам. Результат запроса кэшируется в кэше запросов Hibernate
+     * и сбрасывается при любом изменении таблицы.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Category> findAllById(Iterable<Long> ids);
+}
@@ -1,7 +1,18 @@
 package com.example.repository;
 
 import com.example.model.City;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface CityRepository extends JpaRepository<City, Long> {
-}
\ No newline at end of file
+import java.util.List;
+
+public interface CityRepository extends BaseRepository<City, Long> {
+    /**
+     * Возвращает города по идентификаторам. Результат запроса кэшируется в кэше запросов Hibernate
+     * и сбрасывается при любом изменении таблицы.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<City> findAllById(Iterable<Long> ids);
+}
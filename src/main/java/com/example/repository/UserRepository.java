@@ -1,7 +1,6 @@
 package com.example.repository;
 
 import com.example.model.User;
-import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends BaseRepository<User, Long> {
 }
\ No newline at end of file
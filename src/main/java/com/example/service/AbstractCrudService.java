@@ -1,28 +1,98 @@
 package com.example.service;
 
+import com.example.cache.CacheInvalidation;
+import com.example.cache.CacheInvalidationBus;
+import com.example.cache.EntityCache;
 import com.example.error.exception.EntityNotFoundException;
 import com.example.model.EntityName;
+import com.example.repository.BaseRepository;
+import com.example.util.BulkUtils;
+import com.example.util.TransactionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnitUtil;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Абстрактный сервис для реализации CRUD операций для сущностей.
  * Предоставляет базовые операции создания, получения, обновления и удаления сущностей.
- * Используется для работы с репозиториями, которые расширяют {@link JpaRepository}.
+ * Используется для работы с репозиториями, которые расширяют {@link BaseRepository}.
+ * <p>
+ * Получение сущности по идентификатору может кэшироваться: кэш включается для сущности свойством
+ * {@code city-guide.entity-cache.<сущность>.enabled} и настраивается свойствами {@code maximum-size},
+ * {@code ttl} и {@code negative-ttl} с тем же префиксом. Кэшируется и отсутствие сущности.
+ * Из кэша отдаются только отсоединенные сущности для чтения, поэтому кэш используется лишь вне транзакции
+ * или в транзакции только для чтения; внутри изменяющей транзакции сущность всегда загружается из репозитория.
+ * Записи инвалидируются после фиксации транзакций, создающих, изменяющих или удаляющих сущность через сервис.
+ * Изменения в обход сервиса (например, каскадное удаление в базе данных) видны по истечении времени жизни.
+ * Об изменениях кэшируемых сущностей сообщается другим узлам через {@link CacheInvalidationBus}.
+ * <p>
+ * Массовое сохранение ({@link #saveAllInBatches}) выполняется частями по размеру пакета JDBC
+ * ({@code spring.jpa.properties.hibernate.jdbc.batch_size}).
  *
  * @param <T>  Тип сущности, с которой работает сервис
  * @param <ID> Тип идентификатора сущности
  */
 @Slf4j
 abstract class AbstractCrudService<T, ID> implements CrudService<T, ID> {
-    protected final JpaRepository<T, ID> repository;
+    private static final String JDBC_BATCH_SIZE_PROPERTY = "spring.jpa.properties.hibernate.jdbc.batch_size";
+    private static final int DEFAULT_JDBC_BATCH_SIZE = 50;
+
+    protected final BaseRepository<T, ID> repository;
     private final String entityName;
+    private EntityManager entityManager;
+    private int jdbcBatchSize = DEFAULT_JDBC_BATCH_SIZE;
+    private EntityCache<ID, T> cache;
+    private PersistenceUnitUtil persistenceUnitUtil;
+    private CacheInvalidationBus invalidationBus;
+    private boolean publishChanges;
 
-    protected AbstractCrudService(JpaRepository<T, ID> repository, EntityName entityName) {
+    protected AbstractCrudService(BaseRepository<T, ID> repository, EntityName entityName) {
         this.repository = repository;
         this.entityName = entityName.getDisplayName();
     }
 
+    /**
+     * Включает кэш получения сущностей по идентификатору, если он включен в настройках,
+     * и регистрирует сущность в шине инвалидации кэшей.
+     */
+    @Autowired
+    void configureCache(Environment environment, MeterRegistry meterRegistry,
+                        EntityManagerFactory entityManagerFactory, CacheInvalidationBus invalidationBus) {
+        String prefix = "city-guide.entity-cache." + entityName + ".";
+        if (environment.getProperty(prefix + "enabled", Boolean.class, false)) {
+            cache = new EntityCache<>(entityName,
+                    environment.getProperty(prefix + "maximum-size", Long.class, 10_000L),
+                    environment.getProperty(prefix + "ttl", Duration.class, Duration.ofMinutes(1)),
+                    environment.getProperty(prefix + "negative-ttl", Duration.class, Duration.ofSeconds(5)),
+                    meterRegistry);
+            log.info("Enabled {} cache", entityName);
+        }
+        Class<?> entityClass = ResolvableType.forClass(getClass()).as(AbstractCrudService.class).resolveGeneric(0);
+        this.persistenceUnitUtil = entityManagerFactory.getPersistenceUnitUtil();
+        this.invalidationBus = invalidationBus;
+        this.publishChanges = invalidationBus.register(entityName, entityClass, cache);
+        this.jdbcBatchSize = Math.max(1, environment.getProperty(JDBC_BATCH_SIZE_PROPERTY, Integer.class,
+                DEFAULT_JDBC_BATCH_SIZE));
+    }
+
+    @PersistenceContext
+    void setEntityManager(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
     /**
      * Создает новую сущность и сохраняет её в базе данных.
      *
@@ -34,11 +104,15 @@ abstract class AbstractCrudService<T, ID> implements CrudService<T, ID> {
         log.info("Creating {}: {}", entityName, entity);
         T entitySaved = repository.save(entity);
         log.info("Saved {}: {}", entityName, entity);
+        if (cache != null || publishChanges) {
+            invalidateAfterCommit(getId(entitySaved));
+        }
         return entitySaved;
     }
 
     /**
      * Получает сущность по идентификатору.
+     * Если кэш сущности включен и изменяющей транзакции нет, сущность читается через кэш.
      *
      * @param id Идентификатор сущности
      * @return Найденная сущность
@@ -47,7 +121,26 @@ abstract class AbstractCrudService<T, ID> implements CrudService<T, ID> {
     @Override
     public T getById(ID id) {
         log.info("Getting {} with ID: {}", entityName, id);
-        return repository.findById(id).orElseThrow(() -> createEntityNotFoundException(id));
+        Optional<T> entity = isCacheReadable() ? cache.get(id, repository::findById) : repository.findById(id);
+        return entity.orElseThrow(() -> createEntityNotFoundException(id));
+    }
+
+    /**
+     * Получает сущности по списку идентификаторов.
+     * Идентификаторы запрашиваются частями по {@link BulkUtils#IN_CLAUSE_CHUNK_SIZE} одним запросом {@code IN}
+     * на каждую часть. Для ненайденных идентификаторов сущности в результате отсутствуют.
+     *
+     * @param ids Идентификаторы сущностей
+     * @return Найденные сущности
+     */
+    @Override
+    public List<T> getAllById(Collection<ID> ids) {
+        log.info("Getting {} {} entities by IDs", ids.size(), entityName);
+        List<T> result = new ArrayList<>(ids.size());
+        for (List<ID> chunk : BulkUtils.partition(ids)) {
+            result.addAll(repository.findAllById(chunk));
+        }
+        return result;
     }
 
     /**
@@ -62,11 +155,14 @@ abstract class AbstractCrudService<T, ID> implements CrudService<T, ID> {
         log.info("Updating {} with ID:{}", entityName, id);
         T result = repository.save(entity);
         log.info("Updated {}: {}", entityName, result);
+        invalidateAfterCommit(id);
         return result;
     }
 
     /**
      * Удаляет сущность с указанным идентификатором.
+     * Сущность удаляется одним запросом {@code DELETE} без предварительной загрузки,
+     * а её отсутствие определяется по количеству удаленных строк.
      *
      * @param id Идентификатор сущности, которую необходимо удалить
      * @throws EntityNotFoundException Если сущность с данным идентификатором не найдена
@@ -74,9 +170,29 @@ abstract class AbstractCrudService<T, ID> implements CrudService<T, ID> {
     @Override
     public void delete(ID id) {
         log.info("Deleting {}: {}", entityName, id);
-        validateExistence(id);
-        repository.deleteById(id);
+        if (repository.deleteDirectlyById(id) == 0) {
+            throw createEntityNotFoundException(id);
+        }
         log.info("Deleted {}: {}", entityName, id);
+        invalidateAfterCommit(id);
+    }
+
+    /**
+     * Сохраняет сущности частями по размеру пакета JDBC. После каждой части изменения отправляются в базу данных,
+     * а сохраненные сущности (вместе с каскадно сохраненными) отсоединяются от контекста персистентности: иначе
+     * при массовом создании он удерживал бы все сущности запроса и проверял бы их все при каждом сбросе.
+     * Остальные сущности, загруженные в текущей транзакции, остаются присоединенными. У сохраненных сущностей
+     * после вызова доступны идентификаторы и загруженные ассоциации.
+     *
+     * @param entities Сохраняемые сущности
+     */
+    protected void saveAllInBatches(List<? extends T> entities) {
+        for (int from = 0; from < entities.size(); from += jdbcBatchSize) {
+            List<? extends T> saved = repository.saveAll(entities.subList(from,
+                    Math.min(from + jdbcBatchSize, entities.size())));
+            entityManager.flush();
+            saved.forEach(entityManager::detach);
+        }
     }
 
     /**
@@ -91,13 +207,42 @@ abstract class AbstractCrudService<T, ID> implements CrudService<T, ID> {
         }
     }
 
+    /**
+     * Удаляет сущность из кэша после фиксации текущей транзакции (или сразу, если транзакции нет)
+     * и сообщает об изменении сущности другим узлам.
+     * Удаление после фиксации не дает параллельному чтению вернуть в кэш еще не измененную сущность.
+     *
+     * @param id Идентификатор сущности
+     */
+    protected void invalidateAfterCommit(ID id) {
+        if (id == null) {
+            return;
+        }
+        if (cache != null) {
+            TransactionUtils.afterCommit(() -> cache.invalidate(id));
+        }
+        if (publishChanges) {
+            invalidationBus.publish(CacheInvalidation.entity(entityName, (Long) id));
+        }
+    }
+
+    private boolean isCacheReadable() {
+        return cache != null && (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ID getId(T entity) {
+        return (ID) persistenceUnitUtil.getIdentifier(entity);
+    }
+
     /**
      * Создает исключение {@link EntityNotFoundException} для указанного идентификатора.
      *
      * @param id Идентификатор сущности, для которой не найдена запись
      * @return Исключение {@link EntityNotFoundException}
      */
-    private EntityNotFoundException createEntityNotFoundException(ID id) {
+    protected EntityNotFoundException createEntityNotFoundException(ID id) {
         log.warn("{} not found with ID {}", entityName, id);
         return new EntityNotFoundException(entityName + " with ID=" + id + " not found");
     }
@@ -0,0 +1,11 @@
+package com.example.service;
+
+import com.example.dto.ingest.ImportReportDto;
+import com.example.ingest.ImportFormat;
+
+import java.io.InputStream;
+
+public interface AttractionImportService {
+
+    ImportReportDto importAttractions(InputStream input, ImportFormat format);
+}
@@ -0,0 +1,260 @@
+package com.example.service;
+
+import com.example.cache.CacheInvalidation;
+import com.example.cache.CacheInvalidationBus;
+import com.example.cache.NearbyResultCache;
+import com.example.dto.attraction.NewAttractionDto;
+import com.example.dto.ingest.ImportErrorDto;
+import com.example.dto.ingest.ImportReportDto;
+import com.example.geo.AttractionSpatialIndex;
+import com.example.ingest.AttractionRecordReader;
+import com.example.ingest.ImportFormat;
+import com.example.ingest.ImportProgress;
+import com.example.ingest.ParsedAttraction;
+import com.example.repository.AttractionImportRepository;
+import com.example.util.BulkUtils;
+import com.example.util.TransactionUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Реализация сервиса массового импорта достопримечательностей из CSV или NDJSON.
+ * <p>
+ * Импорт выполняется конвейером из трех стадий, связанных очередями ограниченного размера:
+ * <ol>
+ *     <li>разбор входного потока на строки (отдельный поток);</li>
+ *     <li>проверка строк правилами валидации {@link NewAttractionDto} и преобразование в CSV для {@code COPY}
+ *     (отдельный поток);</li>
+ *     <li>загрузка в промежуточную таблицу командой {@code COPY} (поток запроса, в котором открыта транзакция).</li>
+ * </ol>
+ * Ограниченные очереди не дают стадиям уйти вперед, поэтому в памяти находится не больше нескольких пакетов строк
+ * независимо от размера файла. После загрузки строки со ссылками на несуществующие категории и города отклоняются,
+ * а местоположения и достопримечательности вставляются из промежуточной таблицы в той же транзакции.
+ */
+@Slf4j
+@Service
+public class AttractionImportServiceImpl implements AttractionImportService {
+    private static final List<ParsedAttraction> END_OF_ROWS = new ArrayList<>();
+    private static final CopyChunk END_OF_CHUNKS = new CopyChunk(new byte[0], 0);
+
+    private final AttractionImportRepository importRepository;
+    private final AttractionSpatialIndex spatialIndex;
+    private final NearbyResultCache nearbyCache;
+    private final CacheInvalidationBus invalidationBus;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final long progressInterval;
+    private final int maxErrors;
+
+    public AttractionImportServiceImpl(AttractionImportRepository importRepository,
+                                       AttractionSpatialIndex spatialIndex,
+                                       NearbyResultCache nearbyCache,
+                                       CacheInvalidationBus invalidationBus,
+                                       ObjectMapper objectMapper,
+                                       Validator validator,
+                                       @Value("${city-guide.import.batch-size:1000}") int batchSize,
+                                       @Value("${city-guide.import.queue-capacity:16}") int queueCapacity,
+                                       @Value("${city-guide.import.progress-interval:100000}") long progressInterval,
+                                       @Value("${city-guide.import.max-errors:100}") int maxErrors) {
+        this.importRepository = importRepository;
+        this.spatialIndex = spatialIndex;
+        this.nearbyCache = nearbyCache;
+        this.invalidationBus = invalidationBus;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.progressInterval = progressInterval;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Импортирует достопримечательности из входного потока в одной транзакции.
+     * Строки с ошибками разбора, валидации или ссылками на несуществующие категории и города
+     * не импортируются и учитываются в отчете; остальные строки импортируются.
+     *
+     * @param input  Входной поток с файлом импорта
+     * @param format Формат файла импорта
+     * @return Отчет об импорте
+     * @throws com.example.error.exception.ValidationException Если файл не удается разобрать целиком
+     *                                                         (например, в CSV нет нужных колонок)
+     */
+    @Override
+    @Transactional
+    public ImportReportDto importAttractions(InputStream input, ImportFormat format) {
+        log.info("Importing attractions from {}", format);
+        long started = System.nanoTime();
+        ImportProgress progress = new ImportProgress(progressInterval, maxErrors);
+        BlockingQueue<List<ParsedAttraction>> rows = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<CopyChunk> chunks = new ArrayBlockingQueue<>(queueCapacity);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("attraction-import-");
+        threadFactory.setDaemon(true);
+        ExecutorService stages = Executors.newFixedThreadPool(2, threadFactory);
+        try {
+            Future<Void> parsing = stages.submit(stage(rows, END_OF_ROWS, () -> parse(input, format, rows, progress)));
+            Future<Void> mapping = stages.submit(stage(chunks, END_OF_CHUNKS, () -> validateAndMap(rows, chunks,
+                    progress)));
+
+            importRepository.createStagingTable();
+            long copied = importRepository.copyToStaging(out -> {
+                for (CopyChunk chunk = chunks.take(); chunk != END_OF_CHUNKS; chunk = chunks.take()) {
+                    out.write(chunk.data());
+                    progress.copied(chunk.rows());
+                }
+            });
+            // Сначала ожидается стадия, ближняя к COPY: если она завершилась с ошибкой, стадия разбора может
+            // быть заблокирована на заполненной очереди и будет прервана в finally
+            await(mapping);
+            await(parsing);
+
+            importRepository.analyzeStagingTable();
+            List<ImportErrorDto> unknownReferences = importRepository.findUnknownReferences(progress.remainingErrors());
+            progress.rejectAll(importRepository.deleteUnknownReferences(), unknownReferences);
+            int imported = importRepository.insertFromStaging();
+            TransactionUtils.afterCommit(this::refreshSearchStructures);
+            invalidationBus.publish(CacheInvalidation.searchRefresh());
+
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            log.info("Imported {} attractions in {} ms: {} rows read, {} copied, {} rejected",
+                    imported, durationMillis, progress.getRead(), copied, progress.getRejected());
+            return new ImportReportDto(progress.getRead(), imported, progress.getRejected(), progress.getErrors(),
+                    durationMillis);
+        } finally {
+            stages.shutdownNow();
+        }
+    }
+
+    /**
+     * Стадия разбора: читает строки входного потока и передает их пакетами по {@code batchSize}.
+     */
+    private void parse(InputStream input, ImportFormat format, BlockingQueue<List<ParsedAttraction>> rows,
+                       ImportProgress progress) throws IOException, InterruptedException {
+        try (AttractionRecordReader reader = AttractionRecordReader.open(input, format, objectMapper)) {
+            List<ParsedAttraction> batch = new ArrayList<>(batchSize);
+            for (ParsedAttraction row = reader.next(); row != null; row = reader.next()) {
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    progress.read(batch.size());
+                    rows.put(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                progress.read(batch.size());
+                rows.put(batch);
+            }
+        }
+    }
+
+    /**
+     * Стадия валидации: отклоняет строки с ошибками, а остальные преобразует в строки CSV для {@code COPY}.
+     */
+    private void validateAndMap(BlockingQueue<List<ParsedAttraction>> rows, BlockingQueue<CopyChunk> chunks,
+                                ImportProgress progress) throws InterruptedException {
+        for (List<ParsedAttraction> batch = rows.take(); batch != END_OF_ROWS; batch = rows.take()) {
+            StringBuilder csv = new StringBuilder(batch.size() * 64);
+            int accepted = 0;
+            for (ParsedAttraction row : batch) {
+                List<String> errors = row.attraction() != null
+                        ? BulkUtils.validationErrors(validator, row.attraction())
+                        : row.errors();
+                if (!errors.isEmpty()) {
+                    progress.reject(row.line(), errors);
+                    continue;
+                }
+                appendCopyRow(csv, row.line(), row.attraction());
+                accepted++;
+            }
+            if (accepted > 0) {
+                chunks.put(new CopyChunk(csv.toString().getBytes(StandardCharsets.UTF_8), accepted));
+            }
+        }
+    }
+
+    private void refreshSearchStructures() {
+        if (spatialIndex.isReady()) {
+            spatialIndex.rebuild();
+        }
+        if (nearbyCache.isEnabled()) {
+            nearbyCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Дописывает строку CSV с колонками {@code line, name, category_id, city_id, lat, lon}.
+     * Название всегда заключается в кавычки, поэтому запятые, кавычки и переводы строк в нем допустимы.
+     */
+    private static void appendCopyRow(StringBuilder csv, long line, NewAttractionDto attraction) {
+        csv.append(line).append(",\"")
+                .append(attraction.getName().replace("\u0000", "").replace("\"", "\"\""))
+                .append("\",").append(attraction.getCategoryId())
+                .append(',').append(attraction.getCityId())
+                .append(',').append(attraction.getLocation().getLat())
+                .append(',').append(attraction.getLocation().getLon())
+                .append('\n');
+    }
+
+    /**
+     * Оборачивает стадию конвейера так, что после ее завершения (в том числе с ошибкой) следующая стадия
+     * получает признак конца данных. Прерванная стадия признак не передает: прерывание означает,
+     * что импорт уже завершился с ошибкой и очередь никто не читает.
+     */
+    private static <T> Callable<Void> stage(BlockingQueue<T> output, T end, Stage body) {
+        return () -> {
+            try {
+                body.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            } finally {
+                if (!Thread.currentThread().isInterrupted()) {
+                    output.put(end);
+                }
+            }
+            return null;
+        };
+    }
+
+    private static void await(Future<Void> stage) {
+        try {
+            stage.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attraction import was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Attraction import failed", e.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws IOException, InterruptedException;
+    }
+
+    private record CopyChunk(byte[] data, int rows) {
+    }
+}
@@ -1,12 +1,21 @@
 package com.example.service;
 
+import com.example.dto.attraction.AttractionProjection;
+import com.example.dto.bulk.BulkItemResultDto;
+import com.example.dto.fields.SparseFieldset;
+import com.example.dto.page.CursorPageDto;
+import com.example.geo.AttractionPoint;
 import com.example.model.Attraction;
+import com.example.model.AttractionReview;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface AttractionService extends CrudService<Attraction, Long> {
 
-    List<Attraction> getNearestAttractions(
+    List<BulkItemResultDto<Attraction>> createAll(List<Attraction> attractions);
+
+    CursorPageDto<AttractionProjection> getNearestAttractions(
             double userLat,
             double userLon,
             double radius,
@@ -14,9 +23,21 @@ public interface AttractionService extends CrudService<Attraction, Long> {
             Double minRating,
             int limit,
             String sortBy,
-            String sortDirection);
+            String sortDirection,
+            String cursor,
+            SparseFieldset fields);
+
+    List<AttractionProjection> getKNearestAttractions(
+            double userLat,
+            double userLon,
+            int k,
+            Long categoryId,
+            Double minRating,
+            String sortBy,
+            String sortDirection,
+            SparseFieldset fields);
 
-    List<Attraction> getAttractionsInCity(
+    CursorPageDto<AttractionProjection> getAttractionsInCity(
             long cityId,
             double userLat,
             double userLon,
@@ -24,5 +45,17 @@ public interface AttractionService extends CrudService<Attraction, Long> {
             Double minRating,
             int limit,
             String sortBy,
-            String sortDirection);
+            String sortDirection,
+            String cursor,
+            SparseFieldset fields);
+
+    void exportAttractionsInCity(long cityId, Consumer<AttractionProjection> consumer);
+
+    void updateRating(long attractionId, Integer oldRating, Integer newRating);
+
+    void addReviews(List<AttractionReview> reviews);
+
+    long getReviewCount(long attractionId);
+
+    void ratingChanged(AttractionPoint point);
 }
\ No newline at end of file
@@ -1,22 +1,48 @@
 package com.example.service;
 
+import com.example.cache.CacheInvalidation;
+import com.example.cache.CacheInvalidationBus;
+import com.example.cache.NearbyQueryKey;
+import com.example.cache.NearbyResultCache;
+import com.example.cache.SearchRequestCoalescer;
+import com.example.dto.attraction.AttractionProjection;
+import com.example.dto.bulk.BulkItemResultDto;
+import com.example.dto.fields.SparseFieldset;
+import com.example.dto.page.CursorPageDto;
 import com.example.error.exception.EntityNotFoundException;
 import com.example.error.exception.ValidationException;
+import com.example.geo.AttractionPoint;
+import com.example.geo.AttractionSpatialIndex;
 import com.example.model.Attraction;
+import com.example.model.AttractionReview;
 import com.example.model.Category;
 import com.example.model.City;
 import com.example.model.EntityName;
 import com.example.model.Location;
 import com.example.repository.AttractionRepository;
+import com.example.repository.AttractionSearchCriteria;
+import com.example.util.BulkUtils;
+import com.example.util.GeoUtils;
+import com.example.util.KeysetCursor;
+import com.example.util.TransactionUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Реализация сервиса для работы с аттракционами.
@@ -27,19 +53,32 @@ import java.util.List;
 @Service
 @Transactional
 public class AttractionServiceImpl extends AbstractCrudService<Attraction, Long> implements AttractionService {
+    private static final double INITIAL_NEAREST_RADIUS_KM = 1;
+    private static final String CATEGORY_FIELD = "category";
+    private static final String CITY_FIELD = "city";
+
     private final AttractionRepository attractionRepository;
     private final CategoryServiceImpl categoryService;
     private final CityServiceImpl cityService;
+    private final AttractionSpatialIndex spatialIndex;
+    private final NearbyResultCache nearbyCache;
+    private final SearchRequestCoalescer searchCoalescer;
+    private final CacheInvalidationBus invalidationBus;
 
     @Autowired
     public AttractionServiceImpl(AttractionRepository attractionRepository, CategoryServiceImpl categoryService,
-                                 CityServiceImpl cityService) {
+                                 CityServiceImpl cityService, AttractionSpatialIndex spatialIndex,
+                                 NearbyResultCache nearbyCache, SearchRequestCoalescer searchCoalescer,
+                                 CacheInvalidationBus invalidationBus) {
 
         super(attractionRepository, EntityName.ATTRACTION);
         this.attractionRepository = attractionRepository;
         this.categoryService = categoryService;
         this.cityService = cityService;
-
+        this.spatialIndex = spatialIndex;
+        this.nearbyCache = nearbyCache;
+        this.searchCoalescer = searchCoalescer;
+        this.invalidationBus = invalidationBus;
     }
 
     @Override
@@ -48,7 +87,68 @@ public class AttractionServiceImpl extends AbstractCrudService<Attraction, Long>
         City city = cityService.getById(entity.getCity().getId());
         entity.setCategory(category);
         entity.setCity(city);
-        return super.create(entity);
+        Attraction saved = super.create(entity);
+        indexAfterCommit(saved);
+        return saved;
+    }
+
+    /**
+     * Создает несколько аттракционов в одной транзакции.
+     * Категории и города всех аттракционов загружаются запросами {@code IN}, а аттракционы вместе
+     * с местоположениями вставляются пакетами JDBC (вставленные аттракционы отсоединяются после каждого пакета,
+     * см. {@link #saveAllInBatches}). Аттракционы с несуществующей категорией или городом
+     * не создаются и получают результат со статусом {@code NOT_FOUND}.
+     *
+     * @param attractions Создаваемые аттракционы
+     * @return Результаты создания в порядке переданных аттракционов
+     */
+    @Override
+    public List<BulkItemResultDto<Attraction>> createAll(final List<Attraction> attractions) {
+        log.info("Bulk creating {} attractions", attractions.size());
+        Map<Long, Category> categories = categoryService.getAllById(attractions.stream()
+                        .map(attraction -> attraction.getCategory().getId())
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+        Map<Long, City> cities = cityService.getAllById(attractions.stream()
+                        .map(attraction -> attraction.getCity().getId())
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(City::getId, Function.identity()));
+
+        List<BulkItemResultDto<Attraction>> results = new ArrayList<>(attractions.size());
+        List<Attraction> valid = new ArrayList<>(attractions.size());
+        for (int i = 0; i < attractions.size(); i++) {
+            Attraction attraction = attractions.get(i);
+            Long categoryId = attraction.getCategory().getId();
+            Long cityId = attraction.getCity().getId();
+            if (!categories.containsKey(categoryId)) {
+                results.add(BulkItemResultDto.failed(i, HttpStatus.NOT_FOUND,
+                        "Category with ID=" + categoryId + " not found"));
+            } else if (!cities.containsKey(cityId)) {
+                results.add(BulkItemResultDto.failed(i, HttpStatus.NOT_FOUND,
+                        "City with ID=" + cityId + " not found"));
+            } else {
+                attraction.setCategory(categories.get(categoryId));
+                attraction.setCity(cities.get(cityId));
+                valid.add(attraction);
+                results.add(BulkItemResultDto.created(i, attraction));
+            }
+        }
+
+        saveAllInBatches(valid);
+        List<AttractionPoint> points = valid.stream()
+                .map(attraction -> new AttractionPoint(attraction.getId(), attraction.getLocation().getLat(),
+                        attraction.getLocation().getLon()))
+                .toList();
+        TransactionUtils.afterCommit(() -> points.forEach(point -> {
+            spatialIndex.put(point.id(), point.lat(), point.lon());
+            if (nearbyCache.isEnabled()) {
+                nearbyCache.invalidate(point.lat(), point.lon());
+            }
+        }));
+        points.forEach(point -> invalidationBus.publish(
+                CacheInvalidation.attractionMoved(point.id(), point.lat(), point.lon())));
+        log.info("Created {} of {} attractions", valid.size(), attractions.size());
+        return results;
     }
 
     @Override
@@ -61,9 +161,29 @@ public class AttractionServiceImpl extends AbstractCrudService<Attraction, Long>
         });
     }
 
+    /**
+     * Получает аттракционы по списку идентификаторов вместе с категорией, городом и местоположением.
+     *
+     * @param ids Идентификаторы аттракционов
+     * @return Найденные аттракционы
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Attraction> getAllById(final Collection<Long> ids) {
+        log.info("Getting {} attractions by IDs", ids.size());
+        List<Attraction> result = new ArrayList<>(ids.size());
+        for (List<Long> chunk : BulkUtils.partition(ids)) {
+            result.addAll(attractionRepository.findAllByIdIn(chunk));
+        }
+        return result;
+    }
+
     @Override
     public Attraction update(final Long id, final Attraction entity) {
-        final Attraction attraction = super.getById(id);
+        // Категория, город и местоположение загружаются тем же запросом, что и аттракцион
+        final Attraction attraction = getById(id);
+        Location previous = attraction.getLocation();
+        invalidateNearbyAfterCommit(previous.getLat(), previous.getLon());
 
         if (entity.getName() != null) {
             attraction.setName(entity.getName());
@@ -84,17 +204,45 @@ public class AttractionServiceImpl extends AbstractCrudService<Attraction, Long>
             }
             attraction.setLocation(location);
         }
-        return super.update(id, attraction);
+        Attraction updated = super.update(id, attraction);
+        indexAfterCommit(updated);
+        return updated;
     }
 
+    /**
+     * Удаляет аттракцион вместе с местоположением одним запросом, который возвращает координаты
+     * удаленного аттракциона для инвалидации кэша результатов поиска.
+     *
+     * @param id Идентификатор аттракциона
+     * @throws EntityNotFoundException Если аттракцион не найден
+     */
     @Override
     public void delete(final Long id) {
-        super.delete(id);
+        log.info("Deleting attraction: {}", id);
+        AttractionPoint point = attractionRepository.deleteWithLocationById(id)
+                .orElseThrow(() -> createEntityNotFoundException(id));
+        log.info("Deleted attraction: {}", id);
+        invalidateNearbyAfterCommit(point.lat(), point.lon());
+        invalidateAfterCommit(id);
+        TransactionUtils.afterCommit(() -> spatialIndex.remove(id));
+        invalidationBus.publish(CacheInvalidation.attractionRemoved(id));
     }
 
     /**
      * Получает список ближайших аттракционов в радиусе от указанной точки.
      * Также можно фильтровать по категории, минимальному рейтингу и сортировать результаты.
+     * <p>
+     * Кандидаты в радиусе отбираются через {@link AttractionSpatialIndex}, а база данных используется только
+     * для загрузки найденных аттракционов. Если индекс не готов или кандидатов слишком много,
+     * поиск в радиусе выполняется в базе данных: сначала по ограничивающему прямоугольнику
+     * (использует индекс {@code locations(lat, lon)}), затем точной проверкой расстояния.
+     * <p>
+     * Если включен {@link NearbyResultCache}, координаты пользователя округляются до точности кэша,
+     * и страницы поиска для округленной точки берутся из кэша, пока в покрытых запросом ячейках ничего не менялось.
+     * Из этих страниц собирается ответ для фактических координат пользователя: состав, расстояния, порядок
+     * и курсор такие же, как без кэша.
+     * Одновременные одинаковые запросы выполняются один раз ({@link SearchRequestCoalescer}).
+     * Категория и город загружаются, только если входят в запрошенные поля.
      *
      * @param userLat       Широта пользователя
      * @param userLon       Долгота пользователя
@@ -104,27 +252,162 @@ public class AttractionServiceImpl extends AbstractCrudService<Attraction, Long>
      * @param limit         Максимальное количество аттракционов для возврата
      * @param sortBy        Поле для сортировки (можно по 'distance' или 'rating')
      * @param sortDirection Направление сортировки ('asc' или 'desc')
-     * @return Список ближайших аттракционов
-     * @throws ValidationException Если параметры сортировки неверны
+     * @param cursor        Курсор следующей страницы из предыдущего ответа ({@code null} для первой страницы)
+     * @param fields        Запрошенные поля аттракционов
+     * @return Страница проекций ближайших аттракционов
+     * @throws ValidationException Если параметры сортировки, лимит или курсор неверны
      */
     @Override
-    @Transactional(readOnly = true)
-    public List<Attraction> getNearestAttractions(double userLat, double userLon, double radius,
-                                                  Long categoryId, Double minRating, int limit,
-                                                  String sortBy, String sortDirection) {
+    // Каждая страница поиска читается одним запросом к базе данных, поэтому транзакция не открывается:
+    // ответ из кэша не должен занимать соединение из пула
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public CursorPageDto<AttractionProjection> getNearestAttractions(double userLat, double userLon, double radius,
+                                                                     Long categoryId, Double minRating, int limit,
+                                                                     String sortBy, String sortDirection,
+                                                                     String cursor, SparseFieldset fields) {
         log.info("Getting nearest attractions with parameters - " +
                         "User Latitude: {}, User Longitude: {}, Radius: {} km, Category ID: {}, " +
-                        "Minimum Rating: {}, Limit: {}, Sort By: {}, Sort Direction: {}",
-                userLat, userLon, radius, categoryId, minRating, limit, sortBy, sortDirection);
+                        "Minimum Rating: {}, Limit: {}, Sort By: {}, Sort Direction: {}, Cursor: {}, Fields: {}",
+                userLat, userLon, radius, categoryId, minRating, limit, sortBy, sortDirection, cursor, fields);
+        if (!nearbyCache.isEnabled()) {
+            NearbyQueryKey key = new NearbyQueryKey(userLat, userLon, radius, categoryId, minRating, sortBy,
+                    sortDirection, limit, cursor, fields.includes(CATEGORY_FIELD), fields.includes(CITY_FIELD));
+            return searchCoalescer.execute(key, () -> searchNearest(userLat, userLon, radius, categoryId, minRating,
+                    limit, sortBy, sortDirection, cursor, fields));
+        }
+        return searchNearestWithCache(userLat, userLon, radius, categoryId, minRating, limit, sortBy,
+                sortDirection, cursor, fields);
+    }
+
+    /**
+     * Выполняет поиск ближайших аттракционов по страницам, закэшированным для округленных координат пользователя.
+     * <p>
+     * Расстояния от пользователя и от округленной точки отличаются не больше чем на
+     * {@link NearbyResultCache#maxSnapDistance()}. Поэтому для округленной точки запрашиваются страницы
+     * в радиусе, увеличенном на эту погрешность, а при сортировке по расстоянию — начиная с курсора, сдвинутого
+     * на нее же. Расстояния найденных аттракционов пересчитываются от пользователя, аттракционы дальше радиуса
+     * и не дальше курсора отбрасываются, остальные сортируются заново. Следующие страницы запрашиваются,
+     * пока не станут известны {@code limit + 1} первых аттракционов, которых не может опередить
+     * ни один еще не прочитанный; по ним формируются страница и курсор.
+     */
+    private CursorPageDto<AttractionProjection> searchNearestWithCache(double userLat, double userLon,
+                                                                       double radius, Long categoryId,
+                                                                       Double minRating, int limit, String sortBy,
+                                                                       String sortDirection, String cursor,
+                                                                       SparseFieldset fields) {
         validateSortParameters(sortBy, sortDirection);
-        Pageable pageable = PageRequest.of(0, limit, Sort.unsorted());
-        return attractionRepository.getNearestAttractions(userLat, userLon, radius, categoryId,
-                minRating, sortBy.toLowerCase(), sortDirection.toLowerCase(), pageable);
+        validateLimit(limit);
+        String sort = sortBy.toLowerCase();
+        String direction = sortDirection.toLowerCase();
+        boolean byDistance = "distance".equals(sort);
+        boolean ascending = "asc".equals(direction);
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor, sortKey(sort, direction));
+
+        double lat = nearbyCache.snap(userLat);
+        double lon = nearbyCache.snap(userLon);
+        double error = nearbyCache.maxSnapDistance();
+        double searchRadius = radius + error;
+        Comparator<AttractionProjection> order = searchOrder(sort, direction);
+        String pageCursor = after == null || !byDistance ? cursor
+                : new KeysetCursor(after.sort(), ascending ? after.value() - error : after.value() + error,
+                ascending ? Long.MIN_VALUE : Long.MAX_VALUE).encode();
+
+        List<AttractionProjection> found = new ArrayList<>();
+        while (true) {
+            NearbyQueryKey key = new NearbyQueryKey(lat, lon, searchRadius, categoryId, minRating, sort, direction,
+                    limit, pageCursor, fields.includes(CATEGORY_FIELD), fields.includes(CITY_FIELD));
+            String keyCursor = pageCursor;
+            // Одинаковые запросы объединяются до обращения к кэшу: версии ячеек читает и запись сохраняет
+            // только выполняющий поиск запрос
+            CursorPageDto<AttractionProjection> page = searchCoalescer.execute(key, () -> nearbyCache.get(key,
+                    () -> searchNearest(lat, lon, searchRadius, categoryId, minRating, limit, sort, direction,
+                            keyCursor, fields)));
+            for (AttractionProjection item : page.getItems()) {
+                AttractionProjection atUser = withDistance(item,
+                        GeoUtils.distance(userLat, userLon, item.lat(), item.lon()));
+                if (atUser.distance() <= radius && (after == null || isAfter(atUser, after, sort, ascending))) {
+                    found.add(atUser);
+                }
+            }
+            found.sort(order);
+            if (page.getNextCursor() == null) {
+                break;
+            }
+            // Непрочитанные аттракционы не ближе (не дальше) последнего прочитанного для округленной точки,
+            // поэтому от пользователя они не могут оказаться ближе (дальше) него более чем на погрешность
+            AttractionProjection last = page.getItems().get(page.getItems().size() - 1);
+            long settled = !byDistance ? found.size() : found.stream()
+                    .filter(item -> ascending
+                            ? item.distance() < last.distance() - error
+                            : item.distance() > last.distance() + error)
+                    .count();
+            if (settled > limit) {
+                break;
+            }
+            pageCursor = page.getNextCursor();
+        }
+        if (found.size() <= limit) {
+            return new CursorPageDto<>(List.copyOf(found), null);
+        }
+        return new CursorPageDto<>(List.copyOf(found.subList(0, limit)),
+                nextCursor(sort, direction, found.get(limit - 1)));
+    }
+
+    /**
+     * Получает k ближайших к пользователю аттракционов без ограничения радиуса.
+     * <p>
+     * Ближайшие точки последовательно запрашиваются у {@link AttractionSpatialIndex}, а база данных проверяет
+     * для них фильтры по категории и рейтингу. Если после фильтрации найдено меньше k аттракционов,
+     * у индекса запрашиваются следующие по удаленности точки, поэтому стоимость поиска зависит от k
+     * и избирательности фильтров, а не от размера каталога. Если индекс не готов, поиск выполняется
+     * в базе данных в расширяющемся радиусе. Одновременные одинаковые запросы выполняются один раз
+     * ({@link SearchRequestCoalescer}). Категория и город загружаются, только если входят в запрошенные поля.
+     *
+     * @param userLat       Широта пользователя
+     * @param userLon       Долгота пользователя
+     * @param k             Количество ближайших аттракционов
+     * @param categoryId    Идентификатор категории для фильтрации
+     * @param minRating     Минимальный рейтинг для фильтрации
+     * @param sortBy        Поле для сортировки найденных аттракционов (можно по 'distance' или 'rating')
+     * @param sortDirection Направление сортировки ('asc' или 'desc')
+     * @param fields        Запрошенные поля аттракционов
+     * @return Неизменяемый список проекций ближайших аттракционов
+     * @throws ValidationException Если параметры сортировки или k неверны
+     */
+    @Override
+    // Транзакция не открывается, чтобы запросы, ожидающие такой же поиск, не занимали соединения из пула
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<AttractionProjection> getKNearestAttractions(double userLat, double userLon, int k,
+                                                             Long categoryId, Double minRating,
+                                                             String sortBy, String sortDirection,
+                                                             SparseFieldset fields) {
+        log.info("Getting k nearest attractions with parameters - " +
+                        "User Latitude: {}, User Longitude: {}, K: {}, Category ID: {}, " +
+                        "Minimum Rating: {}, Sort By: {}, Sort Direction: {}, Fields: {}",
+                userLat, userLon, k, categoryId, minRating, sortBy, sortDirection, fields);
+        validateSortParameters(sortBy, sortDirection);
+        int maxK = spatialIndex.getMaxCandidates();
+        if (k < 1 || k > maxK) {
+            log.warn("Invalid value for k: {}. K must be between 1 and {}.", k, maxK);
+            throw new ValidationException("Invalid value for k. K must be between 1 and " + maxK + ".");
+        }
+        NearestQueryKey key = new NearestQueryKey(userLat, userLon, k, categoryId, minRating, sortBy, sortDirection,
+                fields.includes(CATEGORY_FIELD), fields.includes(CITY_FIELD));
+        return searchCoalescer.execute(key, () -> {
+            List<AttractionProjection> nearest = spatialIndex.isReady()
+                    ? findNearestWithIndex(userLat, userLon, k, categoryId, minRating, fields)
+                    : findNearestInDatabase(userLat, userLon, k, categoryId, minRating, fields);
+
+            nearest.sort(searchOrder(sortBy, sortDirection));
+            return List.copyOf(nearest);
+        });
     }
 
     /**
      * Получает список аттракционов в указанном городе с учетом параметров поиска.
      * Можно фильтровать по категории, минимальному рейтингу и сортировать результаты.
+     * Одновременные одинаковые запросы выполняются один раз ({@link SearchRequestCoalescer}).
+     * Категория и город загружаются, только если входят в запрошенные поля.
      *
      * @param cityId        Идентификатор города
      * @param userLat       Широта пользователя
@@ -134,22 +417,379 @@ public class AttractionServiceImpl extends AbstractCrudService<Attraction, Long>
      * @param limit         Максимальное количество аттракционов для возврата
      * @param sortBy        Поле для сортировки (можно по 'distance' или 'rating')
      * @param sortDirection Направление сортировки ('asc' или 'desc')
-     * @return Список аттракционов в городе
-     * @throws ValidationException Если параметры сортировки неверны
+     * @param cursor        Курсор следующей страницы из предыдущего ответа ({@code null} для первой страницы)
+     * @param fields        Запрошенные поля аттракционов
+     * @return Страница проекций аттракционов в городе
+     * @throws ValidationException Если параметры сортировки, лимит или курсор неверны
      */
     @Override
-    @Transactional(readOnly = true)
-    public List<Attraction> getAttractionsInCity(long cityId, double userLat, double userLon,
-                                                 Long categoryId, Double minRating, int limit,
-                                                 String sortBy, String sortDirection) {
+    // Поиск выполняет один запрос к базе данных, поэтому транзакция не открывается: запросы, ожидающие
+    // такой же поиск, не должны занимать соединения из пула
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public CursorPageDto<AttractionProjection> getAttractionsInCity(long cityId, double userLat, double userLon,
+                                                                    Long categoryId, Double minRating, int limit,
+                                                                    String sortBy, String sortDirection,
+                                                                    String cursor, SparseFieldset fields) {
         log.info("Getting attractions in city with parameters - " +
                         "City ID: {}, User Latitude: {}, User Longitude: {}, Category ID: {}, " +
-                        "Minimum Rating: {}, Limit: {}, Sort By: {}, Sort Direction: {}",
-                cityId, userLat, userLon, categoryId, minRating, limit, sortBy, sortDirection);
+                        "Minimum Rating: {}, Limit: {}, Sort By: {}, Sort Direction: {}, Cursor: {}, Fields: {}",
+                cityId, userLat, userLon, categoryId, minRating, limit, sortBy, sortDirection, cursor, fields);
+        AttractionSearchCriteria criteria = searchCriteria(userLat, userLon, categoryId, minRating, limit, sortBy,
+                sortDirection, cursor, fields)
+                .cityId(cityId)
+                .build();
+        CityQueryKey key = new CityQueryKey(cityId, userLat, userLon, categoryId, minRating, limit, sortBy,
+                sortDirection, cursor, criteria.isWithCategory(), criteria.isWithCity());
+        return searchCoalescer.execute(key, () -> searchPage(criteria, limit));
+    }
+
+    /**
+     * Последовательно передает все аттракционы города потребителю, читая их из базы данных курсором.
+     * Аттракционы не накапливаются в памяти, поэтому потребление памяти не зависит от размера города.
+     * Существование города не проверяется: для несуществующего города потребитель не будет вызван.
+     *
+     * @param cityId   Идентификатор города
+     * @param consumer Потребитель проекций аттракционов
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAttractionsInCity(long cityId, Consumer<AttractionProjection> consumer) {
+        log.info("Exporting attractions in city with ID={}", cityId);
+        try (Stream<AttractionProjection> attractions = attractionRepository.streamByCityId(cityId)) {
+            attractions.forEach(consumer);
+        }
+    }
+
+    /**
+     * Атомарно обновляет сумму и количество оценок аттракциона при изменении оценки отзыва.
+     *
+     * @param attractionId Идентификатор аттракциона
+     * @param oldRating    Предыдущая оценка отзыва ({@code null}, если оценки не было)
+     * @param newRating    Новая оценка отзыва ({@code null}, если оценки больше нет)
+     */
+    @Override
+    public void updateRating(long attractionId, Integer oldRating, Integer newRating) {
+        long sumDelta = (newRating != null ? newRating : 0) - (oldRating != null ? oldRating : 0);
+        int countDelta = (newRating != null ? 1 : 0) - (oldRating != null ? 1 : 0);
+        if (sumDelta == 0 && countDelta == 0) {
+            return;
+        }
+        log.info("Updating rating of attraction with ID={}: sum delta {}, count delta {}",
+                attractionId, sumDelta, countDelta);
+        attractionRepository.updateRating(attractionId, sumDelta, countDelta);
+        if (nearbyCache.isEnabled()) {
+            attractionRepository.findPointById(attractionId)
+                    .ifPresent(point -> invalidateNearbyAfterCommit(point.lat(), point.lon()));
+        }
+    }
+
+    /**
+     * Делает устаревшими закэшированные результаты поиска рядом с аттракционом, рейтинг которого
+     * уже изменен в базе данных (например, запросом, удалившим отзыв).
+     *
+     * @param point Координаты аттракциона
+     */
+    @Override
+    public void ratingChanged(AttractionPoint point) {
+        invalidateNearbyAfterCommit(point.lat(), point.lon());
+    }
+
+    /**
+     * Добавляет новые отзывы к количеству отзывов их аттракционов, а их оценки - к сумме и количеству оценок.
+     * Изменения группируются по аттракционам и применяются одним запросом.
+     *
+     * @param reviews Новые отзывы с загруженными аттракционами
+     */
+    @Override
+    public void addReviews(List<AttractionReview> reviews) {
+        if (reviews.isEmpty()) {
+            return;
+        }
+        Map<Long, Attraction> rated = new HashMap<>();
+        Map<Long, long[]> deltas = new HashMap<>();
+        for (AttractionReview review : reviews) {
+            Attraction attraction = review.getAttraction();
+            long[] delta = deltas.computeIfAbsent(attraction.getId(), id -> new long[3]);
+            delta[2]++;
+            if (review.getRating() != null) {
+                rated.putIfAbsent(attraction.getId(), attraction);
+                delta[0] += review.getRating();
+                delta[1]++;
+            }
+        }
+        log.info("Updating review counts of {} attractions", deltas.size());
+        Long[] ids = deltas.keySet().toArray(Long[]::new);
+        Long[] sumDeltas = new Long[ids.length];
+        Integer[] countDeltas = new Integer[ids.length];
+        Integer[] reviewDeltas = new Integer[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            long[] delta = deltas.get(ids[i]);
+            sumDeltas[i] = delta[0];
+            countDeltas[i] = (int) delta[1];
+            reviewDeltas[i] = (int) delta[2];
+        }
+        attractionRepository.updateRatings(ids, sumDeltas, countDeltas, reviewDeltas);
+        rated.values().forEach(attraction -> invalidateNearbyAfterCommit(
+                attraction.getLocation().getLat(), attraction.getLocation().getLon()));
+    }
+
+    /**
+     * Возвращает количество отзывов об аттракционе из агрегата, поддерживаемого при изменении отзывов.
+     *
+     * @param attractionId Идентификатор аттракциона
+     * @return Количество отзывов
+     * @throws EntityNotFoundException Если аттракцион не найден
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long getReviewCount(long attractionId) {
+        return attractionRepository.findReviewCountById(attractionId).orElseThrow(() -> {
+            log.warn("Attraction not found with ID {}", attractionId);
+            return new EntityNotFoundException("Attraction with ID=" + attractionId + " not found");
+        });
+    }
+
+    /**
+     * Обновляет координаты аттракциона в пространственном индексе после фиксации транзакции
+     * и сообщает о перемещении другим узлам.
+     *
+     * @param attraction Сохраненный аттракцион
+     */
+    private void indexAfterCommit(Attraction attraction) {
+        Long id = attraction.getId();
+        Location location = attraction.getLocation();
+        if (id == null || location == null || location.getLat() == null || location.getLon() == null) {
+            return;
+        }
+        double lat = location.getLat();
+        double lon = location.getLon();
+        TransactionUtils.afterCommit(() -> spatialIndex.put(id, lat, lon));
+        if (nearbyCache.isEnabled()) {
+            TransactionUtils.afterCommit(() -> nearbyCache.invalidate(lat, lon));
+        }
+        invalidationBus.publish(CacheInvalidation.attractionMoved(id, lat, lon));
+    }
+
+    /**
+     * Делает устаревшими закэшированные результаты поиска рядом с точкой после фиксации транзакции
+     * на этом и на других узлах.
+     *
+     * @param lat Широта измененного аттракциона
+     * @param lon Долгота измененного аттракциона
+     */
+    private void invalidateNearbyAfterCommit(Double lat, Double lon) {
+        if (nearbyCache.isEnabled() && lat != null && lon != null) {
+            TransactionUtils.afterCommit(() -> nearbyCache.invalidate(lat, lon));
+            invalidationBus.publish(CacheInvalidation.nearbyCell(lat, lon));
+        }
+    }
+
+    /**
+     * Выполняет поиск ближайших аттракционов в радиусе без использования кэша результатов.
+     */
+    private CursorPageDto<AttractionProjection> searchNearest(double userLat, double userLon, double radius,
+                                                              Long categoryId, Double minRating, int limit,
+                                                              String sortBy, String sortDirection, String cursor,
+                                                              SparseFieldset fields) {
+        return nearestSearchCriteria(userLat, userLon, radius, categoryId, minRating, limit, sortBy, sortDirection,
+                cursor, fields)
+                .map(criteria -> searchPage(criteria, limit))
+                .orElseGet(() -> new CursorPageDto<>(List.of(), null));
+    }
+
+    /**
+     * Подготавливает критерии поиска в радиусе: по кандидатам из пространственного индекса, если он готов
+     * и кандидатов не слишком много, иначе по радиусу в базе данных.
+     *
+     * @return Критерии поиска или пустое значение, если по индексу в радиусе нет ни одного аттракциона
+     */
+    private Optional<AttractionSearchCriteria> nearestSearchCriteria(double userLat, double userLon, double radius,
+                                                                     Long categoryId, Double minRating, int limit,
+                                                                     String sortBy, String sortDirection,
+                                                                     String cursor, SparseFieldset fields) {
+        AttractionSearchCriteria.AttractionSearchCriteriaBuilder criteria =
+                searchCriteria(userLat, userLon, categoryId, minRating, limit, sortBy, sortDirection, cursor, fields);
+        if (spatialIndex.isReady()) {
+            List<Long> ids = spatialIndex.findWithinRadius(userLat, userLon, radius);
+            if (ids.isEmpty()) {
+                return Optional.empty();
+            }
+            if (ids.size() <= spatialIndex.getMaxCandidates()) {
+                return Optional.of(criteria.ids(ids).build());
+            }
+            log.info("Spatial index returned {} candidates, falling back to database radius search", ids.size());
+        }
+        return Optional.of(criteria.radius(radius)
+                .boundingBox(GeoUtils.boundingBox(userLat, userLon, radius))
+                .build());
+    }
+
+    /**
+     * Находит k ближайших аттракционов, удовлетворяющих фильтрам, по пространственному индексу.
+     * Кандидаты проверяются в базе данных порциями в порядке удаленности; каждая следующая порция
+     * вдвое больше уже проверенных кандидатов, но не больше ограничения на число кандидатов.
+     */
+    private List<AttractionProjection> findNearestWithIndex(double userLat, double userLon, int k,
+                                                            Long categoryId, Double minRating,
+                                                            SparseFieldset fields) {
+        List<AttractionProjection> found = new ArrayList<>();
+        int checked = 0;
+        int requested = k;
+        while (true) {
+            List<Long> candidates = spatialIndex.findNearest(userLat, userLon, requested);
+            if (candidates.size() > checked) {
+                found.addAll(attractionRepository.search(nearestCriteria(userLat, userLon, categoryId, minRating,
+                        k - found.size(), fields)
+                        .ids(candidates.subList(checked, candidates.size()))
+                        .build()));
+                checked = candidates.size();
+            }
+            if (found.size() >= k || candidates.size() < requested) {
+                return found;
+            }
+            requested = checked + Math.min(checked, spatialIndex.getMaxCandidates());
+        }
+    }
+
+    /**
+     * Находит k ближайших аттракционов, удовлетворяющих фильтрам, в базе данных.
+     * Радиус поиска увеличивается, пока не будет найдено k аттракционов или поиск не охватит весь земной шар.
+     */
+    private List<AttractionProjection> findNearestInDatabase(double userLat, double userLon, int k,
+                                                             Long categoryId, Double minRating,
+                                                             SparseFieldset fields) {
+        for (double radius = INITIAL_NEAREST_RADIUS_KM; ; radius *= 4) {
+            AttractionSearchCriteria.AttractionSearchCriteriaBuilder criteria =
+                    nearestCriteria(userLat, userLon, categoryId, minRating, k, fields);
+            boolean wholeGlobe = radius >= Math.PI * GeoUtils.EARTH_RADIUS_KM;
+            if (!wholeGlobe) {
+                criteria.radius(radius).boundingBox(GeoUtils.boundingBox(userLat, userLon, radius));
+            }
+            List<AttractionProjection> found = attractionRepository.search(criteria.build());
+            if (found.size() >= k || wholeGlobe) {
+                return new ArrayList<>(found);
+            }
+        }
+    }
+
+    private AttractionSearchCriteria.AttractionSearchCriteriaBuilder nearestCriteria(double userLat, double userLon,
+                                                                                    Long categoryId,
+                                                                                    Double minRating, int limit,
+                                                                                    SparseFieldset fields) {
+        return AttractionSearchCriteria.builder()
+                .userLat(userLat)
+                .userLon(userLon)
+                .categoryId(categoryId)
+                .minRating(minRating)
+                .sortBy("distance")
+                .sortDirection("asc")
+                .limit(limit)
+                .withCategory(fields.includes(CATEGORY_FIELD))
+                .withCity(fields.includes(CITY_FIELD));
+    }
+
+    /**
+     * Проверяет параметры поиска и подготавливает общие критерии поиска.
+     * Запрашивается на одну запись больше лимита, чтобы определить наличие следующей страницы.
+     * Категория и город присоединяются к запросу, только если входят в запрошенные поля.
+     */
+    private AttractionSearchCriteria.AttractionSearchCriteriaBuilder searchCriteria(double userLat, double userLon,
+                                                                                   Long categoryId,
+                                                                                   Double minRating, int limit,
+                                                                                   String sortBy,
+                                                                                   String sortDirection,
+                                                                                   String cursor,
+                                                                                   SparseFieldset fields) {
         validateSortParameters(sortBy, sortDirection);
-        Pageable pageable = PageRequest.of(0, limit, Sort.unsorted());
-        return attractionRepository.getAttractionsInCity(cityId, userLat, userLon, categoryId,
-                minRating, sortBy.toLowerCase(), sortDirection.toLowerCase(), pageable);
+        validateLimit(limit);
+        String sort = sortBy.toLowerCase();
+        String direction = sortDirection.toLowerCase();
+        return AttractionSearchCriteria.builder()
+                .userLat(userLat)
+                .userLon(userLon)
+                .categoryId(categoryId)
+                .minRating(minRating)
+                .sortBy(sort)
+                .sortDirection(direction)
+                .cursor(cursor == null ? null : KeysetCursor.decode(cursor, sortKey(sort, direction)))
+                .limit(limit + 1)
+                .withCategory(fields.includes(CATEGORY_FIELD))
+                .withCity(fields.includes(CITY_FIELD));
+    }
+
+    /**
+     * Выполняет поиск и формирует страницу результатов с курсором на следующую страницу.
+     *
+     * @param criteria Критерии поиска
+     * @param limit    Размер страницы
+     * @return Страница результатов
+     */
+    private CursorPageDto<AttractionProjection> searchPage(AttractionSearchCriteria criteria, int limit) {
+        List<AttractionProjection> rows = attractionRepository.search(criteria);
+        if (rows.size() <= limit) {
+            return new CursorPageDto<>(rows, null);
+        }
+        return new CursorPageDto<>(List.copyOf(rows.subList(0, limit)), nextCursor(criteria, rows.get(limit - 1)));
+    }
+
+    /**
+     * Кодирует курсор следующей страницы по последней строке текущей страницы.
+     */
+    private String nextCursor(AttractionSearchCriteria criteria, AttractionProjection last) {
+        return nextCursor(criteria.getSortBy(), criteria.getSortDirection(), last);
+    }
+
+    private String nextCursor(String sortBy, String sortDirection, AttractionProjection last) {
+        return new KeysetCursor(sortKey(sortBy, sortDirection), sortValue(sortBy, last), last.id()).encode();
+    }
+
+    /**
+     * Проверяет, что аттракцион следует за курсором в порядке сортировки.
+     */
+    private boolean isAfter(AttractionProjection projection, KeysetCursor cursor, String sortBy, boolean ascending) {
+        int compared = Double.compare(sortValue(sortBy, projection), cursor.value());
+        if (compared == 0) {
+            compared = Long.compare(projection.id(), cursor.id());
+        }
+        return ascending ? compared > 0 : compared < 0;
+    }
+
+    private double sortValue(String sortBy, AttractionProjection projection) {
+        return "rating".equalsIgnoreCase(sortBy) ? ratingValue(projection) : projection.distance();
+    }
+
+    /**
+     * Порядок результатов поиска: по полю сортировки, при равенстве — по идентификатору.
+     */
+    private Comparator<AttractionProjection> searchOrder(String sortBy, String sortDirection) {
+        Comparator<AttractionProjection> order = Comparator
+                .comparingDouble((AttractionProjection projection) -> sortValue(sortBy, projection))
+                .thenComparing(AttractionProjection::id);
+        return "asc".equalsIgnoreCase(sortDirection) ? order : order.reversed();
+    }
+
+    private AttractionProjection withDistance(AttractionProjection projection, double distance) {
+        return new AttractionProjection(projection.id(), projection.name(), projection.categoryId(),
+                projection.categoryName(), projection.cityId(), projection.cityName(), projection.cityCountry(),
+                projection.lat(), projection.lon(), projection.ratingSum(), projection.ratingCount(), distance);
+    }
+
+    /**
+     * Вычисляет неокругленный рейтинг так же, как generated column attraction.rating в базе данных.
+     */
+    private double ratingValue(AttractionProjection projection) {
+        return projection.ratingCount() == 0 ? 0 : (double) projection.ratingSum() / projection.ratingCount();
+    }
+
+    private String sortKey(String sortBy, String sortDirection) {
+        return sortBy + ":" + sortDirection;
+    }
+
+    private void validateLimit(int limit) {
+        if (limit < 1) {
+            log.warn("Invalid value for limit: {}. Limit must be positive.", limit);
+            throw new ValidationException("Invalid value for limitCount. Limit must be positive.");
+        }
     }
 
     /**
@@ -171,4 +811,18 @@ public class AttractionServiceImpl extends AbstractCrudService<Attraction, Long>
         }
     }
 
+    /**
+     * Ключ объединения одинаковых запросов k ближайших аттракционов.
+     */
+    private record NearestQueryKey(double lat, double lon, int k, Long categoryId, Double minRating,
+                                   String sortBy, String sortDirection, boolean withCategory, boolean withCity) {
+    }
+
+    /**
+     * Ключ объединения одинаковых запросов аттракционов в городе.
+     */
+    private record CityQueryKey(long cityId, double lat, double lon, Long categoryId, Double minRating, int limit,
+                                String sortBy, String sortDirection, String cursor, boolean withCategory,
+                                boolean withCity) {
+    }
 }
\ No newline at end of file
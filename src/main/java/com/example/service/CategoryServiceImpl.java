@@ -8,6 +8,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
+
 /**
  * Реализация сервиса для работы с категориями.
  * Предоставляет операции CRUD для категорий.
@@ -34,8 +36,9 @@ public class CategoryServiceImpl extends AbstractCrudService<Category, Long> {
     }
 
     @Override
-    public Category update(final Long catId, final Category category) {
-        super.validateExistence(catId);
+    public Category update(final Long catId, final Category updateCategory) {
+        final Category category = getById(catId);
+        Optional.ofNullable(updateCategory.getName()).ifPresent(category::setName);
         return super.update(catId, category);
     }
 
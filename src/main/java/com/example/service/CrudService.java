@@ -1,10 +1,15 @@
 package com.example.service;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface CrudService<T, ID> {
     T create(T entity);
 
     T getById(ID id);
 
+    List<T> getAllById(Collection<ID> ids);
+
     T update(ID id, T entity);
 
     void delete(ID id);
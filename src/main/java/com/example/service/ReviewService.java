@@ -1,10 +1,16 @@
 package com.example.service;
 
+import com.example.dto.bulk.BulkItemResultDto;
+import com.example.dto.fields.SparseFieldset;
+import com.example.dto.page.CountedCursorPageDto;
 import com.example.model.AttractionReview;
 
 import java.util.List;
 
 public interface ReviewService extends CrudService<AttractionReview, Long> {
 
-    List<AttractionReview> getReviewForAttraction(long attId, String sortDirection);
+    List<BulkItemResultDto<AttractionReview>> createAll(List<AttractionReview> reviews);
+
+    CountedCursorPageDto<AttractionReview> getReviewForAttraction(long attId, String sortDirection, int limit,
+                                                                  String cursor, SparseFieldset fields);
 }
@@ -1,18 +1,37 @@
 package com.example.service;
 
+import com.example.dto.bulk.BulkItemResultDto;
+import com.example.dto.fields.SparseFieldset;
+import com.example.dto.page.CountedCursorPageDto;
+import com.example.dto.review.ReviewAuthorKey;
 import com.example.error.exception.AccessDeniedException;
+import com.example.error.exception.EntityNotFoundException;
 import com.example.error.exception.ValidationException;
+import com.example.geo.AttractionPoint;
 import com.example.model.Attraction;
 import com.example.model.AttractionReview;
 import com.example.model.EntityName;
+import com.example.model.Location;
 import com.example.model.User;
 import com.example.repository.AttractionReviewRepository;
+import com.example.util.BulkUtils;
+import com.example.util.KeysetCursor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Реализация сервиса для работы с отзывами о достопримечательностях.
@@ -22,6 +41,19 @@ import java.util.Objects;
 @Service
 @Transactional
 public class ReviewServiceImpl extends AbstractCrudService<AttractionReview, Long> implements ReviewService {
+    /**
+     * Максимальный размер страницы отзывов.
+     */
+    static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Значение оценки в курсоре для отзыва без оценки: меньше любой допустимой оценки.
+     */
+    private static final int NO_RATING = 0;
+
+    private static final String AUTHOR_FOREIGN_KEY = "attraction_reviews_user_fk";
+    private static final String ATTRACTION_FOREIGN_KEY = "attraction_reviews_fk";
+
     private final UserServiceImpl userService;
     private final AttractionService attractionService;
     private final AttractionReviewRepository reviewRepository;
@@ -34,21 +66,101 @@ public class ReviewServiceImpl extends AbstractCrudService<AttractionReview, Lon
         this.reviewRepository = reviewRepository;
     }
 
+    /**
+     * Создает отзыв одним запросом {@code INSERT ... ON CONFLICT DO NOTHING}, который заодно обновляет
+     * рейтинг и количество отзывов аттракциона, и загружает созданный отзыв вместе с автором и аттракционом.
+     * Повторный отзыв автора о том же аттракционе отклоняется уникальным индексом, поэтому параллельные запросы
+     * не могут создать два отзыва. Автор и аттракцион не загружаются заранее: их отсутствие определяется
+     * по нарушению внешнего ключа.
+     *
+     * @param entity Отзыв с идентификаторами автора и аттракциона
+     * @return Созданный отзыв
+     * @throws ValidationException     Если автор уже оставил отзыв об аттракционе
+     * @throws EntityNotFoundException Если автор или аттракцион не найден
+     */
     @Override
     public AttractionReview create(final AttractionReview entity) {
-        AttractionReview review = reviewRepository.findByAttractionIdAndAuthorId(entity.getAttraction().getId(),
-                entity.getAuthor().getId()).orElse(null);
-        if (review != null) {
+        long authorId = entity.getAuthor().getId();
+        long attractionId = entity.getAttraction().getId();
+        log.info("Creating review of user {} for attraction {}", authorId, attractionId);
+        Long id;
+        try {
+            id = reviewRepository.insertIfAbsent(entity.getComment(), entity.getRating(), authorId, attractionId)
+                    .orElse(null);
+        } catch (DataIntegrityViolationException e) {
+            throw referenceNotFound(e, authorId, attractionId);
+        }
+        if (id == null) {
             log.warn("User with ID {} is attempting to create a review for Attraction with ID {} that already exists.",
-                    entity.getAuthor().getId(), entity.getAttraction().getId());
+                    authorId, attractionId);
             throw new ValidationException("You have already left a review");
-        } else {
-            User user = userService.getById(entity.getAuthor().getId());
-            Attraction attraction = attractionService.getById(entity.getAttraction().getId());
-            entity.setAuthor(user);
-            entity.setAttraction(attraction);
-            return super.create(entity);
         }
+        log.info("Created review: {}", id);
+        invalidateAfterCommit(id);
+        AttractionReview saved = getById(id);
+        if (saved.getRating() != null) {
+            Location location = saved.getAttraction().getLocation();
+            attractionService.ratingChanged(new AttractionPoint(attractionId, location.getLat(), location.getLon()));
+        }
+        return saved;
+    }
+
+    /**
+     * Создает несколько отзывов в одной транзакции.
+     * Авторы, аттракционы и уже существующие отзывы этих авторов о тех же аттракционах загружаются
+     * запросами {@code IN}, отзывы вставляются пакетами JDBC (вставленные отзывы отсоединяются после каждого
+     * пакета, см. {@link #saveAllInBatches}), а рейтинги и количества отзывов аттракционов
+     * обновляются одним запросом.
+     * Отзыв с несуществующим автором или аттракционом получает результат со статусом {@code NOT_FOUND},
+     * повторный отзыв автора о том же аттракционе (в том числе в этом же запросе) - {@code BAD_REQUEST}.
+     *
+     * @param reviews Создаваемые отзывы
+     * @return Результаты создания в порядке переданных отзывов
+     */
+    @Override
+    public List<BulkItemResultDto<AttractionReview>> createAll(final List<AttractionReview> reviews) {
+        log.info("Bulk creating {} reviews", reviews.size());
+        Set<Long> authorIds = reviews.stream().map(review -> review.getAuthor().getId()).collect(Collectors.toSet());
+        Set<Long> attractionIds = reviews.stream()
+                .map(review -> review.getAttraction().getId())
+                .collect(Collectors.toSet());
+        Map<Long, User> users = userService.getAllById(authorIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Attraction> attractions = attractionService.getAllById(attractionIds).stream()
+                .collect(Collectors.toMap(Attraction::getId, Function.identity()));
+        Set<ReviewAuthorKey> reviewed = new HashSet<>();
+        for (List<Long> attractionChunk : BulkUtils.partition(attractions.keySet())) {
+            for (List<Long> authorChunk : BulkUtils.partition(users.keySet())) {
+                reviewed.addAll(reviewRepository.findAuthorKeys(attractionChunk, authorChunk));
+            }
+        }
+
+        List<BulkItemResultDto<AttractionReview>> results = new ArrayList<>(reviews.size());
+        List<AttractionReview> valid = new ArrayList<>(reviews.size());
+        for (int i = 0; i < reviews.size(); i++) {
+            AttractionReview review = reviews.get(i);
+            Long authorId = review.getAuthor().getId();
+            Long attractionId = review.getAttraction().getId();
+            if (!users.containsKey(authorId)) {
+                results.add(BulkItemResultDto.failed(i, HttpStatus.NOT_FOUND,
+                        "User with ID=" + authorId + " not found"));
+            } else if (!attractions.containsKey(attractionId)) {
+                results.add(BulkItemResultDto.failed(i, HttpStatus.NOT_FOUND,
+                        "Attraction with ID=" + attractionId + " not found"));
+            } else if (!reviewed.add(new ReviewAuthorKey(attractionId, authorId))) {
+                results.add(BulkItemResultDto.failed(i, HttpStatus.BAD_REQUEST, "You have already left a review"));
+            } else {
+                review.setAuthor(users.get(authorId));
+                review.setAttraction(attractions.get(attractionId));
+                valid.add(review);
+                results.add(BulkItemResultDto.created(i, review));
+            }
+        }
+
+        saveAllInBatches(valid);
+        attractionService.addReviews(valid);
+        log.info("Created {} of {} reviews", valid.size(), reviews.size());
+        return results;
     }
 
     @Override
@@ -74,31 +186,106 @@ public class ReviewServiceImpl extends AbstractCrudService<AttractionReview, Lon
             review.setComment(entity.getComment());
         }
         if (entity.getRating() != null) {
+            attractionService.updateRating(review.getAttraction().getId(), review.getRating(), entity.getRating());
             review.setRating(entity.getRating());
         }
         return super.update(reviewId, review);
     }
 
+    /**
+     * Удаляет отзыв и вычитает его оценку из рейтинга аттракциона одним запросом.
+     *
+     * @param reviewId Идентификатор отзыва
+     * @throws EntityNotFoundException Если отзыв не найден
+     */
     @Override
     public void delete(final Long reviewId) {
-        super.delete(reviewId);
+        log.info("Deleting review: {}", reviewId);
+        AttractionPoint point = reviewRepository.deleteAndSubtractRatingById(reviewId)
+                .orElseThrow(() -> createEntityNotFoundException(reviewId));
+        log.info("Deleted review: {}", reviewId);
+        invalidateAfterCommit(reviewId);
+        attractionService.ratingChanged(point);
     }
 
     /**
-     * Получает все отзывы для указанной достопримечательности, отсортированные по направлению сортировки.
+     * Получает страницу отзывов для указанной достопримечательности, отсортированных по оценке
+     * в указанном направлении (отзывы без оценки считаются наименьшими), а при равной оценке - по идентификатору.
+     * Следующие страницы выбираются по ключу (оценка, идентификатор) из курсора, а не смещением, поэтому
+     * стоимость запроса не зависит от номера страницы. Общее количество отзывов берется из агрегата
+     * {@code attraction.review_count}, а не подсчитывается {@code COUNT(*)}. Авторы отзывов загружаются
+     * тем же запросом, только если входят в запрошенные поля.
      *
      * @param attId         Идентификатор достопримечательности
      * @param sortDirection Направление сортировки ("asc" или "desc")
-     * @return Список отзывов для указанной достопримечательности
+     * @param limit         Размер страницы (от 1 до {@value #MAX_PAGE_SIZE})
+     * @param cursor        Курсор следующей страницы из предыдущего ответа ({@code null} для первой страницы)
+     * @param fields        Запрошенные поля отзывов
+     * @return Страница отзывов для указанной достопримечательности с общим количеством ее отзывов
+     * @throws EntityNotFoundException Если достопримечательность не найдена
      */
     @Override
     @Transactional(readOnly = true)
-    public List<AttractionReview> getReviewForAttraction(long attId, String sortDirection) {
+    public CountedCursorPageDto<AttractionReview> getReviewForAttraction(long attId, String sortDirection, int limit,
+                                                                         String cursor, SparseFieldset fields) {
         if (!"asc".equalsIgnoreCase(sortDirection) && !"desc".equalsIgnoreCase(sortDirection)) {
             log.warn("Invalid sortDirection value: {}. Allowed values are 'asc' or 'desc'.",
                     sortDirection);
             throw new ValidationException("Invalid value for sortDirection. Allowed values: 'asc' or 'desc'.");
         }
-        return reviewRepository.findByAttractionId(attId, sortDirection.toLowerCase());
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            log.warn("Invalid value for limit: {}. Limit must be between 1 and {}.", limit, MAX_PAGE_SIZE);
+            throw new ValidationException("Invalid value for limitCount. Limit must be between 1 and "
+                    + MAX_PAGE_SIZE + ".");
+        }
+        boolean ascending = "asc".equalsIgnoreCase(sortDirection);
+        String sort = ascending ? "rating:asc" : "rating:desc";
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor, sort);
+        long totalCount = attractionService.getReviewCount(attId);
+        List<AttractionReview> rows = ascending
+                ? findPageAscending(attId, after == null ? NO_RATING : (int) after.value(),
+                after == null ? Long.MIN_VALUE : after.id(), Limit.of(limit + 1), fields.includes("author"))
+                : findPageDescending(attId, after == null ? Integer.MAX_VALUE : (int) after.value(),
+                after == null ? Long.MAX_VALUE : after.id(), Limit.of(limit + 1), fields.includes("author"));
+        if (rows.size() <= limit) {
+            return new CountedCursorPageDto<>(rows, null, totalCount);
+        }
+        AttractionReview last = rows.get(limit - 1);
+        KeysetCursor next = new KeysetCursor(sort, last.getRating() == null ? NO_RATING : last.getRating(),
+                last.getId());
+        return new CountedCursorPageDto<>(List.copyOf(rows.subList(0, limit)), next.encode(), totalCount);
+    }
+
+    private List<AttractionReview> findPageAscending(long attId, int rating, long id, Limit limit,
+                                                     boolean withAuthor) {
+        return withAuthor
+                ? reviewRepository.findPageByAttractionIdOrderByRatingAsc(attId, rating, id, limit)
+                : reviewRepository.findPageWithoutAuthorByAttractionIdOrderByRatingAsc(attId, rating, id, limit);
+    }
+
+    private List<AttractionReview> findPageDescending(long attId, int rating, long id, Limit limit,
+                                                      boolean withAuthor) {
+        return withAuthor
+                ? reviewRepository.findPageByAttractionIdOrderByRatingDesc(attId, rating, id, limit)
+                : reviewRepository.findPageWithoutAuthorByAttractionIdOrderByRatingDesc(attId, rating, id, limit);
+    }
+
+    /**
+     * Преобразует нарушение внешнего ключа при вставке отзыва в отсутствие автора или аттракциона.
+     * Другие нарушения целостности пробрасываются как есть.
+     */
+    private RuntimeException referenceNotFound(DataIntegrityViolationException e, long authorId, long attractionId) {
+        String constraint = e.getCause() instanceof ConstraintViolationException violation
+                ? violation.getConstraintName()
+                : null;
+        if (AUTHOR_FOREIGN_KEY.equals(constraint)) {
+            log.warn("User not found with ID {}", authorId);
+            return new EntityNotFoundException("User with ID=" + authorId + " not found");
+        }
+        if (ATTRACTION_FOREIGN_KEY.equals(constraint)) {
+            log.warn("Attraction not found with ID {}", attractionId);
+            return new EntityNotFoundException("Attraction with ID=" + attractionId + " not found");
+        }
+        return e;
     }
 }
\ No newline at end of file
@@ -1,8 +1,13 @@
 package com.example.service;
 
+import com.example.cache.CacheInvalidation;
+import com.example.cache.CacheInvalidationBus;
+import com.example.cache.NearbyResultCache;
 import com.example.model.EntityName;
 import com.example.model.User;
+import com.example.repository.AttractionRepository;
 import com.example.repository.UserRepository;
+import com.example.util.TransactionUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -18,10 +23,17 @@ import java.util.Optional;
 @Service
 @Transactional
 public class UserServiceImpl extends AbstractCrudService<User, Long> {
+    private final AttractionRepository attractionRepository;
+    private final NearbyResultCache nearbyCache;
+    private final CacheInvalidationBus invalidationBus;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, AttractionRepository attractionRepository,
+                           NearbyResultCache nearbyCache, CacheInvalidationBus invalidationBus) {
         super(userRepository, EntityName.USER);
+        this.attractionRepository = attractionRepository;
+        this.nearbyCache = nearbyCache;
+        this.invalidationBus = invalidationBus;
     }
 
     @Override
@@ -42,8 +54,19 @@ public class UserServiceImpl extends AbstractCrudService<User, Long> {
         return super.update(userId, user);
     }
 
+    /**
+     * Удаляет пользователя. Отзывы пользователя удаляются каскадно в базе данных,
+     * поэтому их оценки предварительно вычитаются из рейтингов достопримечательностей.
+     * Так как рейтинги могут измениться у достопримечательностей в любом месте, кэш результатов поиска
+     * ближайших достопримечательностей после фиксации транзакции очищается полностью на всех узлах.
+     *
+     * @param userId Идентификатор пользователя
+     */
     @Override
     public void delete(final Long userId) {
+        attractionRepository.subtractRatingsOfAuthor(userId);
         super.delete(userId);
+        TransactionUtils.afterCommit(nearbyCache::invalidateAll);
+        invalidationBus.publish(CacheInvalidation.nearbyAll());
     }
 }
\ No newline at end of file
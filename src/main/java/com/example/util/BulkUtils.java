@@ -0,0 +1,114 @@
+package com.example.util;
+
+import com.example.dto.bulk.BulkItemResultDto;
+import com.example.dto.bulk.BulkResultDto;
+import com.example.error.exception.ValidationException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Утилитный класс для обработки массовых запросов на создание объектов.
+ * <p>
+ * Этот класс является утилитным, и его экземпляры не могут быть созданы.
+ */
+public class BulkUtils {
+    /**
+     * Максимальное количество элементов в одном массовом запросе.
+     */
+    public static final int MAX_ITEMS = 50_000;
+
+    /**
+     * Максимальное количество идентификаторов в одном запросе {@code IN}. Драйвер PostgreSQL ограничивает
+     * количество параметров запроса, поэтому идентификаторы запрашиваются частями.
+     */
+    public static final int IN_CLAUSE_CHUNK_SIZE = 1_000;
+
+    private BulkUtils() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Обрабатывает массовый запрос на создание объектов.
+     * Каждый элемент проверяется отдельно: элементы с ошибками валидации получают результат
+     * со статусом {@code BAD_REQUEST}, остальные преобразуются в сущности и передаются на создание одним вызовом.
+     *
+     * @param dtos      Элементы запроса
+     * @param validator Валидатор элементов запроса
+     * @param toEntity  Преобразование элемента запроса в сущность
+     * @param create    Создание сущностей; возвращает результаты в порядке переданных сущностей
+     * @param toDto     Преобразование созданной сущности в элемент ответа
+     * @return Результат массового создания с результатом для каждого элемента запроса
+     * @throws ValidationException Если запрос пуст или содержит больше {@link #MAX_ITEMS} элементов
+     */
+    public static <D, E, R> BulkResultDto<R> createAll(List<D> dtos, Validator validator, Function<D, E> toEntity,
+                                                      Function<List<E>, List<BulkItemResultDto<E>>> create,
+                                                      Function<E, R> toDto) {
+        if (dtos.isEmpty() || dtos.size() > MAX_ITEMS) {
+            throw new ValidationException("The request must contain from 1 to " + MAX_ITEMS + " items.");
+        }
+        List<BulkItemResultDto<R>> results = new ArrayList<>(dtos.size());
+        List<E> entities = new ArrayList<>(dtos.size());
+        List<Integer> positions = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            D dto = dtos.get(i);
+            List<String> errors = dto == null ? List.of("Item must not be null") : validationErrors(validator, dto);
+            if (!errors.isEmpty()) {
+                results.add(BulkItemResultDto.failed(i, HttpStatus.BAD_REQUEST, errors));
+                continue;
+            }
+            results.add(null);
+            entities.add(toEntity.apply(dto));
+            positions.add(i);
+        }
+
+        List<BulkItemResultDto<E>> created = entities.isEmpty() ? List.of() : create.apply(entities);
+        int createdCount = 0;
+        for (int i = 0; i < created.size(); i++) {
+            BulkItemResultDto<E> result = created.get(i);
+            int position = positions.get(i);
+            results.set(position, result.map(position, toDto));
+            if (result.isSuccessful()) {
+                createdCount++;
+            }
+        }
+        return new BulkResultDto<>(createdCount, dtos.size() - createdCount, results);
+    }
+
+    /**
+     * Проверяет объект правилами валидации его класса.
+     *
+     * @param validator Валидатор
+     * @param dto       Проверяемый объект
+     * @return Ошибки валидации в формате {@code Field '<поле>': <сообщение>} (пустой список, если ошибок нет)
+     */
+    public static <D> List<String> validationErrors(Validator validator, D dto) {
+        Set<ConstraintViolation<D>> violations = validator.validate(dto);
+        return violations.stream()
+                .map(violation -> String.format("Field '%s': %s", violation.getPropertyPath(),
+                        violation.getMessage()))
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Разбивает идентификаторы на части не больше {@link #IN_CLAUSE_CHUNK_SIZE} для запросов {@code IN}.
+     *
+     * @param ids Идентификаторы
+     * @return Список частей
+     */
+    public static <T> List<List<T>> partition(Collection<T> ids) {
+        List<T> list = List.copyOf(ids);
+        List<List<T>> chunks = new ArrayList<>((list.size() + IN_CLAUSE_CHUNK_SIZE - 1) / IN_CLAUSE_CHUNK_SIZE);
+        for (int from = 0; from < list.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            chunks.add(list.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, list.size())));
+        }
+        return chunks;
+    }
+}
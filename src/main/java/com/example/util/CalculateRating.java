@@ -1,16 +1,10 @@
 package com.example.util;
 
-import com.example.model.AttractionReview;
-
-import java.util.List;
-
 /**
  * Утилитный класс для вычисления среднего рейтинга аттракциона на основе отзывов.
- * Содержит метод для вычисления средней оценки из списка отзывов.
+ * Содержит метод для вычисления средней оценки по сумме и количеству оценок.
  * <p>
  * Этот класс является утилитным, и его экземпляры не могут быть созданы.
- *
- * @see AttractionReview
  */
 public class CalculateRating {
 
@@ -19,23 +13,19 @@ public class CalculateRating {
     }
 
     /**
-     * Вычисляет средний рейтинг на основе списка отзывов.
+     * Вычисляет средний рейтинг по сумме и количеству оценок.
      * <p>
-     * Если список пуст или равен null, возвращает 0.0. Оценки, равные null, игнорируются.
-     * Средний рейтинг округляется до одного знака после запятой.
+     * Если оценок нет, возвращает 0.0. Средний рейтинг округляется до одного знака после запятой.
      *
-     * @param reviews Список отзывов для вычисления рейтинга
-     * @return Средний рейтинг, округленный до одного знака после запятой. Если нет отзывов, возвращает 0.0.
+     * @param ratingSum   Сумма оценок
+     * @param ratingCount Количество оценок
+     * @return Средний рейтинг, округленный до одного знака после запятой. Если нет оценок, возвращает 0.0.
      */
-    public static Double calculateRating(List<AttractionReview> reviews) {
-        if (reviews == null || reviews.isEmpty()) {
+    public static Double calculateRating(long ratingSum, int ratingCount) {
+        if (ratingCount == 0) {
             return 0.0;
         }
-        double rating = reviews.stream()
-                .filter(review -> review.getRating() != null)
-                .mapToInt(AttractionReview::getRating)
-                .average()
-                .orElse(0);
+        double rating = (double) ratingSum / ratingCount;
 
         return Math.round(rating * 10) / 10.0;
     }
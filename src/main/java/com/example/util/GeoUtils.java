@@ -0,0 +1,75 @@
+package com.example.util;
+
+/**
+ * Утилитный класс для геометрических вычислений на сфере.
+ * Формула расстояния совпадает с SQL-функцией {@code calculate_distance} (миграция V6),
+ * поэтому результаты поиска в памяти и в базе данных согласованы.
+ * <p>
+ * Этот класс является утилитным, и его экземпляры не могут быть созданы.
+ */
+public class GeoUtils {
+    public static final double EARTH_RADIUS_KM = 6371;
+
+    private GeoUtils() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Вычисляет расстояние по дуге большого круга между двумя точками.
+     *
+     * @param lat1 Широта первой точки
+     * @param lon1 Долгота первой точки
+     * @param lat2 Широта второй точки
+     * @param lon2 Долгота второй точки
+     * @return Расстояние в километрах
+     */
+    public static double distance(double lat1, double lon1, double lat2, double lon2) {
+        double lat1Rad = Math.toRadians(lat1);
+        double lat2Rad = Math.toRadians(lat2);
+        double cos = Math.cos(lat1Rad) * Math.cos(lat2Rad) * Math.cos(Math.toRadians(lon2) - Math.toRadians(lon1))
+                + Math.sin(lat1Rad) * Math.sin(lat2Rad);
+        return EARTH_RADIUS_KM * Math.acos(Math.max(-1.0, Math.min(1.0, cos)));
+    }
+
+    /**
+     * Вычисляет ограничивающий прямоугольник (в градусах), содержащий круг заданного радиуса.
+     * <p>
+     * Если круг касается полюса или пересекает линию перемены дат, прямоугольник расширяется
+     * до полного диапазона долгот.
+     *
+     * @param lat    Широта центра
+     * @param lon    Долгота центра
+     * @param radius Радиус (в километрах)
+     * @return Ограничивающий прямоугольник
+     */
+    public static BoundingBox boundingBox(double lat, double lon, double radius) {
+        double angular = radius / EARTH_RADIUS_KM;
+        if (angular >= Math.PI) {
+            return BoundingBox.WORLD;
+        }
+        double latDelta = Math.toDegrees(angular);
+        double minLat = lat - latDelta;
+        double maxLat = lat + latDelta;
+        if (minLat <= -90 || maxLat >= 90) {
+            return new BoundingBox(Math.max(minLat, -90), Math.min(maxLat, 90), -180, 180);
+        }
+        double sinRatio = Math.sin(angular) / Math.cos(Math.toRadians(lat));
+        if (sinRatio >= 1) {
+            return new BoundingBox(minLat, maxLat, -180, 180);
+        }
+        double lonDelta = Math.toDegrees(Math.asin(sinRatio));
+        double minLon = lon - lonDelta;
+        double maxLon = lon + lonDelta;
+        if (minLon < -180 || maxLon > 180) {
+            return new BoundingBox(minLat, maxLat, -180, 180);
+        }
+        return new BoundingBox(minLat, maxLat, minLon, maxLon);
+    }
+
+    /**
+     * Ограничивающий прямоугольник в градусах широты и долготы.
+     */
+    public record BoundingBox(double minLat, double maxLat, double minLon, double maxLon) {
+        public static final BoundingBox WORLD = new BoundingBox(-90, 90, -180, 180);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.util;
+
+import com.example.error.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Курсор для постраничной выборки по ключу (keyset pagination).
+ * Хранит режим сортировки, значение сортируемого поля и идентификатор последней записи страницы.
+ * Для клиента курсор является непрозрачной строкой.
+ *
+ * @param sort  Режим сортировки, для которого был выдан курсор (например, "distance:asc")
+ * @param value Значение сортируемого поля последней записи
+ * @param id    Идентификатор последней записи
+ */
+public record KeysetCursor(String sort, double value, long id) {
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Кодирует курсор в непрозрачную строку.
+     *
+     * @return Закодированный курсор
+     */
+    public String encode() {
+        String raw = sort + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Декодирует курсор и проверяет, что он выдан для того же режима сортировки.
+     *
+     * @param cursor Закодированный курсор
+     * @param sort   Текущий режим сортировки
+     * @return Декодированный курсор
+     * @throws ValidationException Если курсор поврежден или выдан для другого режима сортировки
+     */
+    public static KeysetCursor decode(String cursor, String sort) {
+        KeysetCursor decoded;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Unexpected number of cursor parts: " + parts.length);
+            }
+            decoded = new KeysetCursor(parts[0], Double.parseDouble(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor.");
+        }
+        if (!decoded.sort().equals(sort)) {
+            throw new ValidationException("Cursor does not match the requested sort parameters.");
+        }
+        return decoded;
+    }
+}
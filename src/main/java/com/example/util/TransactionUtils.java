@@ -0,0 +1,35 @@
+package com.example.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Утилитный класс для работы с транзакциями.
+ * <p>
+ * Этот класс является утилитным, и его экземпляры не могут быть созданы.
+ */
+public class TransactionUtils {
+
+    private TransactionUtils() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Выполняет действие после успешной фиксации текущей транзакции.
+     * Если активной транзакции нет, действие выполняется сразу.
+     *
+     * @param action Действие, которое необходимо выполнить
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
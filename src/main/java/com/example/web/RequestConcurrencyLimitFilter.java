@@ -0,0 +1,166 @@
+package com.example.web;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограничивает количество одновременно обрабатываемых запросов в зависимости от размера пула соединений Hikari.
+ * <p>
+ * На потоках платформы параллелизм ограничивает пул потоков Tomcat. На виртуальных потоках
+ * ({@code spring.threads.virtual.enabled}) такого ограничения нет: при тысячах клиентов запросы
+ * и их {@code @Transactional}-вызовы одновременно ждут соединения в очереди Hikari, каждый до
+ * {@code connection-timeout}, и задержка растет для всех запросов сразу. Фильтр пропускает не больше
+ * {@code maximum-pool-size * requests-per-connection} запросов одновременно. Остальные ждут в справедливой
+ * очереди не дольше {@code queue-timeout} и получают {@code 503} с заголовком {@code Retry-After},
+ * не занимая пул соединений.
+ * <p>
+ * Включается свойством {@code city-guide.request-concurrency.enabled} (профиль {@code virtual-threads}).
+ * Запросы к actuator не ограничиваются.
+ * <p>
+ * Асинхронный запрос (например, выгрузка {@code StreamingResponseBody}) держит разрешение, пока не завершится
+ * его {@link jakarta.servlet.AsyncContext}, а не только до возврата из контроллера: ответ пишется уже после
+ * выхода из цепочки фильтров, и все это время запрос может занимать соединение. Повторные асинхронные
+ * диспетчеризации фильтр пропускает, разрешение за них не берется.
+ */
+@Slf4j
+@Component
+public class RequestConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final boolean enabled;
+    private final int maxConcurrentRequests;
+    private final long queueTimeoutNanos;
+    private final Semaphore permits;
+    private final Counter rejected;
+
+    public RequestConcurrencyLimitFilter(@Value("${city-guide.request-concurrency.enabled:false}") boolean enabled,
+                                         @Value("${city-guide.request-concurrency.requests-per-connection:4}")
+                                         int requestsPerConnection,
+                                         @Value("${city-guide.request-concurrency.queue-timeout:2s}")
+                                         Duration queueTimeout,
+                                         DataSource dataSource,
+                                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxConcurrentRequests = maximumPoolSize(dataSource) * requestsPerConnection;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.rejected = Counter.builder("http.server.requests.rejected")
+                .description("Requests rejected because the concurrency limit was reached")
+                .register(meterRegistry);
+        Gauge.builder("http.server.requests.concurrency.available", permits, Semaphore::availablePermits)
+                .description("Free request slots")
+                .register(meterRegistry);
+        Gauge.builder("http.server.requests.concurrency.queued", permits, Semaphore::getQueueLength)
+                .description("Requests waiting for a free slot")
+                .register(meterRegistry);
+        if (enabled) {
+            log.info("Limiting concurrent requests to {} (queue timeout {})", maxConcurrentRequests, queueTimeout);
+        }
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests");
+            return;
+        }
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener());
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Возвращает разрешение один раз, когда асинхронный запрос завершается: успешно, с ошибкой или по таймауту.
+     */
+    private class ReleasingAsyncListener implements AsyncListener {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
+    private static int maximumPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                int size = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                return size > 0 ? size : DEFAULT_POOL_SIZE;
+            }
+        } catch (SQLException e) {
+            log.warn("Could not determine connection pool size: {}", e.toString());
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+}
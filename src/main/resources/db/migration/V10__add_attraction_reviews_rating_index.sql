@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS attraction_reviews_attraction_rating_id_idx
+    ON attraction_reviews (attraction_id, rating NULLS FIRST, id);
@@ -0,0 +1,29 @@
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50 OWNED BY users.id;
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM users), false);
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+
+ALTER TABLE cities ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS cities_seq INCREMENT BY 50 OWNED BY cities.id;
+SELECT setval('cities_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM cities), false);
+ALTER TABLE cities ALTER COLUMN id SET DEFAULT nextval('cities_seq');
+
+ALTER TABLE locations ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS locations_seq INCREMENT BY 50 OWNED BY locations.id;
+SELECT setval('locations_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM locations), false);
+ALTER TABLE locations ALTER COLUMN id SET DEFAULT nextval('locations_seq');
+
+ALTER TABLE categories ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS categories_seq INCREMENT BY 50 OWNED BY categories.id;
+SELECT setval('categories_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM categories), false);
+ALTER TABLE categories ALTER COLUMN id SET DEFAULT nextval('categories_seq');
+
+ALTER TABLE attraction ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS attraction_seq INCREMENT BY 50 OWNED BY attraction.id;
+SELECT setval('attraction_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM attraction), false);
+ALTER TABLE attraction ALTER COLUMN id SET DEFAULT nextval('attraction_seq');
+
+ALTER TABLE attraction_reviews ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS attraction_reviews_seq INCREMENT BY 50 OWNED BY attraction_reviews.id;
+SELECT setval('attraction_reviews_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM attraction_reviews), false);
+ALTER TABLE attraction_reviews ALTER COLUMN id SET DEFAULT nextval('attraction_reviews_seq');
@@ -0,0 +1,9 @@
+ALTER TABLE attraction
+    ADD COLUMN review_count integer not null default 0;
+
+UPDATE attraction a
+SET review_count = r.review_count
+FROM (SELECT attraction_id, COUNT(*) AS review_count
+      FROM attraction_reviews
+      GROUP BY attraction_id) r
+WHERE r.attraction_id = a.id;
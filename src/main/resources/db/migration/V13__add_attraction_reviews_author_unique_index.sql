@@ -0,0 +1,19 @@
+WITH duplicates AS (
+    DELETE FROM attraction_reviews r
+    USING attraction_reviews kept
+    WHERE kept.attraction_id = r.attraction_id
+      AND kept.author_id = r.author_id
+      AND kept.id < r.id
+    RETURNING r.id, r.attraction_id, r.rating)
+UPDATE attraction a
+SET rating_sum   = a.rating_sum - d.rating_sum,
+    rating_count = a.rating_count - d.rating_count,
+    review_count = a.review_count - d.review_count
+FROM (SELECT attraction_id, COALESCE(SUM(rating), 0) AS rating_sum, COUNT(rating) AS rating_count,
+             COUNT(*) AS review_count
+      FROM duplicates
+      GROUP BY attraction_id) d
+WHERE a.id = d.attraction_id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS attraction_reviews_attraction_author_uq
+    ON attraction_reviews (attraction_id, author_id);
@@ -0,0 +1,4 @@
+CREATE INDEX IF NOT EXISTS attraction_reviews_attraction_rating_key_id_idx
+    ON attraction_reviews (attraction_id, COALESCE(rating, 0), id);
+
+DROP INDEX IF EXISTS attraction_reviews_attraction_rating_id_idx;
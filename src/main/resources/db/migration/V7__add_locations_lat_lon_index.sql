@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS locations_lat_lon_idx ON locations (lat, lon);
+
+CREATE INDEX IF NOT EXISTS attraction_location_id_idx ON attraction (location_id);
@@ -0,0 +1,18 @@
+ALTER TABLE attraction
+    ADD COLUMN rating_sum   bigint  not null default 0,
+    ADD COLUMN rating_count integer not null default 0;
+
+UPDATE attraction a
+SET rating_sum   = r.rating_sum,
+    rating_count = r.rating_count
+FROM (SELECT attraction_id, COALESCE(SUM(rating), 0) AS rating_sum, COUNT(rating) AS rating_count
+      FROM attraction_reviews
+      GROUP BY attraction_id) r
+WHERE r.attraction_id = a.id;
+
+ALTER TABLE attraction
+    ADD COLUMN rating double precision GENERATED ALWAYS AS (
+        CASE WHEN rating_count = 0 THEN 0 ELSE rating_sum::double precision / rating_count END
+        ) STORED;
+
+CREATE INDEX IF NOT EXISTS attraction_rating_idx ON attraction (rating);
@@ -0,0 +1,5 @@
+DROP INDEX IF EXISTS attraction_rating_idx;
+
+CREATE INDEX IF NOT EXISTS attraction_rating_id_idx ON attraction (rating, id);
+
+CREATE INDEX IF NOT EXISTS attraction_city_rating_id_idx ON attraction (city_id, rating, id);
@@ -0,0 +1,200 @@
+package com.example.cache;
+
+import com.example.geo.AttractionSpatialIndex;
+import com.example.model.City;
+import com.example.model.User;
+import com.example.repository.CacheInvalidationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationBusTest {
+    private static final String CHANNEL = "city_guide_cache";
+
+    @Mock
+    private CacheInvalidationRepository repository;
+
+    @Mock
+    private NearbyResultCache nearbyCache;
+
+    @Mock
+    private AttractionSpatialIndex spatialIndex;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private jakarta.persistence.Cache jpaCache;
+
+    @Mock
+    private Cache secondLevelCache;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = new CacheInvalidationBus(true, CHANNEL, repository, nearbyCache, spatialIndex, entityManagerFactory,
+                objectMapper, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(bus);
+    }
+
+    @Test
+    void publish_WithoutTransaction_SendsNotificationImmediately() throws Exception {
+        bus.publish(CacheInvalidation.nearbyAll());
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(repository, times(1)).notify(eq(CHANNEL), payload.capture());
+        CacheInvalidationBus.Message message = objectMapper.readValue(payload.getValue(),
+                CacheInvalidationBus.Message.class);
+        assertEquals(bus.getNodeId(), message.node());
+        assertEquals(List.of(CacheInvalidation.nearbyAll()), message.events());
+    }
+
+    @Test
+    void publish_InTransaction_SendsDistinctEventsBeforeCommit() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+
+        bus.publish(CacheInvalidation.attractionMoved(1L, 48.85, 2.29));
+        bus.publish(CacheInvalidation.attractionMoved(1L, 48.85, 2.29));
+        bus.publish(CacheInvalidation.attractionRemoved(2L));
+        verify(repository, never()).notify(anyString(), anyString());
+        commit();
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(repository, times(1)).notify(eq(CHANNEL), payload.capture());
+        assertEquals(List.of(CacheInvalidation.attractionMoved(1L, 48.85, 2.29),
+                        CacheInvalidation.attractionRemoved(2L)),
+                objectMapper.readValue(payload.getValue(), CacheInvalidationBus.Message.class).events());
+    }
+
+    @Test
+    void publish_ManyEventsInTransaction_SplitsNotificationsByPayloadSize() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        for (long id = 0; id < 1000; id++) {
+            bus.publish(CacheInvalidation.attractionMoved(id, 48.85, 2.29));
+        }
+        commit();
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(repository, atLeast(2)).notify(eq(CHANNEL), payload.capture());
+        int events = 0;
+        for (String value : payload.getAllValues()) {
+            assertTrue(value.length() < 8000);
+            events += objectMapper.readValue(value, CacheInvalidationBus.Message.class).events().size();
+        }
+        assertEquals(1000, events);
+    }
+
+    @Test
+    void publish_Disabled_SendsNothing() {
+        bus = new CacheInvalidationBus(false, CHANNEL, repository, nearbyCache, spatialIndex, entityManagerFactory,
+                objectMapper, new SimpleMeterRegistry());
+
+        bus.publish(CacheInvalidation.nearbyAll());
+
+        verify(repository, never()).notify(anyString(), anyString());
+    }
+
+    @Test
+    void register_EntityWithoutCaches_DoesNotRequirePublishing() {
+        assertFalse(bus.register("user", User.class, null));
+        assertTrue(bus.register("city", City.class, null));
+    }
+
+    @Test
+    void receive_FromOtherNode_AppliesEvents() throws Exception {
+        EntityCache<Long, String> users = new EntityCache<>("user", 100, Duration.ofMinutes(1),
+                Duration.ofMinutes(1), new SimpleMeterRegistry());
+        users.get(1L, id -> Optional.of("stale"));
+        bus.register("user", User.class, users);
+        when(spatialIndex.isReady()).thenReturn(true);
+        when(nearbyCache.isEnabled()).thenReturn(true);
+
+        bus.receive(payload("other-node", CacheInvalidation.entity("user", 1L),
+                CacheInvalidation.attractionMoved(5L, 48.85, 2.29), CacheInvalidation.attractionRemoved(6L)));
+
+        assertEquals(Optional.of("fresh"), users.get(1L, id -> Optional.of("fresh")));
+        verify(spatialIndex, times(1)).put(5L, 48.85, 2.29);
+        verify(nearbyCache, times(1)).invalidate(48.85, 2.29);
+        verify(spatialIndex, times(1)).remove(6L);
+    }
+
+    @Test
+    void receive_SecondLevelCachedEntity_EvictsEntityAndQueryRegions() throws Exception {
+        when(entityManagerFactory.getCache()).thenReturn(jpaCache);
+        when(jpaCache.unwrap(Cache.class)).thenReturn(secondLevelCache);
+        bus.register("city", City.class, null);
+
+        bus.receive(payload("other-node", CacheInvalidation.entity("city", 3L)));
+
+        verify(secondLevelCache, times(1)).evictEntityData(City.class, 3L);
+        verify(secondLevelCache, times(1)).evictQueryRegions();
+    }
+
+    @Test
+    void receive_OwnNotification_IsIgnored() throws Exception {
+        bus.receive(payload(bus.getNodeId(), CacheInvalidation.attractionRemoved(6L)));
+
+        verify(spatialIndex, never()).remove(6L);
+    }
+
+    @Test
+    void recover_BumpsEpochAndFlushesLocalCaches() {
+        when(entityManagerFactory.getCache()).thenReturn(jpaCache);
+        when(jpaCache.unwrap(Cache.class)).thenReturn(secondLevelCache);
+        when(spatialIndex.isReady()).thenReturn(true);
+        when(nearbyCache.isEnabled()).thenReturn(true);
+
+        bus.recover();
+
+        assertEquals(1, bus.getEpoch());
+        verify(secondLevelCache, times(1)).evictAllRegions();
+        verify(spatialIndex, times(1)).rebuild();
+        verify(nearbyCache, times(1)).invalidateAll();
+    }
+
+    private String payload(String node, CacheInvalidation... events) throws Exception {
+        return objectMapper.writeValueAsString(new CacheInvalidationBus.Message(node, List.of(events)));
+    }
+
+    private void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+}
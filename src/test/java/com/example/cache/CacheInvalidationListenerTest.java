@@ -0,0 +1,86 @@
+package com.example.cache;
+
+import com.example.model.City;
+import com.example.service.CityServiceImpl;
+import com.example.support.EmbeddedPostgresTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет на встроенном PostgreSQL, что уведомления других узлов сбрасывают локальные кэши,
+ * а после разрыва соединения слушателя увеличивается эпоха.
+ */
+@SpringBootTest(properties = {
+        "city-guide.spatial-index.enabled=false",
+        "city-guide.cache-invalidation.poll-interval=1s",
+        "city-guide.cache-invalidation.reconnect-delay=100ms"
+})
+class CacheInvalidationListenerTest extends EmbeddedPostgresTest {
+    @Autowired
+    private CityServiceImpl cityService;
+
+    @Autowired
+    private CacheInvalidationBus bus;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void notificationFromOtherNode_EvictsCachedCity() throws Exception {
+        City city = new City();
+        city.setName("Paris");
+        city.setCountry("France");
+        Long id = cityService.create(city).getId();
+        assertEquals("Paris", cityService.getById(id).getName());
+
+        // Другой узел изменил город и отправил уведомление
+        jdbcTemplate.update("UPDATE cities SET name = 'Lyon' WHERE id = ?", id);
+        String payload = objectMapper.writeValueAsString(new CacheInvalidationBus.Message("other-node",
+                List.of(CacheInvalidation.entity("city", id))));
+
+        // Слушатель может еще не выполнить LISTEN, поэтому уведомление повторяется до применения
+        assertTrue(await(() -> {
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", bus.getChannel(), payload);
+            return "Lyon".equals(cityService.getById(id).getName());
+        }));
+    }
+
+    @Test
+    void listenerConnectionLost_BumpsEpoch() {
+        long epoch = bus.getEpoch();
+
+        assertTrue(await(() -> {
+            jdbcTemplate.queryForList("SELECT pg_terminate_backend(pid) FROM pg_stat_activity "
+                    + "WHERE application_name = ?", CacheInvalidationListener.APPLICATION_NAME);
+            return bus.getEpoch() > epoch;
+        }));
+    }
+
+    private static boolean await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+}
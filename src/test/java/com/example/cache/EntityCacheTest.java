@@ -0,0 +1,80 @@
+package com.example.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private EntityCache<Long, String> cache;
+    private AtomicInteger loads;
+    private Function<Long, Optional<String>> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new EntityCache<>("city", 100, Duration.ofMinutes(1), Duration.ofMinutes(1), meterRegistry);
+        loads = new AtomicInteger();
+        loader = id -> {
+            loads.incrementAndGet();
+            return id > 0 ? Optional.of("city-" + id) : Optional.empty();
+        };
+    }
+
+    @Test
+    void get_LoadsEntityOnce() {
+        assertEquals(Optional.of("city-1"), cache.get(1L, loader));
+        assertEquals(Optional.of("city-1"), cache.get(1L, loader));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, requests("hit"));
+        assertEquals(1, requests("miss"));
+    }
+
+    @Test
+    void get_CachesMissingEntity() {
+        assertTrue(cache.get(-1L, loader).isEmpty());
+        assertTrue(cache.get(-1L, loader).isEmpty());
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_ExpiresMissingEntityByNegativeTtl() {
+        cache = new EntityCache<>("city", 100, Duration.ofMinutes(1), Duration.ZERO, meterRegistry);
+
+        cache.get(-1L, loader);
+        cache.get(-1L, loader);
+        cache.get(1L, loader);
+        cache.get(1L, loader);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void invalidate_ReloadsEntity() {
+        cache.get(1L, loader);
+
+        cache.invalidate(1L);
+        cache.get(1L, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "entity.city")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.cache;
+
+import com.example.dto.attraction.AttractionProjection;
+import com.example.dto.page.CursorPageDto;
+import com.example.util.GeoUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NearbyResultCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private NearbyResultCache cache;
+    private AtomicInteger loads;
+    private Supplier<CursorPageDto<AttractionProjection>> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new NearbyResultCache(true, 0.001, 0.1, 64, Duration.ofMinutes(1), 100, meterRegistry);
+        loads = new AtomicInteger();
+        loader = () -> {
+            loads.incrementAndGet();
+            return new CursorPageDto<>(List.of(), null);
+        };
+    }
+
+    @Test
+    void get_ReturnsCachedResultForSnappedCoordinates() {
+        NearbyQueryKey first = key(cache.snap(48.85841), cache.snap(2.29449), 1);
+        NearbyQueryKey second = key(cache.snap(48.85839), cache.snap(2.29448), 1);
+
+        CursorPageDto<AttractionProjection> page = cache.get(first, loader);
+
+        assertEquals(first, second);
+        assertSame(page, cache.get(second, loader));
+        assertEquals(1, loads.get());
+        assertEquals(1, requests("hit"));
+        assertEquals(1, requests("miss"));
+    }
+
+    @Test
+    void invalidate_MakesEntriesCoveringCellStale() {
+        NearbyQueryKey paris = key(48.858, 2.294, 1);
+        NearbyQueryKey rome = key(41.890, 12.492, 1);
+        cache.get(paris, loader);
+        cache.get(rome, loader);
+
+        cache.invalidate(48.8606, 2.2976);
+        cache.get(paris, loader);
+        cache.get(rome, loader);
+
+        assertEquals(3, loads.get());
+        assertEquals(1, requests("stale"));
+        assertEquals(1, requests("hit"));
+    }
+
+    @Test
+    void maxSnapDistance_BoundsDistanceToSnappedCoordinates() {
+        for (double lat = -89.9996; lat < 90; lat += 7.3211) {
+            for (double lon = -179.9996; lon < 180; lon += 11.4537) {
+                double distance = GeoUtils.distance(lat, lon, cache.snap(lat), cache.snap(lon));
+                assertTrue(distance <= cache.maxSnapDistance(), lat + ", " + lon + ": " + distance);
+            }
+        }
+    }
+
+    @Test
+    void invalidate_KeepsVersionsForAnyNumberOfCellsWithoutMissingChanges() {
+        NearbyQueryKey paris = key(48.858, 2.294, 1);
+        cache.get(paris, loader);
+        for (double lat = -89.95; lat < 90; lat += 0.1) {
+            cache.invalidate(lat, -179.95);
+        }
+
+        cache.invalidate(48.8606, 2.2976);
+        cache.get(paris, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidateAll_MakesAllEntriesStale() {
+        NearbyQueryKey paris = key(48.858, 2.294, 1);
+        cache.get(paris, loader);
+
+        cache.invalidateAll();
+        cache.get(paris, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_DoesNotCacheQueriesCoveringTooManyCells() {
+        NearbyQueryKey wide = key(48.858, 2.294, 500);
+        cache.get(wide, loader);
+        cache.get(wide, loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(2, requests("bypass"));
+    }
+
+    @Test
+    void constructor_RegistersSizeAndEvictionMetrics() {
+        cache.get(key(48.858, 2.294, 1), loader);
+
+        assertEquals(0, meterRegistry.get("nearby.cache.evictions").functionCounter().count());
+        assertEquals(1, meterRegistry.get("nearby.cache.size").gauge().value());
+    }
+
+    private NearbyQueryKey key(double lat, double lon, double radius) {
+        return new NearbyQueryKey(lat, lon, radius, null, null, "distance", "asc", 10, null, true, true);
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("nearby.cache.requests").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.cache;
+
+import com.example.error.exception.ValidationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchRequestCoalescerTest {
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private final AtomicInteger executions = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_ConcurrentIdenticalSearches_ExecuteOnceAndShareResult() throws Exception {
+        SearchRequestCoalescer coalescer = coalescer(Duration.ofSeconds(5));
+        Object page = new Object();
+
+        List<CompletableFuture<Object>> calls = startCalls(coalescer, "key", blockingSearch(() -> page));
+        release.countDown();
+
+        for (CompletableFuture<Object> call : calls) {
+            assertSame(page, call.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(1, requests("executed"));
+        assertEquals(CALLERS - 1, requests("coalesced"));
+    }
+
+    @Test
+    void execute_FailedSearch_PropagatesSameExceptionToWaiters() throws Exception {
+        SearchRequestCoalescer coalescer = coalescer(Duration.ofSeconds(5));
+        ValidationException failure = new ValidationException("Invalid value for limitCount.");
+
+        List<CompletableFuture<Object>> calls = startCalls(coalescer, "key", blockingSearch(() -> {
+            throw failure;
+        }));
+        release.countDown();
+
+        for (CompletableFuture<Object> call : calls) {
+            ExecutionException thrown = assertThrows(ExecutionException.class, () -> call.get(5, TimeUnit.SECONDS));
+            assertSame(failure, thrown.getCause());
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_SearchRunningLongerThanMaxWait_ExecutesSeparately() throws Exception {
+        SearchRequestCoalescer coalescer = coalescer(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Object> slow = CompletableFuture.supplyAsync(() -> coalescer.execute("key", () -> {
+            started.countDown();
+            await(release);
+            return "slow";
+        }), executor);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Object result = coalescer.execute("key", () -> "own");
+        release.countDown();
+
+        assertEquals("own", result);
+        assertEquals("slow", slow.get(5, TimeUnit.SECONDS));
+        assertEquals(1, requests("timeout"));
+        assertEquals(0, requests("coalesced"));
+    }
+
+    @Test
+    void execute_AfterSearchCompleted_ExecutesAgain() {
+        SearchRequestCoalescer coalescer = coalescer(Duration.ofSeconds(5));
+
+        coalescer.execute("key", executions::incrementAndGet);
+        coalescer.execute("key", executions::incrementAndGet);
+        coalescer.execute("other", executions::incrementAndGet);
+
+        assertEquals(3, executions.get());
+        assertEquals(0, meterRegistry.get("search.coalescing.in-flight").gauge().value());
+    }
+
+    @Test
+    void execute_Disabled_ExecutesEverySearch() throws Exception {
+        SearchRequestCoalescer coalescer = new SearchRequestCoalescer(false, Duration.ofSeconds(5), meterRegistry);
+
+        List<CompletableFuture<Object>> calls = startCalls(coalescer, "key", () -> executions.incrementAndGet());
+
+        for (CompletableFuture<Object> call : calls) {
+            assertInstanceOf(Integer.class, call.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(CALLERS, executions.get());
+        assertEquals(0, requests("executed"));
+    }
+
+    private SearchRequestCoalescer coalescer(Duration maxWait) {
+        return new SearchRequestCoalescer(true, maxWait, meterRegistry);
+    }
+
+    /**
+     * Запускает одинаковые вызовы и дожидается, пока все они начнут выполнение или ожидание.
+     */
+    private List<CompletableFuture<Object>> startCalls(SearchRequestCoalescer coalescer, Object key,
+                                                       Supplier<Object> search) throws InterruptedException {
+        List<CompletableFuture<Object>> calls = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            calls.add(CompletableFuture.supplyAsync(() -> coalescer.execute(key, search), executor));
+        }
+        // Ожидающие вызовы не видны снаружи, поэтому дается время на их регистрацию
+        // до завершения первого вызова
+        TimeUnit.MILLISECONDS.sleep(200);
+        return calls;
+    }
+
+    private Supplier<Object> blockingSearch(Supplier<Object> result) {
+        return () -> {
+            executions.incrementAndGet();
+            await(release);
+            return result.get();
+        };
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("search.coalescing.requests").tag("result", result).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
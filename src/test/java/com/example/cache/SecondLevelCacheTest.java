@@ -0,0 +1,102 @@
+package com.example.cache;
+
+import com.example.error.exception.EntityNotFoundException;
+import com.example.model.Category;
+import com.example.model.City;
+import com.example.service.CategoryServiceImpl;
+import com.example.service.CityServiceImpl;
+import com.example.support.EmbeddedPostgresTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Проверяет на встроенном PostgreSQL, что города и категории читаются из кэша второго уровня,
+ * а изменения через сервисы сразу видны при следующем чтении.
+ */
+@SpringBootTest(properties = "city-guide.spatial-index.enabled=false")
+class SecondLevelCacheTest extends EmbeddedPostgresTest {
+    @Autowired
+    private CityServiceImpl cityService;
+
+    @Autowired
+    private CategoryServiceImpl categoryService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getById_RepeatedLookup_ServedFromCache() {
+        City city = cityService.create(city("Paris"));
+        statistics.clear();
+
+        cityService.getById(city.getId());
+        cityService.getById(city.getId());
+        categoryService.getById(1L);
+        categoryService.getById(1L);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(3, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void getAllById_RepeatedLookup_ServedFromQueryCache() {
+        List<Long> ids = List.of(1L, 2L, 3L);
+
+        categoryService.getAllById(ids);
+        long statements = statistics.getPrepareStatementCount();
+        List<Category> categories = categoryService.getAllById(ids);
+
+        assertEquals(3, categories.size());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void update_CachedCity_NextLookupReturnsUpdatedCity() {
+        City city = cityService.create(city("Lyon"));
+        cityService.getById(city.getId());
+
+        cityService.update(city.getId(), city("Marseille"));
+
+        assertEquals("Marseille", cityService.getById(city.getId()).getName());
+        assertEquals("Marseille", cityService.getAllById(List.of(city.getId())).get(0).getName());
+    }
+
+    @Test
+    void delete_CachedCity_NextLookupThrowsEntityNotFoundException() {
+        City city = cityService.create(city("Nice"));
+        cityService.getById(city.getId());
+        cityService.getAllById(List.of(city.getId()));
+
+        cityService.delete(city.getId());
+
+        assertThrows(EntityNotFoundException.class, () -> cityService.getById(city.getId()));
+        assertEquals(List.of(), cityService.getAllById(List.of(city.getId())));
+    }
+
+    private static City city(String name) {
+        City city = new City();
+        city.setName(name);
+        city.setCountry("France");
+        return city;
+    }
+}
@@ -1,32 +1,53 @@
 package com.example.controller;
 
 import com.example.dto.attraction.AttractionDto;
+import com.example.dto.attraction.AttractionProjection;
 import com.example.dto.attraction.AttractionShortDto;
 import com.example.dto.attraction.NewAttractionDto;
 import com.example.dto.attraction.UpdateAttractionDto;
+import com.example.dto.bulk.BulkItemResultDto;
+import com.example.dto.fields.SparseFieldset;
+import com.example.dto.fields.SparseFieldsetConfig;
 import com.example.dto.location.LocationDto;
 import com.example.dto.mappers.AttractionMapper;
+import com.example.dto.page.CursorPageDto;
+import com.example.error.controller.ErrorHandler;
+import com.example.error.exception.EntityNotFoundException;
 import com.example.model.Attraction;
+import com.example.model.City;
 import com.example.service.AttractionService;
+import com.example.service.CrudService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,10 +61,17 @@ class AttractionControllerTest {
     @Mock
     private AttractionService attractionService;
 
-    @InjectMocks
+    @Mock
+    private CrudService<City, Long> cityService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     private AttractionController attractionController;
 
     private Attraction attraction;
+    private AttractionProjection projection;
     private AttractionDto attractionDto;
     private AttractionShortDto attractionShortDto;
     private NewAttractionDto newAttractionDto;
@@ -54,6 +82,9 @@ class AttractionControllerTest {
         attraction = new Attraction();
         attraction.setId(1L);
 
+        projection = new AttractionProjection(1L, "Лувр", 3L, "Культурное наследие",
+                1L, "Париж", "Франция", 48.8606, 2.3376, 15L, 4, 1.2);
+
         attractionDto = new AttractionDto();
         attractionDto.setId(1L);
 
@@ -64,6 +95,9 @@ class AttractionControllerTest {
         newAttractionDto = new NewAttractionDto("Лувр", 3L, location, 1L);
         updateAttractionDto = new UpdateAttractionDto("Не Лувр", 3L, location, 1L);
 
+        // AttractionService также является CrudService, поэтому зависимости передаются явно, а не через @InjectMocks.
+        attractionController = new AttractionController(attractionService, attractionMapper, cityService, objectMapper,
+                validator);
         mockMvc = MockMvcBuilders.standaloneSetup(attractionController).build();
     }
 
@@ -83,6 +117,45 @@ class AttractionControllerTest {
         verify(attractionService, times(1)).create(Mockito.any(Attraction.class));
     }
 
+    @Test
+    void createAttractions_WithInvalidItem_ReturnsPerItemResults() throws Exception {
+        Mockito.when(attractionMapper.toEntity(newAttractionDto)).thenReturn(attraction);
+        Mockito.when(attractionMapper.toAttractionShortDto(attraction)).thenReturn(attractionShortDto);
+        Mockito.when(attractionService.createAll(List.of(attraction)))
+                .thenReturn(List.of(BulkItemResultDto.created(0, attraction)));
+
+        mockMvc.perform(post("/attractions/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"\", \"categoryId\":3,\"location\":{\"lat\":48.8606,\"lon\":2.3376}," +
+                                "\"cityId\":1}," +
+                                "{\"name\":\"Лувр\", \"categoryId\":3,\"location\":{\"lat\":48.8606,\"lon\":2.3376}," +
+                                "\"cityId\":1}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("BAD_REQUEST"))
+                .andExpect(jsonPath("$.items[0].errors[0]").value("Field 'name': must not be blank"))
+                .andExpect(jsonPath("$.items[1].index").value(1))
+                .andExpect(jsonPath("$.items[1].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[1].item.id").value(1));
+
+        verify(attractionService, times(1)).createAll(List.of(attraction));
+    }
+
+    @Test
+    void createAttractions_WithEmptyList_ReturnsBadRequest() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(attractionController)
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+
+        mockMvc.perform(post("/attractions/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verify(attractionService, Mockito.never()).createAll(Mockito.any());
+    }
+
     @Test
     void getAttractionById_WithValidId_ReturnsOk() throws Exception {
         Mockito.when(attractionService.getById(1L)).thenReturn(attraction);
@@ -122,8 +195,9 @@ class AttractionControllerTest {
     void getNearestAttractions_WithValidParameters_ReturnsOk() throws Exception {
         Mockito.when(attractionService.getNearestAttractions(Mockito.anyDouble(), Mockito.anyDouble(),
                 Mockito.anyDouble(), Mockito.anyLong(), Mockito.anyDouble(), Mockito.anyInt(),
-                Mockito.anyString(), Mockito.anyString())).thenReturn(List.of(attraction));
-        Mockito.when(attractionMapper.toAttractionDto(Mockito.any(Attraction.class))).thenReturn(attractionDto);
+                Mockito.anyString(), Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenReturn(new CursorPageDto<>(List.of(projection), "next"));
+        Mockito.when(attractionMapper.toAttractionDto(projection)).thenReturn(attractionDto);
 
         mockMvc.perform(get("/attractions/nearby")
                         .param("userLat", "40.7128")
@@ -134,18 +208,57 @@ class AttractionControllerTest {
                         .param("limitCount", "10")
                         .param("sortBy", "distance")
                         .param("sortDirection", "asc"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
 
         verify(attractionService, times(1)).getNearestAttractions(40.7128,
-                -74.0060, 10.0, 1L, 3.3, 10, "distance", "asc");
+                -74.0060, 10.0, 1L, 3.3, 10, "distance", "asc", null, SparseFieldset.ALL);
+    }
+
+    @Test
+    void getNearestAttractions_WithK_ReturnsKNearest() throws Exception {
+        Mockito.when(attractionService.getKNearestAttractions(40.7128, -74.0060, 20, null, null,
+                "distance", "asc", SparseFieldset.ALL)).thenReturn(List.of(projection));
+        Mockito.when(attractionMapper.toAttractionDto(projection)).thenReturn(attractionDto);
+
+        mockMvc.perform(get("/attractions/nearby")
+                        .param("userLat", "40.7128")
+                        .param("userLon", "-74.0060")
+                        .param("k", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(attractionService, Mockito.never()).getNearestAttractions(Mockito.anyDouble(), Mockito.anyDouble(),
+                Mockito.anyDouble(), Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyString(),
+                Mockito.anyString(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void getNearestAttractions_WithoutRadiusAndK_ReturnsBadRequest() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(attractionController)
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+
+        mockMvc.perform(get("/attractions/nearby")
+                        .param("userLat", "40.7128")
+                        .param("userLon", "-74.0060"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/attractions/nearby")
+                        .param("userLat", "40.7128")
+                        .param("userLon", "-74.0060")
+                        .param("radius", "10.0")
+                        .param("k", "20"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     void getAttractionsInCity_WithValidParameters_ReturnsOk() throws Exception {
         Mockito.when(attractionService.getAttractionsInCity(Mockito.anyLong(), Mockito.anyDouble(), Mockito.anyDouble(),
                 Mockito.anyLong(), Mockito.anyDouble(), Mockito.anyInt(), Mockito.anyString(),
-                Mockito.anyString())).thenReturn(List.of(attraction));
-        Mockito.when(attractionMapper.toAttractionDto(Mockito.any(Attraction.class))).thenReturn(attractionDto);
+                Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenReturn(new CursorPageDto<>(List.of(projection), null));
+        Mockito.when(attractionMapper.toAttractionDto(projection)).thenReturn(attractionDto);
 
         mockMvc.perform(get("/attractions/city")
                         .param("cityId", "1")
@@ -155,10 +268,101 @@ class AttractionControllerTest {
                         .param("minRating", "3.3")
                         .param("limitCount", "10")
                         .param("sortBy", "distance")
-                        .param("sortDirection", "asc"))
-                .andExpect(status().isOk());
+                        .param("sortDirection", "asc")
+                        .param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1));
 
         verify(attractionService, times(1)).getAttractionsInCity(1L, 40.7128,
-                -74.0060, 1L, 3.3, 10, "distance", "asc");
+                -74.0060, 1L, 3.3, 10, "distance", "asc", "abc", SparseFieldset.ALL);
+    }
+
+    @Test
+    void getAttractionsInCity_WithFields_ReturnsOnlyRequestedFields() throws Exception {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        new SparseFieldsetConfig().sparseFieldsetCustomizer().customize(builder);
+        mockMvc = MockMvcBuilders.standaloneSetup(attractionController)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(builder.build()))
+                .build();
+        SparseFieldset fields = SparseFieldset.of("id", "name", "rating");
+        Mockito.when(attractionService.getAttractionsInCity(1L, 40.7128, -74.0060, null, null, 10, "distance",
+                "asc", null, fields)).thenReturn(new CursorPageDto<>(List.of(projection), "next"));
+        Mockito.when(attractionMapper.toAttractionDto(projection)).thenReturn(new AttractionDto(1L, "Лувр", null,
+                new LocationDto(48.8606, 2.3376), null, 3.8, 1.2));
+
+        mockMvc.perform(get("/attractions/city")
+                        .param("cityId", "1")
+                        .param("userLat", "40.7128")
+                        .param("userLon", "-74.0060")
+                        .param("fields", "id, name,rating"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Лувр"))
+                .andExpect(jsonPath("$.items[0].rating").value(3.8))
+                .andExpect(jsonPath("$.items[0].location").doesNotExist())
+                .andExpect(jsonPath("$.items[0].category").doesNotExist())
+                .andExpect(jsonPath("$.items[0].distance").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void getAttractionsInCity_WithUnknownField_ReturnsBadRequest() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(attractionController)
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+
+        mockMvc.perform(get("/attractions/city")
+                        .param("cityId", "1")
+                        .param("userLat", "40.7128")
+                        .param("userLon", "-74.0060")
+                        .param("fields", "id,description"))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(attractionService);
+    }
+
+    @Test
+    void exportAttractionsInCity_WithExistingCity_StreamsNdjson() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            Consumer<AttractionProjection> consumer = invocation.getArgument(1);
+            consumer.accept(projection);
+            consumer.accept(projection);
+            return null;
+        }).when(attractionService).exportAttractionsInCity(Mockito.eq(1L), Mockito.any());
+        Mockito.when(attractionMapper.toAttractionDto(projection)).thenReturn(attractionDto);
+
+        MvcResult result = mockMvc.perform(get("/attractions/city/1/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String line = objectMapper.writeValueAsString(attractionDto);
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(line + "\n" + line + "\n"));
+
+        verify(cityService, times(1)).getById(1L);
+    }
+
+    @Test
+    void exportAttractionsInCity_SetsExportTimeout() throws Exception {
+        MvcResult export = mockMvc.perform(get("/attractions/city/1/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(Duration.ofMinutes(30).toMillis(), export.getRequest().getAsyncContext().getTimeout());
+    }
+
+    @Test
+    void exportAttractionsInCity_WithUnknownCity_ThrowsNotFoundBeforeStreaming() throws Exception {
+        Mockito.when(cityService.getById(999L)).thenThrow(new EntityNotFoundException("city with ID=999 not found"));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(attractionController)
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+        mockMvc.perform(get("/attractions/city/999/export"))
+                .andExpect(status().isNotFound());
+
+        verify(attractionService, Mockito.never()).exportAttractionsInCity(Mockito.anyLong(), Mockito.any());
     }
 }
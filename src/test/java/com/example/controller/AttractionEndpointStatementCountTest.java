@@ -0,0 +1,192 @@
+package com.example.controller;
+
+import com.example.model.Attraction;
+import com.example.model.Category;
+import com.example.model.City;
+import com.example.model.Location;
+import com.example.service.AttractionService;
+import com.example.support.EmbeddedPostgresTest;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет на встроенном PostgreSQL точное количество SQL-запросов Hibernate на каждый REST-запрос
+ * к достопримечательностям, включая ленивые загрузки при сериализации ответа. Рост числа запросов означает
+ * появившуюся проблему N+1.
+ * <p>
+ * Кэш результатов поиска рядом отключен, а кэш второго уровня очищается перед каждым запросом: считаются запросы
+ * при холодных кэшах. Страницы поиска содержат несколько достопримечательностей разных городов и категорий,
+ * поэтому загрузка связанных сущностей по одной сразу меняет количество запросов.
+ */
+@SpringBootTest(properties = {
+        "city-guide.spatial-index.enabled=false",
+        "city-guide.nearby-cache.enabled=false"
+})
+@AutoConfigureMockMvc
+class AttractionEndpointStatementCountTest extends EmbeddedPostgresTest {
+    private static final double LAT = 43.7230;
+    private static final double LON = 10.3966;
+    private static final long[] CITIES = {1, 2, 3};
+    private static final long[] CATEGORIES = {1, 2, 3};
+
+    private static Attraction attraction;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AttractionService attractionService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (attraction != null) {
+            return;
+        }
+        // Создаются один раз: идентификаторы выдаются из пула последовательности Hibernate, и запрос следующего
+        // блока не должен попадать в подсчет запросов создания
+        for (int i = 0; i < CITIES.length * CATEGORIES.length; i++) {
+            attraction = attractionService.create(attraction("Tower " + i, CITIES[i % CITIES.length],
+                    CATEGORIES[i / CITIES.length], LAT + i * 0.001, LON));
+        }
+    }
+
+    @Test
+    void getAttractionById_ExecutesSingleStatement() throws Exception {
+        // достопримечательность с категорией, городом и местоположением
+        assertStatements(1, get("/attractions/{attId}", attraction.getId()));
+    }
+
+    @Test
+    void getNearestAttractions_ExecutesSingleStatementForWholePage() throws Exception {
+        assertStatements(1, nearby(9)).andExpect(jsonPath("$.items.length()").value(9));
+    }
+
+    @Test
+    void getNearestAttractions_AfterCursor_ExecutesSingleStatement() throws Exception {
+        String nextCursor = JsonPath.read(mockMvc.perform(nearby(3)).andReturn().getResponse()
+                .getContentAsString(), "$.nextCursor");
+        assertStatements(1, nearby(3).param("cursor", nextCursor));
+    }
+
+    @Test
+    void getNearestAttractions_WithoutRelatedFields_ExecutesSingleStatement() throws Exception {
+        assertStatements(1, nearby(9).param("fields", "id,name,rating"));
+    }
+
+    @Test
+    void getKNearestAttractions_ExecutesSingleStatement() throws Exception {
+        assertStatements(1, get("/attractions/nearby")
+                .param("userLat", String.valueOf(LAT))
+                .param("userLon", String.valueOf(LON))
+                .param("k", "9"))
+                .andExpect(jsonPath("$.items.length()").value(9));
+    }
+
+    @Test
+    void getAttractionsInCity_ExecutesSingleStatementForWholePage() throws Exception {
+        assertStatements(1, get("/attractions/city")
+                .param("cityId", String.valueOf(CITIES[0]))
+                .param("userLat", String.valueOf(LAT))
+                .param("userLon", String.valueOf(LON))
+                .param("sortBy", "rating")
+                .param("limitCount", "3"))
+                .andExpect(jsonPath("$.items.length()").value(3));
+    }
+
+    @Test
+    void createAttraction_ExecutesFixedNumberOfStatements() throws Exception {
+        // категория, город, вставка местоположения, вставка достопримечательности
+        assertStatements(4, post("/attractions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(attractionJson("Baptistery")));
+    }
+
+    @Test
+    void createAttractions_ExecutesFixedNumberOfStatementsForAllAttractions() throws Exception {
+        // категории, города, пакетная вставка местоположений, пакетная вставка достопримечательностей
+        assertStatements(4, post("/attractions/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + attractionJson("Duomo") + "," + attractionJson("Campanile") + ","
+                        + attractionJson("Camposanto") + "]"));
+    }
+
+    @Test
+    void updateAttraction_ExecutesFixedNumberOfStatements() throws Exception {
+        // достопримечательность со связанными сущностями, изменение местоположения, изменение достопримечательности
+        assertStatements(3, patch("/attractions/{attId}", attraction.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Leaning Tower\", \"location\": {\"lat\": " + (LAT + 0.0001)
+                        + ", \"lon\": " + LON + "}}"));
+    }
+
+    @Test
+    void deleteAttraction_ExecutesSingleStatement() throws Exception {
+        Attraction created = attractionService.create(attraction("Opera del Duomo", CITIES[0], CATEGORIES[0],
+                LAT, LON));
+        // удаление достопримечательности и ее местоположения, возвращающее координаты для кэшей
+        assertStatements(1, delete("/attractions/{attId}", created.getId()));
+    }
+
+    private MockHttpServletRequestBuilder nearby(int limit) {
+        return get("/attractions/nearby")
+                .param("userLat", String.valueOf(LAT))
+                .param("userLon", String.valueOf(LON))
+                .param("radius", "5")
+                .param("limitCount", String.valueOf(limit));
+    }
+
+    private ResultActions assertStatements(int expected, RequestBuilder request) throws Exception {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        statistics.clear();
+        ResultActions result = mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        return result;
+    }
+
+    private String attractionJson(String name) {
+        return "{\"name\": \"" + name + "\", \"categoryId\": 1, \"cityId\": 1, \"location\": {\"lat\": " + LAT
+                + ", \"lon\": " + LON + "}}";
+    }
+
+    private Attraction attraction(String name, long cityId, long categoryId, double lat, double lon) {
+        Category category = new Category();
+        category.setId(categoryId);
+        City city = new City();
+        city.setId(cityId);
+        Location location = new Location();
+        location.setLat(lat);
+        location.setLon(lon);
+        Attraction attraction = new Attraction();
+        attraction.setName(name);
+        attraction.setCategory(category);
+        attraction.setCity(city);
+        attraction.setLocation(location);
+        return attraction;
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.controller;
 
+import com.example.dto.bulk.BulkItemResultDto;
+import com.example.dto.fields.SparseFieldset;
 import com.example.dto.mappers.AttractionReviewMapper;
+import com.example.dto.page.CountedCursorPageDto;
 import com.example.dto.review.AttractionReviewDto;
 import com.example.dto.review.NewAttractionReviewDto;
 import com.example.dto.review.ReviewDtoForAttraction;
@@ -9,13 +12,15 @@ import com.example.model.Attraction;
 import com.example.model.AttractionReview;
 import com.example.model.User;
 import com.example.service.ReviewService;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -28,6 +33,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,7 +47,8 @@ class ReviewControllerTest {
     @Mock
     private ReviewService reviewServiceImpl;
 
-    @InjectMocks
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     private ReviewController reviewController;
 
     private AttractionReview review;
@@ -68,6 +75,7 @@ class ReviewControllerTest {
 
         updateReviewDto = new UpdateAttractionReviewDto("НЕ ВАУ!", 1, 2L, 1L);
 
+        reviewController = new ReviewController(attractionReviewMapper, reviewServiceImpl, validator);
         mockMvc = MockMvcBuilders.standaloneSetup(reviewController).build();
     }
 
@@ -87,6 +95,27 @@ class ReviewControllerTest {
         verify(reviewServiceImpl, times(1)).create(Mockito.any(AttractionReview.class));
     }
 
+    @Test
+    void createReviews_WithValidData_ReturnsPerItemResults() throws Exception {
+        Mockito.when(attractionReviewMapper.toEntity(newReviewDto)).thenReturn(review);
+        Mockito.when(attractionReviewMapper.toAttractionReviewDto(review)).thenReturn(reviewDto);
+        Mockito.when(reviewServiceImpl.createAll(List.of(review, review))).thenReturn(List.of(
+                BulkItemResultDto.created(0, review),
+                BulkItemResultDto.failed(1, HttpStatus.BAD_REQUEST, "You have already left a review")));
+
+        mockMvc.perform(post("/reviews/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"comment\":\"ВАУ!\",\"rating\":5,\"authorId\":1,\"attractionId\":1}," +
+                                "{\"comment\":\"ВАУ!\",\"rating\":5,\"authorId\":1,\"attractionId\":1}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[0].item.id").value(1))
+                .andExpect(jsonPath("$.items[1].errors[0]").value("You have already left a review"));
+
+        verify(reviewServiceImpl, times(1)).createAll(List.of(review, review));
+    }
+
     @Test
     void getReviewById_WithValidId_ReturnsOk() throws Exception {
         Mockito.when(reviewServiceImpl.getById(1L)).thenReturn(review);
@@ -125,14 +154,18 @@ class ReviewControllerTest {
     @Test
     void getReviewsByAttractionId_WithValidId_ReturnsOk() throws Exception {
         List<ReviewDtoForAttraction> reviewList = List.of(new ReviewDtoForAttraction(), new ReviewDtoForAttraction());
-        Mockito.when(reviewServiceImpl.getReviewForAttraction(1L, "desc")).thenReturn(List.of(review));
+        Mockito.when(reviewServiceImpl.getReviewForAttraction(1L, "desc", 20, null, SparseFieldset.ALL))
+                .thenReturn(new CountedCursorPageDto<>(List.of(review), "next", 42));
         Mockito.when(attractionReviewMapper.toReviewDtoForAttraction(Mockito.any(AttractionReview.class)))
                 .thenReturn(reviewList.get(0));
 
         mockMvc.perform(get("/reviews/attraction/{attId}", 1L)
                         .param("sortDirection", "desc"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.totalCount").value(42));
 
-        verify(reviewServiceImpl, times(1)).getReviewForAttraction(1L, "desc");
+        verify(reviewServiceImpl, times(1)).getReviewForAttraction(1L, "desc", 20, null, SparseFieldset.ALL);
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.example.controller;
+
+import com.example.model.Attraction;
+import com.example.model.AttractionReview;
+import com.example.model.Category;
+import com.example.model.City;
+import com.example.model.Location;
+import com.example.model.User;
+import com.example.service.AttractionService;
+import com.example.service.ReviewService;
+import com.example.service.UserServiceImpl;
+import com.example.support.EmbeddedPostgresTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет на встроенном PostgreSQL точное количество SQL-запросов Hibernate на каждый REST-запрос к отзывам,
+ * включая ленивые загрузки при сериализации ответа. Рост числа запросов означает появившуюся проблему N+1.
+ */
+@SpringBootTest(properties = "city-guide.spatial-index.enabled=false")
+@AutoConfigureMockMvc
+class ReviewEndpointStatementCountTest extends EmbeddedPostgresTest {
+    private static final int REVIEWS_PER_ATTRACTION = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Autowired
+    private AttractionService attractionService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Attraction attraction;
+    private AttractionReview review;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        attraction = attractionService.create(attraction());
+        for (int i = 0; i < REVIEWS_PER_ATTRACTION; i++) {
+            review = reviewService.create(review(user(), attraction, i + 1));
+        }
+        // пакетное создание получает идентификаторы из пула последовательности Hibernate:
+        // запрос следующего блока не должен попадать в подсчет запросов пакетного создания
+        reviewService.createAll(List.of(review(user(), attraction, 5)));
+    }
+
+    @Test
+    void getReviewById_ExecutesSingleStatement() throws Exception {
+        assertStatements(1, get("/reviews/{reviewId}", review.getId()));
+    }
+
+    @Test
+    void getReviewsByAttId_ExecutesTwoStatementsForWholePage() throws Exception {
+        // количество отзывов из агрегата, страница отзывов с авторами
+        assertStatements(2, get("/reviews/attraction/{attId}", attraction.getId()));
+        assertStatements(2, get("/reviews/attraction/{attId}", attraction.getId())
+                .param("sortDirection", "asc"));
+    }
+
+    @Test
+    void getReviewsByAttId_WithoutAuthorField_DoesNotLoadAuthors() throws Exception {
+        int reviews = REVIEWS_PER_ATTRACTION + 1;
+        statistics.clear();
+        mockMvc.perform(get("/reviews/attraction/{attId}", attraction.getId()).param("fields", "id,rating"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(reviews))
+                .andExpect(jsonPath("$.items[0].rating").value(5))
+                .andExpect(jsonPath("$.items[0].author").doesNotExist())
+                .andExpect(jsonPath("$.items[0].comment").doesNotExist())
+                .andExpect(jsonPath("$.totalCount").value(reviews));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(reviews, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void createReview_ExecutesFixedNumberOfStatements() throws Exception {
+        // вставка с изменением рейтинга, созданный отзыв с автором и достопримечательностью
+        User author = user();
+        assertStatements(2, post("/reviews/user/{userId}/attraction/{attId}", author.getId(), attraction.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(reviewJson(author)));
+    }
+
+    @Test
+    void createReviews_ExecutesFixedNumberOfStatementsForAllReviews() throws Exception {
+        // авторы, достопримечательности, существующие отзывы, пакетная вставка, изменение рейтингов
+        assertStatements(5, post("/reviews/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + reviewJson(user()) + "," + reviewJson(user()) + "," + reviewJson(user()) + "]"));
+    }
+
+    @Test
+    void updateReview_ExecutesFixedNumberOfStatements() throws Exception {
+        // отзыв с автором и достопримечательностью, изменение рейтинга, координаты для кэша, изменение отзыва
+        assertStatements(4, patch("/reviews/{reviewId}", review.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"rating\": 1, \"authorId\": " + review.getAuthor().getId()
+                        + ", \"attractionId\": " + attraction.getId() + "}"));
+    }
+
+    @Test
+    void deleteReview_ExecutesSingleStatement() throws Exception {
+        assertStatements(1, delete("/reviews/{reviewId}", review.getId()));
+    }
+
+    private void assertStatements(int expected, RequestBuilder request) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+        assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+
+    private String reviewJson(User author) {
+        return "{\"rating\": 4, \"authorId\": " + author.getId() + ", \"attractionId\": " + attraction.getId() + "}";
+    }
+
+    private Attraction attraction() {
+        Category category = new Category();
+        category.setId(1L);
+        City city = new City();
+        city.setId(1L);
+        Location location = new Location();
+        location.setLat(55.7539);
+        location.setLon(37.6208);
+        Attraction attraction = new Attraction();
+        attraction.setName("Red Square");
+        attraction.setCategory(category);
+        attraction.setCity(city);
+        attraction.setLocation(location);
+        return attraction;
+    }
+
+    private AttractionReview review(User author, Attraction attraction, int rating) {
+        AttractionReview review = new AttractionReview();
+        review.setAuthor(author);
+        review.setAttraction(attraction);
+        review.setRating(rating);
+        return review;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setName("Reviewer");
+        user.setEmail("reviewer" + System.nanoTime() + "@mail.ru");
+        return userService.create(user);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.geo;
+
+import com.example.repository.AttractionRepository;
+import com.example.util.GeoUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AttractionSpatialIndexTest {
+
+    @Mock
+    private AttractionRepository attractionRepository;
+
+    private AttractionSpatialIndex spatialIndex;
+
+    @BeforeEach
+    void setUp() {
+        spatialIndex = new AttractionSpatialIndex(attractionRepository, true, 0.1, 5000);
+        when(attractionRepository.findAllPoints()).thenReturn(List.of(
+                new AttractionPoint(1L, 48.8584, 2.2945),
+                new AttractionPoint(2L, 48.8606, 2.3376),
+                new AttractionPoint(3L, 41.8902, 12.4922)));
+        spatialIndex.rebuild();
+    }
+
+    @Test
+    void findWithinRadius_ReturnsOnlyPointsInsideRadius() {
+        assertTrue(spatialIndex.isReady());
+        assertThat(spatialIndex.findWithinRadius(48.85, 2.29, 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(spatialIndex.findWithinRadius(48.8584, 2.2945, 1)).containsExactly(1L);
+        assertThat(spatialIndex.findWithinRadius(48.85, 2.29, 2000)).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void put_MovesPointToNewCell() {
+        spatialIndex.put(3L, 48.8570, 2.3000);
+
+        assertThat(spatialIndex.findWithinRadius(48.85, 2.29, 10)).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(spatialIndex.findWithinRadius(41.8902, 12.4922, 10)).isEmpty();
+    }
+
+    @Test
+    void remove_ExcludesPointFromSearch() {
+        spatialIndex.remove(1L);
+
+        assertThat(spatialIndex.findWithinRadius(48.85, 2.29, 10)).containsExactly(2L);
+    }
+
+    @Test
+    void isReady_WhenDisabled_ReturnsFalse() {
+        AttractionSpatialIndex disabled = new AttractionSpatialIndex(attractionRepository, false, 0.1, 5000);
+        disabled.afterSingletonsInstantiated();
+
+        assertFalse(disabled.isReady());
+    }
+
+    @Test
+    void findNearest_ReturnsClosestPointsInDistanceOrder() {
+        assertThat(spatialIndex.findNearest(48.8584, 2.2945, 1)).containsExactly(1L);
+        assertThat(spatialIndex.findNearest(48.85, 2.29, 2)).containsExactly(1L, 2L);
+        assertThat(spatialIndex.findNearest(41.9, 12.5, 10)).containsExactly(3L, 2L, 1L);
+        assertThat(spatialIndex.findNearest(41.9, 12.5, 0)).isEmpty();
+    }
+
+    @Test
+    void findNearest_MatchesBruteForceAcrossAntimeridianAndPoles() {
+        Random random = new Random(42);
+        List<AttractionPoint> points = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            // Половина точек сосредоточена в небольшой области, остальные разбросаны по всему шару
+            points.add(id % 2 == 0
+                    ? new AttractionPoint(id, 48.8 + random.nextDouble() * 0.2, 2.2 + random.nextDouble() * 0.2)
+                    : new AttractionPoint(id, random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+        }
+        AttractionSpatialIndex index = new AttractionSpatialIndex(attractionRepository, true, 0.7, 5000);
+        when(attractionRepository.findAllPoints()).thenReturn(points);
+        index.rebuild();
+
+        double[][] queries = {{48.85, 2.3}, {0, 179.95}, {-10, -179.99}, {89.9, 45}, {-89.5, -120}, {48.9, 2.4}};
+        for (double[] query : queries) {
+            for (int count : new int[]{1, 5, 50, 700}) {
+                List<Long> expected = points.stream()
+                        .sorted(Comparator.comparingDouble((AttractionPoint point) ->
+                                        GeoUtils.distance(query[0], query[1], point.lat(), point.lon()))
+                                .thenComparingLong(AttractionPoint::id))
+                        .limit(count)
+                        .map(AttractionPoint::id)
+                        .toList();
+
+                assertEquals(expected, index.findNearest(query[0], query[1], count));
+            }
+        }
+    }
+}
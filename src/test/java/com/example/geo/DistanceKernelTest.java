@@ -0,0 +1,61 @@
+package com.example.geo;
+
+import com.example.util.GeoUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DistanceKernelTest {
+    private static final double TOLERANCE_KM = 1e-3;
+
+    private final DistanceKernel kernel = DistanceKernel.scalar();
+
+    @Test
+    void distances_MatchExistingFormulaForRandomPoints() {
+        Random random = new Random(7);
+        // Длина не кратна числу элементов вектора, чтобы проверить и хвост массива
+        int size = 10_007;
+        double[] lats = new double[size];
+        double[] lons = new double[size];
+        for (int i = 0; i < size; i++) {
+            lats[i] = random.nextDouble() * 180 - 90;
+            lons[i] = random.nextDouble() * 360 - 180;
+        }
+        double[][] origins = {{48.8584, 2.2945}, {-33.8568, 151.2153}, {0, 180}, {89.99, -45}};
+
+        for (double[] origin : origins) {
+            double[] out = new double[size];
+            kernel.distances(origin[0], origin[1], lats, lons, out);
+            for (int i = 0; i < size; i++) {
+                double expected = GeoUtils.distance(origin[0], origin[1], lats[i], lons[i]);
+                assertEquals(expected, out[i], TOLERANCE_KM, "at " + i);
+            }
+        }
+    }
+
+    @Test
+    void distances_HandleNearbyIdenticalAndAntipodalPoints() {
+        double[] lats = {48.8584, 48.8585, -48.8584, 48.8606, 48.8584};
+        double[] lons = {2.2945, 2.2945, -177.7055, 2.3376, 2.2945};
+
+        double[] out = new double[lats.length];
+        kernel.distances(48.8584, 2.2945, lats, lons, out);
+
+        assertEquals(0, out[0], 1e-9);
+        assertEquals(0.0111, out[1], 1e-4);
+        assertEquals(Math.PI * GeoUtils.EARTH_RADIUS_KM, out[2], TOLERANCE_KM);
+        assertEquals(GeoUtils.distance(48.8584, 2.2945, 48.8606, 2.3376), out[3], 1e-6);
+        assertEquals(0, out[4], 1e-9);
+    }
+
+    @Test
+    void distances_WithMismatchedArrays_ThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> kernel.distances(0, 0, new double[3], new double[2], new double[3]));
+        assertThrows(IllegalArgumentException.class,
+                () -> kernel.distances(0, 0, new double[3], new double[3], new double[2]));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.repository;
+
+import com.example.support.EmbeddedPostgresTest;
+import com.example.support.QueryPlans;
+import com.example.util.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static com.example.support.QueryPlans.indexCondition;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет по плану выполнения (EXPLAIN), что запросы с сортировкой по рейтингу читают строки
+ * в нужном порядке из индекса, а не сортируют всю выборку.
+ * Запросы выполняются через репозитории, их SQL объясняется {@link QueryPlans#explain} как обобщенный план;
+ * оставшийся в плане Sort означает, что ORDER BY не может быть выполнен по индексу (как было с CASE-выражениями).
+ */
+@SpringBootTest(properties = {
+        "city-guide.spatial-index.enabled=false",
+        QueryPlans.STATEMENT_INSPECTOR
+})
+class SortQueryPlanTest extends EmbeddedPostgresTest {
+    private static boolean seeded;
+
+    @Autowired
+    private AttractionRepository attractionRepository;
+
+    @Autowired
+    private AttractionReviewRepository reviewRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        if (seeded) {
+            return;
+        }
+        jdbcTemplate.execute("""
+                INSERT INTO cities (id, name, country)
+                SELECT 1000 + g, 'City ' || g, 'Country' FROM generate_series(1, 100) g;
+                INSERT INTO locations (id, lat, lon)
+                SELECT 1000000 + g, (g % 900) / 10.0, (g % 1800) / 10.0 FROM generate_series(1, 50000) g;
+                INSERT INTO attraction (id, name, category_id, location_id, city_id)
+                SELECT 1000000 + g, 'Attraction ' || g, 1 + g % 3, 1000000 + g, 1001 + g % 100
+                FROM generate_series(1, 50000) g;
+                UPDATE attraction SET rating_sum = id % 41, rating_count = 10 WHERE id > 1000000;
+                INSERT INTO users (id, name, email)
+                SELECT 1000 + g, 'User ' || g, 'user' || g || '@mail.ru' FROM generate_series(1, 1000) g;
+                INSERT INTO attraction_reviews (comment, rating, author_id, attraction_id)
+                SELECT 'Review ' || g, NULLIF(g % 6, 0), 1001 + g / 2000, 1000001 + g % 2000
+                FROM generate_series(1, 200000) g;
+                ANALYZE;
+                """);
+        seeded = true;
+    }
+
+    @Test
+    @Transactional
+    void attractionsInCitySortedByRatingUseCityRatingIndex() {
+        for (String direction : List.of("asc", "desc")) {
+            String plan = explain(() -> attractionRepository.search(AttractionSearchCriteria.builder()
+                    .userLat(48.85)
+                    .userLon(2.35)
+                    .cityId(1001L)
+                    .sortBy("rating")
+                    .sortDirection(direction)
+                    .limit(11)
+                    .build()));
+
+            assertTrue(plan.contains("attraction_city_rating_id_idx"), plan);
+            assertFalse(plan.contains("Sort"), plan);
+        }
+    }
+
+    @Test
+    @Transactional
+    void attractionsInCityAfterCursorStartIndexScanAtCursor() {
+        for (String direction : List.of("asc", "desc")) {
+            String plan = explain(() -> attractionRepository.search(AttractionSearchCriteria.builder()
+                    .userLat(48.85)
+                    .userLon(2.35)
+                    .cityId(1001L)
+                    .sortBy("rating")
+                    .sortDirection(direction)
+                    .cursor(new KeysetCursor("rating:" + direction, 2.0, 1000500L))
+                    .limit(11)
+                    .build()));
+
+            assertTrue(indexCondition(plan).contains("rating"), plan);
+            assertFalse(plan.contains("Sort"), plan);
+        }
+    }
+
+    @Test
+    @Transactional
+    void reviewsSortedByRatingUseAttractionRatingIndex() {
+        String ascPlan = explain(() -> reviewRepository.findPageByAttractionIdOrderByRatingAsc(1000001L, 0,
+                Long.MIN_VALUE, Limit.of(21)));
+        String descPlan = explain(() -> reviewRepository.findPageByAttractionIdOrderByRatingDesc(1000001L,
+                Integer.MAX_VALUE, Long.MAX_VALUE, Limit.of(21)));
+
+        for (String plan : List.of(ascPlan, descPlan)) {
+            assertTrue(plan.contains("attraction_reviews_attraction_rating_key_id_idx"), plan);
+            assertFalse(plan.contains("Sort"), plan);
+        }
+    }
+
+    private String explain(Runnable query) {
+        return QueryPlans.explain(jdbcTemplate, query);
+    }
+}
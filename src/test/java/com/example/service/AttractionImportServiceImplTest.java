@@ -0,0 +1,121 @@
+package com.example.service;
+
+import com.example.dto.ingest.ImportErrorDto;
+import com.example.dto.ingest.ImportReportDto;
+import com.example.error.exception.ValidationException;
+import com.example.ingest.ImportFormat;
+import com.example.support.EmbeddedPostgresTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет импорт достопримечательностей через {@code COPY} на встроенном PostgreSQL.
+ * Маленький размер пакета и очередей заставляет конвейер передавать данные несколькими пакетами.
+ */
+@SpringBootTest(properties = {
+        "city-guide.spatial-index.enabled=false",
+        "city-guide.import.batch-size=7",
+        "city-guide.import.queue-capacity=2",
+        "city-guide.import.max-errors=3"
+})
+class AttractionImportServiceImplTest extends EmbeddedPostgresTest {
+    private static final long CITY_ID = 9001L;
+
+    @Autowired
+    private AttractionImportService attractionImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("""
+                WITH deleted AS (DELETE FROM attraction WHERE city_id = ? RETURNING location_id)
+                DELETE FROM locations WHERE id IN (SELECT location_id FROM deleted)
+                """, CITY_ID);
+        jdbcTemplate.update("INSERT INTO cities (id, name, country) VALUES (?, 'Import City', 'Country') "
+                + "ON CONFLICT DO NOTHING", CITY_ID);
+    }
+
+    @Test
+    void importAttractions_CsvFile_ImportsAllRows() {
+        StringBuilder csv = new StringBuilder("lon,lat,name,cityId,categoryId\n");
+        for (int i = 1; i <= 100; i++) {
+            csv.append("2.35,48.85,\"Museum, \"\"No ").append(i).append("\"\"\",").append(CITY_ID).append(",1\n");
+        }
+
+        ImportReportDto report = attractionImportService.importAttractions(stream(csv.toString()), ImportFormat.CSV);
+
+        assertEquals(100, report.getRead());
+        assertEquals(100, report.getImported());
+        assertEquals(0, report.getRejected());
+        assertEquals(100, countAttractions());
+        assertEquals("Museum, \"No 1\"", jdbcTemplate.queryForObject(
+                "SELECT name FROM attraction WHERE city_id = ? ORDER BY id LIMIT 1", String.class, CITY_ID));
+    }
+
+    @Test
+    void importAttractions_RowsWithErrors_RejectsOnlyInvalidRows() {
+        String ndjson = """
+                {"name":"Louvre","categoryId":1,"cityId":%1$d,"location":{"lat":48.86,"lon":2.33}}
+                {"name":"","categoryId":1,"cityId":%1$d,"location":{"lat":48.86,"lon":2.33}}
+
+                {"name":"Orsay","categoryId":1,"cityId":%1$d,"location":{"lat":48.86}}
+                {"name":"Broken",
+                {"name":"Nowhere","categoryId":1,"cityId":123456,"location":{"lat":48.86,"lon":2.33}}
+                {"name":"Pantheon","categoryId":2,"cityId":%1$d,"location":{"lat":48.84,"lon":2.34}}
+                """.formatted(CITY_ID);
+
+        ImportReportDto report = attractionImportService.importAttractions(stream(ndjson), ImportFormat.NDJSON);
+
+        assertEquals(6, report.getRead());
+        assertEquals(2, report.getImported());
+        assertEquals(4, report.getRejected());
+        assertEquals(2, countAttractions());
+        List<ImportErrorDto> errors = report.getErrors();
+        assertEquals(List.of(2L, 4L, 5L), errors.stream().map(ImportErrorDto::getLine).toList());
+        assertEquals(List.of("Field 'location.lon': must not be null"), errors.get(1).getErrors());
+        assertTrue(errors.get(2).getErrors().get(0).startsWith("Malformed JSON"));
+    }
+
+    @Test
+    void importAttractions_CsvWithoutRequiredColumns_ThrowsValidationException() {
+        InputStream csv = stream("name,cityId\nLouvre," + CITY_ID + "\n");
+
+        assertThrows(ValidationException.class, () -> attractionImportService.importAttractions(csv,
+                ImportFormat.CSV));
+        assertEquals(0, countAttractions());
+    }
+
+    @Test
+    void importAttractions_ImportedIds_DoNotCollideWithJpaInserts() {
+        attractionImportService.importAttractions(stream("name,categoryId,cityId,lat,lon\nFirst,1," + CITY_ID
+                + ",48.85,2.35\n"), ImportFormat.CSV);
+        Long nextId = jdbcTemplate.queryForObject("SELECT nextval('attraction_seq')", Long.class);
+
+        Map<String, Object> imported = jdbcTemplate.queryForMap(
+                "SELECT max(id) AS id FROM attraction WHERE city_id = ?", CITY_ID);
+        assertTrue(((Number) imported.get("id")).longValue() <= nextId - 50);
+    }
+
+    private long countAttractions() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM attraction WHERE city_id = ?", Long.class, CITY_ID);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
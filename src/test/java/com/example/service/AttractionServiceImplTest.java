@@ -1,30 +1,61 @@
 package com.example.service;
 
+import com.example.cache.CacheInvalidation;
+import com.example.cache.CacheInvalidationBus;
+import com.example.cache.NearbyQueryKey;
+import com.example.cache.NearbyResultCache;
+import com.example.cache.SearchRequestCoalescer;
+import com.example.dto.attraction.AttractionProjection;
+import com.example.dto.bulk.BulkItemResultDto;
+import com.example.dto.fields.SparseFieldset;
+import com.example.dto.page.CursorPageDto;
+import com.example.error.exception.EntityNotFoundException;
+import com.example.error.exception.ValidationException;
+import com.example.geo.AttractionPoint;
+import com.example.geo.AttractionSpatialIndex;
 import com.example.model.Attraction;
+import com.example.model.AttractionReview;
 import com.example.model.Category;
 import com.example.model.City;
 import com.example.model.Location;
+import com.example.model.User;
 import com.example.repository.AttractionRepository;
+import com.example.repository.AttractionSearchCriteria;
+import com.example.util.GeoUtils;
+import com.example.util.KeysetCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyDouble;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyList;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -41,16 +72,34 @@ public class AttractionServiceImplTest {
     @Mock
     private CityServiceImpl cityServiceImpl;
 
+    @Mock
+    private AttractionSpatialIndex spatialIndex;
+
+    @Mock
+    private NearbyResultCache nearbyCache;
+
+    @Spy
+    private SearchRequestCoalescer searchCoalescer =
+            new SearchRequestCoalescer(true, Duration.ofSeconds(5), new SimpleMeterRegistry());
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private AttractionServiceImpl attractionService;
 
     private Attraction attraction;
+    private AttractionProjection projection;
     private Category category;
     private City city;
     private Location location;
 
     @BeforeEach
     public void setUp() {
+        attractionService.setEntityManager(entityManager);
         category = new Category();
         category.setId(1L);
         category.setName("Архитектурное сооружение");
@@ -70,6 +119,9 @@ public class AttractionServiceImplTest {
         attraction.setCategory(category);
         attraction.setCity(city);
         attraction.setLocation(location);
+
+        projection = new AttractionProjection(1L, "Эйфелева башня", 1L, "Архитектурное сооружение",
+                1L, "Париж", "Франция", 40.7128, -74.0060, 9L, 2, 0.0);
     }
 
 
@@ -86,6 +138,81 @@ public class AttractionServiceImplTest {
         assertEquals("Архитектурное сооружение", result.getCategory().getName());
         assertEquals("Париж", result.getCity().getName());
         verify(attractionRepository, times(1)).save(any(Attraction.class));
+        verify(spatialIndex, times(1)).put(1L, 40.7128, -74.0060);
+        verify(invalidationBus, times(1)).publish(CacheInvalidation.attractionMoved(1L, 40.7128, -74.0060));
+    }
+
+    @Test
+    public void testCreateAllResolvesReferencesOnceAndReportsMissingOnes() {
+        Attraction unknownCity = new Attraction();
+        unknownCity.setName("Нотр-Дам");
+        unknownCity.setCategory(category);
+        City missingCity = new City();
+        missingCity.setId(99L);
+        unknownCity.setCity(missingCity);
+        unknownCity.setLocation(location);
+        when(categoryServiceImpl.getAllById(any())).thenReturn(List.of(category));
+        when(cityServiceImpl.getAllById(any())).thenReturn(List.of(city));
+        when(attractionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BulkItemResultDto<Attraction>> results = attractionService.createAll(List.of(attraction, unknownCity));
+
+        assertEquals(2, results.size());
+        assertEquals("CREATED", results.get(0).getStatus());
+        assertEquals(attraction, results.get(0).getItem());
+        assertEquals("NOT_FOUND", results.get(1).getStatus());
+        assertEquals(List.of("City with ID=99 not found"), results.get(1).getErrors());
+        verify(categoryServiceImpl, times(1)).getAllById(any());
+        verify(cityServiceImpl, times(1)).getAllById(any());
+        verify(attractionRepository, times(1)).saveAll(List.of(attraction));
+        verify(entityManager, times(1)).flush();
+        verify(entityManager, times(1)).detach(attraction);
+        verify(entityManager, never()).clear();
+        verify(spatialIndex, times(1)).put(1L, 40.7128, -74.0060);
+    }
+
+    @Test
+    public void testCreateAllSavesInJdbcBatchSizedChunks() {
+        List<Attraction> attractions = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Attraction item = new Attraction();
+            item.setName("Аттракцион " + i);
+            item.setCategory(category);
+            item.setCity(city);
+            item.setLocation(location);
+            attractions.add(item);
+        }
+        when(categoryServiceImpl.getAllById(any())).thenReturn(List.of(category));
+        when(cityServiceImpl.getAllById(any())).thenReturn(List.of(city));
+        when(attractionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        attractionService.createAll(attractions);
+
+        verify(attractionRepository, times(1)).saveAll(attractions.subList(0, 50));
+        verify(attractionRepository, times(1)).saveAll(attractions.subList(50, 100));
+        verify(attractionRepository, times(1)).saveAll(attractions.subList(100, 120));
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(120)).detach(any());
+        verify(entityManager, never()).clear();
+    }
+
+    @Test
+    public void testAddReviewsGroupsDeltasByAttraction() {
+        User author = new User();
+        author.setId(1L);
+        List<AttractionReview> reviews = new ArrayList<>();
+        for (Integer rating : new Integer[]{5, 3, null}) {
+            AttractionReview review = new AttractionReview();
+            review.setAttraction(attraction);
+            review.setAuthor(author);
+            review.setRating(rating);
+            reviews.add(review);
+        }
+
+        attractionService.addReviews(reviews);
+
+        verify(attractionRepository, times(1)).updateRatings(new Long[]{1L}, new Long[]{8L}, new Integer[]{2},
+                new Integer[]{3});
     }
 
     @Test
@@ -106,7 +233,7 @@ public class AttractionServiceImplTest {
         updatedAttraction.setCity(city);
         updatedAttraction.setLocation(location);
 
-        when(attractionRepository.findById(1L)).thenReturn(Optional.of(attraction));
+        when(attractionRepository.getAttractionById(1L)).thenReturn(Optional.of(attraction));
         when(attractionRepository.save(any(Attraction.class))).thenReturn(updatedAttraction);
 
         Attraction result = attractionService.update(1L, updatedAttraction);
@@ -118,38 +245,287 @@ public class AttractionServiceImplTest {
 
     @Test
     public void testDeleteAttraction() {
-        when(attractionRepository.existsById(1L)).thenReturn(true);
+        when(attractionRepository.deleteWithLocationById(1L))
+                .thenReturn(Optional.of(new AttractionPoint(1L, 40.7128, -74.0060)));
 
         attractionService.delete(1L);
 
-        verify(attractionRepository, times(1)).deleteById(1L);
+        verify(attractionRepository, times(1)).deleteWithLocationById(1L);
+        verify(spatialIndex, times(1)).remove(1L);
+        verify(invalidationBus, times(1)).publish(CacheInvalidation.attractionRemoved(1L));
+    }
+
+    @Test
+    public void testDeleteAttractionNotFound() {
+        when(attractionRepository.deleteWithLocationById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> attractionService.delete(1L));
+        verify(spatialIndex, never()).remove(1L);
+    }
+
+    @Test
+    public void testUpdateRating() {
+        attractionService.updateRating(1L, 5, 4);
+        attractionService.updateRating(1L, null, 3);
+        attractionService.updateRating(1L, 2, null);
+        attractionService.updateRating(1L, 4, 4);
+
+        verify(attractionRepository, times(1)).updateRating(1L, -1, 0);
+        verify(attractionRepository, times(1)).updateRating(1L, 3, 1);
+        verify(attractionRepository, times(1)).updateRating(1L, -2, -1);
+        verify(attractionRepository, times(3)).updateRating(anyLong(), anyLong(), anyInt());
     }
 
     @Test
     public void testGetNearestAttractions() {
-        Pageable pageable = PageRequest.of(0, 10);
-        when(attractionRepository.getNearestAttractions(
-                anyDouble(), anyDouble(), anyDouble(), anyLong(), anyDouble(), anyString(), anyString(), eq(pageable)))
-                .thenReturn(List.of(attraction));
+        ArgumentCaptor<AttractionSearchCriteria> captor = ArgumentCaptor.forClass(AttractionSearchCriteria.class);
+        when(attractionRepository.search(captor.capture())).thenReturn(List.of(projection));
 
         var result = attractionService.getNearestAttractions(40.7128, -74.0060, 10.0,
-                1L, 4.0, 10, "distance", "asc");
+                1L, 4.0, 10, "distance", "asc", null, SparseFieldset.ALL);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
+        assertFalse(result.getItems().isEmpty());
+        assertNull(result.getNextCursor());
+        AttractionSearchCriteria criteria = captor.getValue();
+        assertEquals(10.0, criteria.getRadius());
+        assertNotNull(criteria.getBoundingBox());
+        assertEquals(11, criteria.getLimit());
+    }
+
+    @Test
+    public void testGetNearestAttractionsUsesSpatialIndex() {
+        ArgumentCaptor<AttractionSearchCriteria> captor = ArgumentCaptor.forClass(AttractionSearchCriteria.class);
+        when(spatialIndex.isReady()).thenReturn(true);
+        when(spatialIndex.getMaxCandidates()).thenReturn(100);
+        when(spatialIndex.findWithinRadius(40.7128, -74.0060, 10.0)).thenReturn(List.of(1L));
+        when(attractionRepository.search(captor.capture())).thenReturn(List.of(projection));
+
+        var result = attractionService.getNearestAttractions(40.7128, -74.0060, 10.0,
+                null, null, 10, "distance", "asc", null, SparseFieldset.ALL);
+
+        assertEquals(List.of(projection), result.getItems());
+        assertEquals(List.of(1L), captor.getValue().getIds());
+        assertNull(captor.getValue().getRadius());
+    }
+
+    @Test
+    public void testGetNearestAttractionsWithoutIndexCandidates() {
+        when(spatialIndex.isReady()).thenReturn(true);
+        when(spatialIndex.findWithinRadius(40.7128, -74.0060, 10.0)).thenReturn(List.of());
+
+        var result = attractionService.getNearestAttractions(40.7128, -74.0060, 10.0,
+                null, null, 10, "distance", "asc", null, SparseFieldset.ALL);
+
+        assertTrue(result.getItems().isEmpty());
+        verify(attractionRepository, never()).search(any());
     }
 
     @Test
     public void testGetAttractionsInCity() {
-        Pageable pageable = PageRequest.of(0, 10);
-        when(attractionRepository.getAttractionsInCity(anyLong(), anyDouble(), anyDouble(), anyLong(),
-                anyDouble(), anyString(), anyString(), eq(pageable)))
-                .thenReturn(List.of(attraction));
+        ArgumentCaptor<AttractionSearchCriteria> captor = ArgumentCaptor.forClass(AttractionSearchCriteria.class);
+        when(attractionRepository.search(captor.capture())).thenReturn(List.of(projection));
 
         var result = attractionService.getAttractionsInCity(1L, 40.7128, -74.0060,
-                1L, 4.0, 10, "distance", "asc");
+                1L, 4.0, 10, "distance", "asc", null, SparseFieldset.ALL);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
+        assertFalse(result.getItems().isEmpty());
+        assertEquals(1L, captor.getValue().getCityId());
+    }
+
+    @Test
+    public void testGetAttractionsInCityWithFieldsSkipsUnrequestedAssociations() {
+        ArgumentCaptor<AttractionSearchCriteria> captor = ArgumentCaptor.forClass(AttractionSearchCriteria.class);
+        when(attractionRepository.search(captor.capture())).thenReturn(List.of(projection));
+
+        attractionService.getAttractionsInCity(1L, 40.7128, -74.0060,
+                1L, null, 10, "distance", "asc", null, SparseFieldset.of("id", "name", "city"));
+
+        assertFalse(captor.getValue().isWithCategory());
+        assertTrue(captor.getValue().isWithCity());
+        assertEquals(1L, captor.getValue().getCategoryId());
+    }
+
+    @Test
+    public void testGetAttractionsInCityReturnsNextCursor() {
+        AttractionProjection second = new AttractionProjection(2L, "Лувр", 3L, "Культурное наследие",
+                1L, "Париж", "Франция", 48.8606, 2.3376, 15L, 4, 3.5);
+        ArgumentCaptor<AttractionSearchCriteria> captor = ArgumentCaptor.forClass(AttractionSearchCriteria.class);
+        when(attractionRepository.search(captor.capture())).thenReturn(List.of(projection, second));
+
+        var firstPage = attractionService.getAttractionsInCity(1L, 40.7128, -74.0060,
+                null, null, 1, "rating", "desc", null, SparseFieldset.ALL);
+
+        assertEquals(List.of(projection), firstPage.getItems());
+        assertNotNull(firstPage.getNextCursor());
+
+        attractionService.getAttractionsInCity(1L, 40.7128, -74.0060,
+                null, null, 1, "rating", "desc", firstPage.getNextCursor(), SparseFieldset.ALL);
+
+        KeysetCursor cursor = captor.getValue().getCursor();
+        assertEquals(4.5, cursor.value());
+        assertEquals(1L, cursor.id());
+    }
+
+    @Test
+    public void testGetAttractionsInCityWithCursorForAnotherSort() {
+        String cursor = new KeysetCursor("rating:desc", 4.5, 1L).encode();
+
+        assertThrows(ValidationException.class, () -> attractionService.getAttractionsInCity(1L, 40.7128,
+                -74.0060, null, null, 10, "distance", "asc", cursor, SparseFieldset.ALL));
+        assertThrows(ValidationException.class, () -> attractionService.getAttractionsInCity(1L, 40.7128,
+                -74.0060, null, null, 10, "distance", "asc", "not a cursor", SparseFieldset.ALL));
+    }
+
+    @Test
+    public void testExportAttractionsInCityPassesRowsToConsumer() {
+        when(attractionRepository.streamByCityId(1L)).thenReturn(Stream.of(projection, projection));
+        List<AttractionProjection> exported = new ArrayList<>();
+
+        attractionService.exportAttractionsInCity(1L, exported::add);
+
+        assertEquals(List.of(projection, projection), exported);
+    }
+
+    @Test
+    public void testGetKNearestAttractionsConfirmsIndexCandidatesInBatches() {
+        AttractionProjection farther = new AttractionProjection(4L, "Лувр", 1L, "Архитектурное сооружение",
+                1L, "Париж", "Франция", 40.72, -74.01, 20L, 4, 1.5);
+        ArgumentCaptor<AttractionSearchCriteria> captor = ArgumentCaptor.forClass(AttractionSearchCriteria.class);
+        when(spatialIndex.isReady()).thenReturn(true);
+        when(spatialIndex.getMaxCandidates()).thenReturn(100);
+        when(spatialIndex.findNearest(40.7128, -74.0060, 2)).thenReturn(List.of(1L, 2L));
+        when(spatialIndex.findNearest(40.7128, -74.0060, 4)).thenReturn(List.of(1L, 2L, 3L, 4L));
+        when(attractionRepository.search(captor.capture()))
+                .thenReturn(List.of(projection))
+                .thenReturn(List.of(farther));
+
+        var result = attractionService.getKNearestAttractions(40.7128, -74.0060, 2,
+                1L, 4.0, "distance", "desc", SparseFieldset.ALL);
+
+        assertEquals(List.of(farther, projection), result);
+        List<AttractionSearchCriteria> batches = captor.getAllValues();
+        assertEquals(List.of(1L, 2L), batches.get(0).getIds());
+        assertEquals(2, batches.get(0).getLimit());
+        assertEquals(List.of(3L, 4L), batches.get(1).getIds());
+        assertEquals(1, batches.get(1).getLimit());
+        assertEquals(1L, batches.get(1).getCategoryId());
+        assertEquals(4.0, batches.get(1).getMinRating());
+    }
+
+    @Test
+    public void testGetKNearestAttractionsStopsWhenIndexIsExhausted() {
+        when(spatialIndex.isReady()).thenReturn(true);
+        when(spatialIndex.getMaxCandidates()).thenReturn(100);
+        when(spatialIndex.findNearest(40.7128, -74.0060, 5)).thenReturn(List.of(1L));
+        when(attractionRepository.search(any(AttractionSearchCriteria.class))).thenReturn(List.of(projection));
+
+        var result = attractionService.getKNearestAttractions(40.7128, -74.0060, 5,
+                null, null, "distance", "asc", SparseFieldset.ALL);
+
+        assertEquals(List.of(projection), result);
+        verify(spatialIndex, times(1)).findNearest(anyDouble(), anyDouble(), anyInt());
+    }
+
+    @Test
+    public void testGetKNearestAttractionsWithoutIndexExpandsRadius() {
+        ArgumentCaptor<AttractionSearchCriteria> captor = ArgumentCaptor.forClass(AttractionSearchCriteria.class);
+        when(spatialIndex.getMaxCandidates()).thenReturn(100);
+        when(attractionRepository.search(captor.capture()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(projection));
+
+        var result = attractionService.getKNearestAttractions(40.7128, -74.0060, 1,
+                null, null, "distance", "asc", SparseFieldset.ALL);
+
+        assertEquals(List.of(projection), result);
+        assertEquals(1.0, captor.getAllValues().get(0).getRadius());
+        assertEquals(4.0, captor.getAllValues().get(1).getRadius());
+        assertNotNull(captor.getAllValues().get(1).getBoundingBox());
+    }
+
+    @Test
+    public void testGetKNearestAttractionsWithInvalidK() {
+        when(spatialIndex.getMaxCandidates()).thenReturn(100);
+
+        assertThrows(ValidationException.class, () -> attractionService.getKNearestAttractions(40.7128,
+                -74.0060, 0, null, null, "distance", "asc", SparseFieldset.ALL));
+        assertThrows(ValidationException.class, () -> attractionService.getKNearestAttractions(40.7128,
+                -74.0060, 101, null, null, "distance", "asc", SparseFieldset.ALL));
+        verify(attractionRepository, never()).search(any(AttractionSearchCriteria.class));
+    }
+
+    @Test
+    public void testGetNearestAttractionsUsesCacheWithSnappedCoordinates() {
+        CursorPageDto<AttractionProjection> cached = new CursorPageDto<>(List.of(projection), null);
+        when(nearbyCache.isEnabled()).thenReturn(true);
+        when(nearbyCache.snap(40.71283)).thenReturn(40.713);
+        when(nearbyCache.snap(-74.00601)).thenReturn(-74.006);
+        when(nearbyCache.get(eq(new NearbyQueryKey(40.713, -74.006, 10.0, null, null, "distance", "asc",
+                10, null, true, true)), any())).thenReturn(cached);
+
+        var result = attractionService.getNearestAttractions(40.71283, -74.00601, 10.0,
+                null, null, 10, "distance", "asc", null, SparseFieldset.ALL);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(GeoUtils.distance(40.71283, -74.00601, 40.7128, -74.0060), result.getItems().get(0).distance());
+        verify(attractionRepository, never()).search(any(AttractionSearchCriteria.class));
+    }
+
+    @Test
+    public void testGetNearestAttractionsFromCacheFindsAttractionsNearRadiusEdgeOfUserLocation() {
+        // Пользователь в (0, 0.0004), округленная точка (0, 0). C внутри радиуса от пользователя, но вне радиуса
+        // от округленной точки; D внутри расширенного радиуса округленной точки, но вне радиуса от пользователя
+        AttractionProjection a = nearbyProjection(1L, -0.0004);
+        AttractionProjection b = nearbyProjection(2L, 0.0006);
+        AttractionProjection c = nearbyProjection(3L, 0.0011);
+        AttractionProjection d = nearbyProjection(4L, -0.0012);
+        Map<String, CursorPageDto<AttractionProjection>> pages = new HashMap<>();
+        pages.put(null, new CursorPageDto<>(List.of(a, b), "snapped-2"));
+        pages.put("snapped-2", new CursorPageDto<>(List.of(c, d), null));
+        ArgumentCaptor<NearbyQueryKey> keys = ArgumentCaptor.forClass(NearbyQueryKey.class);
+        when(nearbyCache.isEnabled()).thenReturn(true);
+        when(nearbyCache.snap(0.0)).thenReturn(0.0);
+        when(nearbyCache.snap(0.0004)).thenReturn(0.0);
+        when(nearbyCache.maxSnapDistance()).thenReturn(0.05);
+        when(nearbyCache.get(keys.capture(), any())).thenAnswer(invocation ->
+                pages.get(invocation.<NearbyQueryKey>getArgument(0).cursor()));
+
+        var result = attractionService.getNearestAttractions(0.0, 0.0004, 0.1,
+                null, null, 2, "distance", "asc", null, SparseFieldset.ALL);
+
+        assertEquals(List.of(2L, 3L), result.getItems().stream().map(AttractionProjection::id).toList());
+        assertEquals(GeoUtils.distance(0.0, 0.0004, 0.0, 0.0006), result.getItems().get(0).distance());
+        assertEquals(GeoUtils.distance(0.0, 0.0004, 0.0, 0.0011), result.getItems().get(1).distance());
+        assertNotNull(result.getNextCursor());
+        assertEquals(0.15, keys.getValue().radius(), 1e-9);
+        verify(attractionRepository, never()).search(any(AttractionSearchCriteria.class));
+
+        // Вторая страница начинается от курсора, сдвинутого на погрешность округления
+        KeysetCursor after = KeysetCursor.decode(result.getNextCursor(), "distance:asc");
+        String shifted = new KeysetCursor("distance:asc", after.value() - 0.05, Long.MIN_VALUE).encode();
+        pages.put(shifted, new CursorPageDto<>(List.of(a, b), "snapped-2"));
+
+        var next = attractionService.getNearestAttractions(0.0, 0.0004, 0.1,
+                null, null, 2, "distance", "asc", result.getNextCursor(), SparseFieldset.ALL);
+
+        assertEquals(List.of(1L), next.getItems().stream().map(AttractionProjection::id).toList());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    public void testUpdateRatingInvalidatesNearbyCache() {
+        when(nearbyCache.isEnabled()).thenReturn(true);
+        when(attractionRepository.findPointById(1L)).thenReturn(Optional.of(new AttractionPoint(1L, 48.85, 2.29)));
+
+        attractionService.updateRating(1L, null, 5);
+
+        verify(nearbyCache, times(1)).invalidate(48.85, 2.29);
+    }
+
+    private AttractionProjection nearbyProjection(Long id, double lon) {
+        return new AttractionProjection(id, "Attraction " + id, 1L, "Category", 1L, "City", "Country",
+                0.0, lon, 9L, 2, GeoUtils.distance(0.0, 0.0, 0.0, lon));
     }
 }
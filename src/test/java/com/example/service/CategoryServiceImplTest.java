@@ -10,6 +10,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -63,7 +65,7 @@ public class CategoryServiceImplTest {
         updatedCategory.setId(1L);
         updatedCategory.setName("Не Историческое место");
 
-        when(categoryRepository.existsById(1L)).thenReturn(true);
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
         when(categoryRepository.save(any(Category.class))).thenReturn(updatedCategory);
 
         Category result = categoryService.update(1L, updatedCategory);
@@ -76,11 +78,11 @@ public class CategoryServiceImplTest {
 
     @Test
     public void testDeleteCategory() {
-        when(categoryRepository.existsById(1L)).thenReturn(true);
+        when(categoryRepository.deleteDirectlyById(1L)).thenReturn(1);
 
         categoryService.delete(1L);
 
-        verify(categoryRepository, times(1)).deleteById(1L);
+        verify(categoryRepository, times(1)).deleteDirectlyById(1L);
     }
 
     @Test
@@ -94,7 +96,7 @@ public class CategoryServiceImplTest {
 
     @Test
     public void testDeleteCategoryNotFound() {
-        when(categoryRepository.existsById(1L)).thenReturn(false);
+        when(categoryRepository.deleteDirectlyById(1L)).thenReturn(0);
 
         assertThrows(RuntimeException.class, () -> categoryService.delete(1L));
     }
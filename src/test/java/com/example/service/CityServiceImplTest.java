@@ -78,11 +78,11 @@ public class CityServiceImplTest {
 
     @Test
     public void testDeleteCity() {
-        when(cityRepository.existsById(1L)).thenReturn(true);
+        when(cityRepository.deleteDirectlyById(1L)).thenReturn(1);
 
         cityService.delete(1L);
 
-        verify(cityRepository, times(1)).deleteById(1L);
+        verify(cityRepository, times(1)).deleteDirectlyById(1L);
     }
 
     @Test
@@ -98,7 +98,7 @@ public class CityServiceImplTest {
 
     @Test
     public void testDeleteCityNotFound() {
-        when(cityRepository.existsById(1L)).thenReturn(false);
+        when(cityRepository.deleteDirectlyById(1L)).thenReturn(0);
 
         assertThrows(RuntimeException.class, () -> cityService.delete(1L));
     }
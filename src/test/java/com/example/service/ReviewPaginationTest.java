@@ -0,0 +1,155 @@
+package com.example.service;
+
+import com.example.dto.fields.SparseFieldset;
+import com.example.dto.page.CountedCursorPageDto;
+import com.example.model.Attraction;
+import com.example.model.AttractionReview;
+import com.example.model.Category;
+import com.example.model.City;
+import com.example.model.Location;
+import com.example.model.User;
+import com.example.repository.AttractionReviewRepository;
+import com.example.support.EmbeddedPostgresTest;
+import com.example.support.QueryPlans;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.example.support.QueryPlans.indexCondition;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет на встроенном PostgreSQL постраничную выборку отзывов по курсору: обход всех страниц
+ * в обоих направлениях возвращает каждый отзыв ровно один раз в порядке (оценка, идентификатор),
+ * а общее количество отзывов из агрегата учитывает и отзывы без оценки. Страница после курсора
+ * читается из индекса начиная с позиции курсора, без фильтрации предыдущих строк.
+ */
+@SpringBootTest(properties = {"city-guide.spatial-index.enabled=false", QueryPlans.STATEMENT_INSPECTOR})
+class ReviewPaginationTest extends EmbeddedPostgresTest {
+    private static final Integer[] RATINGS = {5, null, 3, 5, null, 1, 3, 4, 5, null, 2};
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Autowired
+    private AttractionService attractionService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private AttractionReviewRepository reviewRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Attraction attraction;
+    private List<AttractionReview> reviews;
+
+    @BeforeEach
+    void setUp() {
+        attraction = attractionService.create(attraction());
+        reviews = new ArrayList<>();
+        for (int i = 0; i < RATINGS.length; i++) {
+            AttractionReview review = new AttractionReview();
+            review.setAuthor(user());
+            review.setAttraction(attraction);
+            review.setRating(RATINGS[i]);
+            reviews.add(i % 2 == 0
+                    ? reviewService.create(review)
+                    : reviewService.createAll(List.of(review)).get(0).getItem());
+        }
+    }
+
+    @Test
+    void getReviewForAttraction_WalksAllPagesInKeyOrder() {
+        Comparator<AttractionReview> ascending = Comparator
+                .comparing(AttractionReview::getRating, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(AttractionReview::getId);
+
+        assertEquals(ids(reviews.stream().sorted(ascending).toList()), walk("asc", 3));
+        assertEquals(ids(reviews.stream().sorted(ascending.reversed()).toList()), walk("desc", 3));
+        assertEquals(ids(reviews.stream().sorted(ascending.reversed()).toList()), walk("desc", 100));
+    }
+
+    @Test
+    void getReviewForAttraction_TotalCountFollowsDeletes() {
+        assertEquals(RATINGS.length, reviewService.getReviewForAttraction(attraction.getId(), "desc", 1, null,
+                SparseFieldset.ALL).getTotalCount());
+
+        reviewService.delete(reviews.get(0).getId());
+        reviewService.delete(reviews.get(1).getId());
+
+        assertEquals(RATINGS.length - 2, reviewService.getReviewForAttraction(attraction.getId(), "desc", 1, null,
+                SparseFieldset.ALL).getTotalCount());
+    }
+
+    @Test
+    void pageAfterDeepCursor_StartsIndexRangeAtCursor() {
+        AttractionReview last = reviews.stream()
+                .filter(review -> review.getRating() != null)
+                .max(Comparator.comparing(AttractionReview::getRating).thenComparing(AttractionReview::getId))
+                .orElseThrow();
+        long attId = attraction.getId();
+
+        String ascPlan = QueryPlans.explain(jdbcTemplate, () -> reviewRepository
+                .findPageByAttractionIdOrderByRatingAsc(attId, last.getRating(), last.getId(), Limit.of(4)));
+        String descPlan = QueryPlans.explain(jdbcTemplate, () -> reviewRepository
+                .findPageByAttractionIdOrderByRatingDesc(attId, 0, last.getId(), Limit.of(4)));
+
+        for (String plan : List.of(ascPlan, descPlan)) {
+            assertTrue(plan.contains("attraction_reviews_attraction_rating_key_id_idx"), plan);
+            assertTrue(indexCondition(plan).contains("ROW("), plan);
+            assertTrue(plan.lines().noneMatch(line -> line.trim().startsWith("Filter:")), plan);
+        }
+    }
+
+    private List<Long> walk(String direction, int limit) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            CountedCursorPageDto<AttractionReview> page =
+                    reviewService.getReviewForAttraction(attraction.getId(), direction, limit, cursor,
+                            SparseFieldset.ALL);
+            assertEquals(RATINGS.length, page.getTotalCount());
+            ids.addAll(ids(page.getItems()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private List<Long> ids(List<AttractionReview> reviews) {
+        return reviews.stream().map(AttractionReview::getId).toList();
+    }
+
+    private Attraction attraction() {
+        Category category = new Category();
+        category.setId(1L);
+        City city = new City();
+        city.setId(1L);
+        Location location = new Location();
+        location.setLat(59.9398);
+        location.setLon(30.3146);
+        Attraction attraction = new Attraction();
+        attraction.setName("Hermitage");
+        attraction.setCategory(category);
+        attraction.setCity(city);
+        attraction.setLocation(location);
+        return attraction;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setName("Reviewer");
+        user.setEmail("reviewer" + System.nanoTime() + "@mail.ru");
+        return userService.create(user);
+    }
+}
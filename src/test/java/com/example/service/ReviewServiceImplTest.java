@@ -1,26 +1,43 @@
 package com.example.service;
 
+import com.example.dto.bulk.BulkItemResultDto;
+import com.example.dto.fields.SparseFieldset;
+import com.example.dto.review.ReviewAuthorKey;
 import com.example.error.exception.AccessDeniedException;
+import com.example.error.exception.EntityNotFoundException;
 import com.example.error.exception.ValidationException;
+import com.example.geo.AttractionPoint;
 import com.example.model.Attraction;
 import com.example.model.AttractionReview;
+import com.example.model.Location;
 import com.example.model.User;
 import com.example.repository.AttractionReviewRepository;
+import com.example.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyList;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -37,6 +54,9 @@ public class ReviewServiceImplTest {
     @Mock
     private AttractionServiceImpl attractionService;
 
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private ReviewServiceImpl reviewService;
 
@@ -46,6 +66,7 @@ public class ReviewServiceImplTest {
 
     @BeforeEach
     public void setUp() {
+        reviewService.setEntityManager(entityManager);
         user = new User();
         user.setId(1L);
         user.setName("Василий");
@@ -53,6 +74,10 @@ public class ReviewServiceImplTest {
         attraction = new Attraction();
         attraction.setId(1L);
         attraction.setName("Эйфелева башня");
+        Location location = new Location();
+        location.setLat(48.8584);
+        location.setLon(2.2945);
+        attraction.setLocation(location);
 
         attractionReview = new AttractionReview();
         attractionReview.setId(1L);
@@ -64,23 +89,64 @@ public class ReviewServiceImplTest {
 
     @Test
     public void testCreateReview() {
-        when(reviewRepository.findByAttractionIdAndAuthorId(1L, 1L)).thenReturn(Optional.empty());
-        when(userService.getById(1L)).thenReturn(user);
-        when(attractionService.getById(1L)).thenReturn(attraction);
-        when(reviewRepository.save(any(AttractionReview.class))).thenReturn(attractionReview);
+        when(reviewRepository.insertIfAbsent("Вау!", 5, 1L, 1L)).thenReturn(Optional.of(1L));
+        when(reviewRepository.findById(1L)).thenReturn(Optional.of(attractionReview));
 
         AttractionReview result = reviewService.create(attractionReview);
 
         assertNotNull(result);
         assertEquals("Вау!", result.getComment());
-        verify(reviewRepository, times(1)).save(any(AttractionReview.class));
+        verify(attractionService, times(1)).ratingChanged(new AttractionPoint(1L, 48.8584, 2.2945));
+        verify(userService, never()).getById(anyLong());
+        verify(attractionService, never()).getById(anyLong());
+    }
+
+    @Test
+    public void testCreateAllReportsDuplicatesAndMissingReferences() {
+        User reviewer = new User();
+        reviewer.setId(2L);
+        when(userService.getAllById(any())).thenReturn(List.of(user, reviewer));
+        when(attractionService.getAllById(any())).thenReturn(List.of(attraction));
+        when(reviewRepository.findAuthorKeys(any(), any())).thenReturn(List.of(new ReviewAuthorKey(1L, 2L)));
+        when(reviewRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        AttractionReview existing = review(1L, 2L);
+        AttractionReview repeated = review(1L, 1L);
+        AttractionReview unknownAttraction = review(7L, 1L);
+
+        List<BulkItemResultDto<AttractionReview>> results = reviewService.createAll(
+                List.of(attractionReview, existing, repeated, unknownAttraction));
+
+        assertEquals(List.of("CREATED", "BAD_REQUEST", "BAD_REQUEST", "NOT_FOUND"),
+                results.stream().map(BulkItemResultDto::getStatus).toList());
+        assertEquals(List.of("Attraction with ID=7 not found"), results.get(3).getErrors());
+        verify(reviewRepository, times(1)).saveAll(List.of(attractionReview));
+        verify(entityManager, times(1)).flush();
+        verify(entityManager, times(1)).detach(attractionReview);
+        verify(entityManager, never()).clear();
+        verify(attractionService, times(1)).addReviews(List.of(attractionReview));
     }
 
     @Test
     public void testCreateReviewAlreadyExists() {
-        when(reviewRepository.findByAttractionIdAndAuthorId(1L, 1L)).thenReturn(Optional.of(attractionReview));
+        when(reviewRepository.insertIfAbsent("Вау!", 5, 1L, 1L)).thenReturn(Optional.empty());
 
         assertThrows(ValidationException.class, () -> reviewService.create(attractionReview));
+        verify(attractionService, never()).ratingChanged(any());
+    }
+
+    @Test
+    public void testCreateReviewWithMissingReferences() {
+        when(reviewRepository.insertIfAbsent("Вау!", 5, 1L, 1L))
+                .thenThrow(foreignKeyViolation("attraction_reviews_user_fk"))
+                .thenThrow(foreignKeyViolation("attraction_reviews_fk"));
+
+        EntityNotFoundException user = assertThrows(EntityNotFoundException.class,
+                () -> reviewService.create(attractionReview));
+        EntityNotFoundException attraction = assertThrows(EntityNotFoundException.class,
+                () -> reviewService.create(attractionReview));
+
+        assertEquals("User with ID=1 not found", user.getMessage());
+        assertEquals("Attraction with ID=1 not found", attraction.getMessage());
     }
 
     @Test
@@ -111,6 +177,7 @@ public class ReviewServiceImplTest {
         assertEquals("Не Вау!", result.getComment());
         assertEquals(4, result.getRating());
         verify(reviewRepository, times(1)).save(any(AttractionReview.class));
+        verify(attractionService, times(1)).updateRating(1L, 5, 4);
     }
 
     @Test
@@ -128,21 +195,112 @@ public class ReviewServiceImplTest {
 
     @Test
     public void testDeleteReview() {
-        when(reviewRepository.existsById(1L)).thenReturn(true);
+        AttractionPoint point = new AttractionPoint(1L, 48.85, 2.29);
+        when(reviewRepository.deleteAndSubtractRatingById(1L)).thenReturn(Optional.of(point));
 
         reviewService.delete(1L);
 
-        verify(reviewRepository, times(1)).deleteById(1L);
+        verify(reviewRepository, times(1)).deleteAndSubtractRatingById(1L);
+        verify(attractionService, times(1)).ratingChanged(point);
+    }
+
+    @Test
+    public void testDeleteReviewNotFound() {
+        when(reviewRepository.deleteAndSubtractRatingById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> reviewService.delete(1L));
+        verify(attractionService, never()).ratingChanged(any());
     }
 
     @Test
     public void testGetReviewsForAttraction() {
-        when(reviewRepository.findByAttractionId(1L, "asc")).thenReturn(List.of(attractionReview));
+        when(attractionService.getReviewCount(1L)).thenReturn(1L);
+        when(reviewRepository.findPageByAttractionIdOrderByRatingAsc(1L, 0, Long.MIN_VALUE, Limit.of(11)))
+                .thenReturn(List.of(attractionReview));
 
-        var result = reviewService.getReviewForAttraction(1L, "asc");
+        var result = reviewService.getReviewForAttraction(1L, "asc", 10, null, SparseFieldset.ALL);
 
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
+        assertEquals(List.of(attractionReview), result.getItems());
+        assertNull(result.getNextCursor());
+        assertEquals(1, result.getTotalCount());
+    }
+
+    @Test
+    public void testGetReviewsForAttractionDescending() {
+        when(attractionService.getReviewCount(1L)).thenReturn(1L);
+        when(reviewRepository.findPageByAttractionIdOrderByRatingDesc(1L, Integer.MAX_VALUE, Long.MAX_VALUE,
+                Limit.of(11))).thenReturn(List.of(attractionReview));
+
+        var result = reviewService.getReviewForAttraction(1L, "DESC", 10, null, SparseFieldset.ALL);
+
+        assertEquals(List.of(attractionReview), result.getItems());
+        verify(reviewRepository, never()).findPageByAttractionIdOrderByRatingAsc(anyLong(), anyInt(), anyLong(),
+                any());
+    }
+
+    @Test
+    public void testGetReviewsForAttractionWithoutAuthorField() {
+        when(attractionService.getReviewCount(1L)).thenReturn(1L);
+        when(reviewRepository.findPageWithoutAuthorByAttractionIdOrderByRatingDesc(1L, Integer.MAX_VALUE,
+                Long.MAX_VALUE, Limit.of(11))).thenReturn(List.of(attractionReview));
+
+        var result = reviewService.getReviewForAttraction(1L, "desc", 10, null, SparseFieldset.of("id", "rating"));
+
+        assertEquals(List.of(attractionReview), result.getItems());
+        verify(reviewRepository, never()).findPageByAttractionIdOrderByRatingDesc(anyLong(), anyInt(), anyLong(),
+                any());
+    }
+
+    @Test
+    public void testGetReviewsForAttractionContinuesAfterCursor() {
+        AttractionReview unrated = review(1L, 2L);
+        unrated.setId(7L);
+        unrated.setRating(null);
+        when(attractionService.getReviewCount(1L)).thenReturn(3L);
+        when(reviewRepository.findPageByAttractionIdOrderByRatingAsc(1L, 0, Long.MIN_VALUE, Limit.of(2)))
+                .thenReturn(List.of(unrated, attractionReview));
+
+        var first = reviewService.getReviewForAttraction(1L, "asc", 1, null, SparseFieldset.ALL);
+
+        assertEquals(List.of(unrated), first.getItems());
+        assertEquals(3, first.getTotalCount());
+        assertNotNull(first.getNextCursor());
+
+        when(reviewRepository.findPageByAttractionIdOrderByRatingAsc(1L, 0, 7L, Limit.of(2)))
+                .thenReturn(List.of(attractionReview));
+
+        var second = reviewService.getReviewForAttraction(1L, "asc", 1, first.getNextCursor(), SparseFieldset.ALL);
+
+        assertEquals(List.of(attractionReview), second.getItems());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    public void testGetReviewsForAttractionRejectsCursorOfOtherDirection() {
+        String cursor = new KeysetCursor("rating:asc", 5, 1L).encode();
+
+        assertThrows(ValidationException.class, () -> reviewService.getReviewForAttraction(1L, "desc", 10, cursor,
+                SparseFieldset.ALL));
+        assertThrows(ValidationException.class, () -> reviewService.getReviewForAttraction(1L, "desc", 0, null,
+                SparseFieldset.ALL));
+        assertThrows(ValidationException.class, () -> reviewService.getReviewForAttraction(1L, "desc",
+                ReviewServiceImpl.MAX_PAGE_SIZE + 1, null, SparseFieldset.ALL));
+    }
+
+    private AttractionReview review(long attractionId, long authorId) {
+        Attraction reviewed = new Attraction();
+        reviewed.setId(attractionId);
+        User author = new User();
+        author.setId(authorId);
+        AttractionReview review = new AttractionReview();
+        review.setAttraction(reviewed);
+        review.setAuthor(author);
+        review.setRating(4);
+        return review;
+    }
+
+    private DataIntegrityViolationException foreignKeyViolation(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("foreign key violation", new SQLException(), constraint));
     }
 }
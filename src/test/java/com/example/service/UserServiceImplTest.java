@@ -1,6 +1,10 @@
 package com.example.service;
 
+import com.example.cache.CacheInvalidation;
+import com.example.cache.CacheInvalidationBus;
+import com.example.cache.NearbyResultCache;
 import com.example.model.User;
+import com.example.repository.AttractionRepository;
 import com.example.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,6 +28,15 @@ public class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private AttractionRepository attractionRepository;
+
+    @Mock
+    private NearbyResultCache nearbyCache;
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -95,10 +108,12 @@ public class UserServiceImplTest {
 
     @Test
     public void testDeleteUser() {
-        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.deleteDirectlyById(1L)).thenReturn(1);
 
         userService.delete(1L);
 
-        verify(userRepository, times(1)).deleteById(1L);
+        verify(attractionRepository, times(1)).subtractRatingsOfAuthor(1L);
+        verify(userRepository, times(1)).deleteDirectlyById(1L);
+        verify(invalidationBus, times(1)).publish(CacheInvalidation.nearbyAll());
     }
 }
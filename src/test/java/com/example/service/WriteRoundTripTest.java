@@ -0,0 +1,272 @@
+package com.example.service;
+
+import com.example.error.exception.EntityNotFoundException;
+import com.example.error.exception.ValidationException;
+import com.example.model.Attraction;
+import com.example.model.AttractionReview;
+import com.example.model.Category;
+import com.example.model.City;
+import com.example.model.Location;
+import com.example.model.User;
+import com.example.support.EmbeddedPostgresTest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет на встроенном PostgreSQL количество запросов Hibernate при создании, удалении и изменении сущностей
+ * и то, что создание и удаление одним запросом сохраняют согласованность связанных данных.
+ */
+@SpringBootTest(properties = "city-guide.spatial-index.enabled=false")
+class WriteRoundTripTest extends EmbeddedPostgresTest {
+    @Autowired
+    private CityServiceImpl cityService;
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Autowired
+    private AttractionService attractionService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void delete_City_ExecutesSingleStatement() {
+        City city = new City();
+        city.setName("Nice");
+        city.setCountry("France");
+        Long id = cityService.create(city).getId();
+        statistics.clear();
+
+        cityService.delete(id);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertThrows(EntityNotFoundException.class, () -> cityService.getById(id));
+    }
+
+    @Test
+    void delete_MissingCity_ThrowsEntityNotFoundException() {
+        assertThrows(EntityNotFoundException.class, () -> cityService.delete(999_999L));
+    }
+
+    @Test
+    void delete_Attraction_RemovesLocationInSingleStatement() {
+        Attraction attraction = attractionService.create(attraction("Sainte-Chapelle"));
+        Long locationId = attraction.getLocation().getId();
+        statistics.clear();
+
+        attractionService.delete(attraction.getId());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, count("SELECT COUNT(*) FROM locations WHERE id = ?", locationId));
+        assertThrows(EntityNotFoundException.class, () -> attractionService.delete(attraction.getId()));
+    }
+
+    @Test
+    void delete_Review_SubtractsRatingInSingleStatement() {
+        Attraction attraction = attractionService.create(attraction("Pantheon"));
+        AttractionReview review = new AttractionReview();
+        review.setAuthor(user());
+        review.setAttraction(attraction);
+        review.setRating(4);
+        Long id = reviewService.create(review).getId();
+        statistics.clear();
+
+        reviewService.delete(id);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        Map<String, Object> rating = jdbcTemplate.queryForMap(
+                "SELECT rating_sum, rating_count FROM attraction WHERE id = ?", attraction.getId());
+        assertEquals(0L, ((Number) rating.get("rating_sum")).longValue());
+        assertEquals(0, ((Number) rating.get("rating_count")).intValue());
+        assertThrows(EntityNotFoundException.class, () -> reviewService.delete(id));
+    }
+
+    @Test
+    void create_Review_InsertsAndUpdatesRatingInSingleStatement() {
+        Attraction attraction = attractionService.create(attraction("Louvre"));
+        AttractionReview review = new AttractionReview();
+        review.setAuthor(user());
+        review.setAttraction(attraction);
+        review.setRating(5);
+        statistics.clear();
+
+        AttractionReview created = reviewService.create(review);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(review.getAuthor().getId(), created.getAuthor().getId());
+        assertEquals(review.getAuthor().getEmail(), created.getAuthor().getEmail());
+        assertEquals(attraction.getName(), created.getAttraction().getName());
+        assertEquals(attraction.getCity().getId(), created.getAttraction().getCity().getId());
+        assertEquals(attraction.getLocation().getLat(), created.getAttraction().getLocation().getLat());
+        Map<String, Object> rating = jdbcTemplate.queryForMap(
+                "SELECT rating_sum, rating_count, review_count FROM attraction WHERE id = ?", attraction.getId());
+        assertEquals(5L, ((Number) rating.get("rating_sum")).longValue());
+        assertEquals(1, ((Number) rating.get("rating_count")).intValue());
+        assertEquals(1, ((Number) rating.get("review_count")).intValue());
+        assertThrows(ValidationException.class, () -> reviewService.create(review));
+    }
+
+    @Test
+    void create_ReviewWithMissingReferences_ThrowsEntityNotFoundException() {
+        Attraction attraction = attractionService.create(attraction("Orsay"));
+        AttractionReview missingAuthor = new AttractionReview();
+        missingAuthor.setAuthor(new User());
+        missingAuthor.getAuthor().setId(999_999L);
+        missingAuthor.setAttraction(attraction);
+        AttractionReview missingAttraction = new AttractionReview();
+        missingAttraction.setAuthor(user());
+        missingAttraction.setAttraction(new Attraction());
+        missingAttraction.getAttraction().setId(999_999L);
+
+        EntityNotFoundException author = assertThrows(EntityNotFoundException.class,
+                () -> reviewService.create(missingAuthor));
+        EntityNotFoundException attractionNotFound = assertThrows(EntityNotFoundException.class,
+                () -> reviewService.create(missingAttraction));
+
+        assertEquals("User with ID=999999 not found", author.getMessage());
+        assertEquals("Attraction with ID=999999 not found", attractionNotFound.getMessage());
+    }
+
+    @Test
+    void create_ConcurrentDuplicateReviews_CreatesOnlyOne() throws Exception {
+        Attraction attraction = attractionService.create(attraction("Versailles"));
+        User author = user();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                AttractionReview review = new AttractionReview();
+                review.setAuthor(author);
+                review.setAttraction(attraction);
+                review.setRating(4);
+                start.await();
+                try {
+                    reviewService.create(review);
+                    return true;
+                } catch (ValidationException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int created = 0;
+        for (Future<Boolean> result : results) {
+            created += result.get() ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertEquals(1, created);
+        assertEquals(1, count("SELECT COUNT(*) FROM attraction_reviews WHERE attraction_id = ?", attraction.getId()));
+        assertEquals(1, count("SELECT review_count FROM attraction WHERE id = ?", attraction.getId()));
+    }
+
+    @Test
+    void createAll_Reviews_KeepsEntitiesLoadedEarlierInTransactionManaged() {
+        Attraction attraction = attractionService.create(attraction("Conciergerie"));
+        User author = user();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Attraction loaded = entityManager.find(Attraction.class, attraction.getId());
+            AttractionReview review = new AttractionReview();
+            review.setAuthor(author);
+            review.setAttraction(loaded);
+            review.setRating(3);
+
+            reviewService.createAll(List.of(review));
+
+            assertFalse(entityManager.contains(review));
+            assertTrue(entityManager.contains(loaded));
+            assertEquals(1L, loaded.getCity().getId());
+            assertEquals(48.8566, loaded.getLocation().getLat());
+        });
+    }
+
+    @Test
+    void update_AttractionName_LoadsOnceAndUpdatesOnlyAttraction() {
+        Attraction attraction = attractionService.create(attraction("Opera"));
+        Attraction patch = new Attraction();
+        patch.setName("Opera Garnier");
+        patch.setCategory(new Category());
+        patch.setCity(new City());
+        statistics.clear();
+
+        attractionService.update(attraction.getId(), patch);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals("Opera Garnier", jdbcTemplate.queryForObject("SELECT name FROM attraction WHERE id = ?",
+                String.class, attraction.getId()));
+    }
+
+    private Attraction attraction(String name) {
+        Category category = new Category();
+        category.setId(1L);
+        City city = new City();
+        city.setId(1L);
+        Location location = new Location();
+        location.setLat(48.8566);
+        location.setLon(2.3522);
+        Attraction attraction = new Attraction();
+        attraction.setName(name);
+        attraction.setCategory(category);
+        attraction.setCity(city);
+        attraction.setLocation(location);
+        return attraction;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setName("Reviewer");
+        user.setEmail("reviewer" + System.nanoTime() + "@mail.ru");
+        return userService.create(user);
+    }
+
+    private int count(String sql, Object... args) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return count == null ? 0 : count;
+    }
+}
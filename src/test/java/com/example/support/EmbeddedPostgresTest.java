@@ -0,0 +1,46 @@
+package com.example.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Базовый класс интеграционных тестов на встроенном PostgreSQL.
+ * <p>
+ * Экземпляр PostgreSQL запускается один раз на JVM и останавливается при ее завершении, поэтому
+ * тестовые классы с одинаковой конфигурацией {@code @SpringBootTest} переиспользуют и базу, и контекст
+ * Spring из кэша. База общая: тесты не должны рассчитывать на то, что в таблицах есть только их данные.
+ * <p>
+ * Статистика Hibernate, по которой тесты считают SQL-запросы, включается только в тестах: в приложении
+ * она выключена, чтобы не тратить время на ее сбор в каждой сессии.
+ */
+public abstract class EmbeddedPostgresTest {
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, "embedded-postgres-shutdown"));
+            return postgres;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
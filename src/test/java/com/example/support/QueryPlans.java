@@ -0,0 +1,89 @@
+package com.example.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Планы выполнения (EXPLAIN) SQL-запросов, которые Hibernate формирует для методов репозиториев.
+ * <p>
+ * SQL перехватывается {@link CapturingStatementInspector}, который подключается к тестовому контексту
+ * свойством {@link #STATEMENT_INSPECTOR}, и объясняется как обобщенный план, не зависящий от значений
+ * параметров. Явная сортировка при этом запрещена ({@code enable_sort = off}): планировщик обходится
+ * без узла Sort всегда, когда порядок может дать индекс, поэтому оставшийся в плане Sort означает,
+ * что ORDER BY не может быть выполнен по индексу.
+ */
+public final class QueryPlans {
+    /**
+     * Свойство {@code @SpringBootTest}, подключающее перехват SQL-запросов.
+     */
+    public static final String STATEMENT_INSPECTOR = "spring.jpa.properties.hibernate.session_factory"
+            + ".statement_inspector=com.example.support.QueryPlans$CapturingStatementInspector";
+
+    private QueryPlans() {
+    }
+
+    /**
+     * Выполняет запрос репозитория и возвращает обобщенный план последнего выполненного SQL-запроса.
+     */
+    public static String explain(JdbcTemplate jdbcTemplate, Runnable query) {
+        CapturingStatementInspector.STATEMENTS.clear();
+        query.run();
+        List<String> statements = CapturingStatementInspector.STATEMENTS;
+        String sql = statements.get(statements.size() - 1);
+
+        StringBuilder positional = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                positional.append('$').append(++parameter);
+            } else {
+                positional.append(c);
+            }
+        }
+        String execute = parameter > 0
+                ? "EXECUTE sort_plan(" + String.join(", ", Collections.nCopies(parameter, "'1'")) + ")"
+                : "EXECUTE sort_plan";
+
+        return jdbcTemplate.execute((Statement statement) -> {
+            statement.execute("SET plan_cache_mode = force_generic_plan");
+            statement.execute("SET enable_sort = off");
+            statement.execute("PREPARE sort_plan AS " + positional);
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = statement.executeQuery("EXPLAIN " + execute)) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            statement.execute("DEALLOCATE sort_plan");
+            statement.execute("RESET ALL");
+            return plan.toString();
+        });
+    }
+
+    /**
+     * Возвращает условие, по которому выбирается диапазон индекса ({@code Index Cond}).
+     * Условия, проверяемые после чтения строк индекса, выводятся отдельно как {@code Filter}.
+     */
+    public static String indexCondition(String plan) {
+        return plan.lines()
+                .filter(line -> line.contains("Index Cond:"))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No index condition in plan:\n" + plan));
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
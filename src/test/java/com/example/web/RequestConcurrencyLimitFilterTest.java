@@ -0,0 +1,143 @@
+package com.example.web;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestConcurrencyLimitFilterTest {
+    private HikariDataSource dataSource;
+    private SimpleMeterRegistry meterRegistry;
+    private final AtomicInteger handled = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        dataSource.close();
+    }
+
+    @Test
+    void maxConcurrentRequests_IsDerivedFromConnectionPoolSize() {
+        assertEquals(6, filter(true, 3).getMaxConcurrentRequests());
+    }
+
+    @Test
+    void doFilter_LimitReached_RejectsWithServiceUnavailable() throws Exception {
+        RequestConcurrencyLimitFilter filter = filter(true, 1);
+        CountDownLatch entered = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blocking = (request, response) -> {
+            entered.countDown();
+            await(release);
+        };
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> perform(filter, "/attractions", blocking),
+                executor);
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> perform(filter, "/attractions", blocking),
+                executor);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse rejected = perform(filter, "/attractions", countingChain());
+        MockHttpServletResponse actuator = perform(filter, "/actuator/health", countingChain());
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        MockHttpServletResponse accepted = perform(filter, "/attractions", countingChain());
+
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertEquals(200, actuator.getStatus());
+        assertEquals(200, accepted.getStatus());
+        assertEquals(2, handled.get());
+        assertEquals(1, meterRegistry.counter("http.server.requests.rejected").count());
+    }
+
+    @Test
+    void doFilter_AsyncRequest_HoldsPermitUntilAsyncCompletes() throws Exception {
+        RequestConcurrencyLimitFilter filter = filter(true, 1);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/attractions/export/city/1");
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertEquals(1, availablePermits());
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        asyncContext.complete();
+        asyncContext.complete();
+        assertEquals(2, availablePermits());
+        assertEquals(200, perform(filter, "/attractions", countingChain()).getStatus());
+    }
+
+    @Test
+    void doFilter_Disabled_DoesNotLimit() {
+        RequestConcurrencyLimitFilter filter = filter(false, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> perform(filter, "/attractions",
+                (request, response) -> await(release)), executor);
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> perform(filter, "/attractions",
+                (request, response) -> await(release)), executor);
+
+        MockHttpServletResponse response = perform(filter, "/attractions", countingChain());
+        release.countDown();
+        first.join();
+        second.join();
+
+        assertEquals(200, response.getStatus());
+        assertEquals(1, handled.get());
+    }
+
+    private RequestConcurrencyLimitFilter filter(boolean enabled, int requestsPerConnection) {
+        return new RequestConcurrencyLimitFilter(enabled, requestsPerConnection, Duration.ofMillis(50), dataSource,
+                meterRegistry);
+    }
+
+    private double availablePermits() {
+        return meterRegistry.get("http.server.requests.concurrency.available").gauge().value();
+    }
+
+    private FilterChain countingChain() {
+        return (request, response) -> handled.incrementAndGet();
+    }
+
+    private static MockHttpServletResponse perform(RequestConcurrencyLimitFilter filter, String uri,
+                                                   FilterChain chain) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(new MockHttpServletRequest("GET", uri), response, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}